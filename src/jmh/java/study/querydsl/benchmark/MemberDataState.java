@@ -0,0 +1,69 @@
+package study.querydsl.benchmark;
+
+import java.util.Iterator;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import study.querydsl.QuerydslApplication;
+import study.querydsl.dto.MemberIngestRow;
+import study.querydsl.service.MemberIngestService;
+
+/**
+ * 벤치마크 공용 상태. in-memory H2 로 애플리케이션 컨텍스트를 띄우고 memberCount 명을 넣어둔다.
+ * 회원은 team0 ~ team9 에 고르게, 나이는 0 ~ 99 로 분포.
+ */
+@State(Scope.Benchmark)
+public class MemberDataState {
+
+	public static final int TEAM_COUNT = 10;
+
+	@Param({"1000", "100000"})
+	public int memberCount;
+
+	public ConfigurableApplicationContext context;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringApplicationBuilder(QuerydslApplication.class)
+			.web(WebApplicationType.NONE)
+			.run("--spring.profiles.active=jmh",
+				"--spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+				"--spring.jpa.hibernate.ddl-auto=create",
+				"--spring.jpa.properties.hibernate.use_sql_comments=false",
+				"--logging.level.org.hibernate.SQL=warn",
+				"--logging.level.org.hibernate.type=warn",
+				"--decorator.datasource.p6spy.enable-logging=false",
+				"--querydsl.count-cache.enabled=false"); // count 쿼리 자체를 측정
+
+		Iterator<MemberIngestRow> rows = IntStream.range(0, memberCount)
+			.mapToObj(MemberDataState::row)
+			.iterator();
+		context.getBean(MemberIngestService.class).ingest(rows);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	public <T> T getBean(Class<T> type) {
+		return context.getBean(type);
+	}
+
+	private static MemberIngestRow row(int i) {
+		MemberIngestRow row = new MemberIngestRow();
+		row.setUsername("member" + i);
+		row.setAge(i % 100);
+		row.setTeamName("team" + (i % TEAM_COUNT));
+		return row;
+	}
+}
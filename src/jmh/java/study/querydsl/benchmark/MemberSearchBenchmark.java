@@ -0,0 +1,82 @@
+package study.querydsl.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.MemberTestRepository;
+
+// 리포지토리 검색 경로 비교
+// - searchByBuilder(BooleanBuilder) vs search(where 다중 파라미터)
+// - searchPageSimple vs searchPageComplex vs Querydsl4RepositorySupport.applyPagination
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MemberSearchBenchmark {
+
+	MemberJpaRepository memberJpaRepository;
+	MemberRepository memberRepository;
+	MemberTestRepository memberTestRepository;
+
+	MemberSearchCondition condition;
+	PageRequest pageRequest;
+
+	@Setup(Level.Trial)
+	public void setUp(MemberDataState data) {
+		memberJpaRepository = data.getBean(MemberJpaRepository.class);
+		memberRepository = data.getBean(MemberRepository.class);
+		memberTestRepository = data.getBean(MemberTestRepository.class);
+
+		condition = new MemberSearchCondition();
+		condition.setTeamName("team1");
+		condition.setAgeGoe(20);
+		condition.setAgeLoe(60);
+
+		pageRequest = PageRequest.of(1, 20); // 두 번째 페이지 -> count 쿼리까지 실행됨
+	}
+
+	@Benchmark
+	public List<MemberTeamDto> searchByBuilder() {
+		return memberJpaRepository.searchByBuilder(condition);
+	}
+
+	@Benchmark
+	public List<MemberTeamDto> search() {
+		return memberJpaRepository.search(condition);
+	}
+
+	@Benchmark
+	public Page<MemberTeamDto> searchPageSimple() {
+		return memberRepository.searchPageSimple(condition, pageRequest);
+	}
+
+	@Benchmark
+	public Page<MemberTeamDto> searchPageComplex() {
+		return memberRepository.searchPageComplex(condition, pageRequest);
+	}
+
+	@Benchmark
+	public Page<Member> applyPagination() {
+		return memberTestRepository.applyPagination(condition, pageRequest);
+	}
+
+	@Benchmark
+	public Page<Member> applyPaginationWithCountQuery() {
+		return memberTestRepository.applyPagination2(condition, pageRequest);
+	}
+}
@@ -0,0 +1,92 @@
+package study.querydsl.benchmark;
+
+import static study.querydsl.entity.QMember.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import jakarta.persistence.EntityManagerFactory;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.dto.UserDto;
+import study.querydsl.repository.MemberProjectionRepository;
+
+// QuerydslBasicTest 의 DTO 조회 방식 비교 (setter, field, constructor, @QueryProjection, DtoRowMapper)
+// ./gradlew jmh -PjmhIncludes=ProjectionBenchmark
+// 기록된 측정 결과는 아직 없음
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+	JPAQueryFactory queryFactory;
+	MemberProjectionRepository memberProjectionRepository;
+
+	@Setup(Level.Trial)
+	public void setUp(MemberDataState data) {
+		EntityManagerFactory emf = data.getBean(EntityManagerFactory.class);
+		queryFactory = new JPAQueryFactory(SharedEntityManagerCreator.createSharedEntityManager(emf));
+		memberProjectionRepository = data.getBean(MemberProjectionRepository.class);
+	}
+
+	@Benchmark
+	public List<MemberDto> bean() {
+		return queryFactory
+			.select(Projections.bean(MemberDto.class,
+				member.username,
+				member.age))
+			.from(member)
+			.fetch();
+	}
+
+	@Benchmark
+	public List<MemberDto> fields() {
+		return queryFactory
+			.select(Projections.fields(MemberDto.class,
+				member.username,
+				member.age))
+			.from(member)
+			.fetch();
+	}
+
+	@Benchmark
+	public List<UserDto> constructor() {
+		return queryFactory
+			.select(Projections.constructor(UserDto.class,
+				member.username,
+				member.age))
+			.from(member)
+			.fetch();
+	}
+
+	@Benchmark
+	public List<MemberDto> queryProjection() {
+		return queryFactory
+			.select(new QMemberDto(member.username, member.age))
+			.from(member)
+			.fetch();
+	}
+
+	@Benchmark
+	public List<MemberDto> rowMapper() {
+		return memberProjectionRepository.findMemberDtos();
+	}
+
+	@Benchmark
+	public List<UserDto> rowMapperConstructor() {
+		return memberProjectionRepository.findUserDtos();
+	}
+}
@@ -0,0 +1,87 @@
+package study.querydsl.benchmark;
+
+import static study.querydsl.entity.QMember.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.support.MeteredJPAQueryFactory;
+import study.querydsl.repository.support.QueryMetrics;
+
+// 엔티티 조회 시 스냅샷 유무 비교 (managed vs readOnly 힌트)
+// - loadAndFlush: 전체 회원 조회 + flush(dirty checking) 시간
+// - retainedHeap: 조회 후 영속성 컨텍스트가 들고 있는 힙 (retainedBytes, 1회 실행당)
+// ./gradlew jmh -PjmhIncludes=ReadOnlyQueryBenchmark -PmemberCount=100000
+// 기록된 측정 결과는 아직 없음
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ReadOnlyQueryBenchmark {
+
+	@Param({"managed", "readOnly"})
+	public String mode;
+
+	EntityManager em;
+	MeteredJPAQueryFactory queryFactory;
+	TransactionTemplate transactionTemplate;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Heap {
+		public long retainedBytes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			retainedBytes = 0;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp(MemberDataState data) {
+		em = SharedEntityManagerCreator.createSharedEntityManager(data.getBean(EntityManagerFactory.class));
+		MeteredJPAQueryFactory factory = data.getBean(QueryMetrics.class).factory(em).named("benchmark.readOnly");
+		queryFactory = "readOnly".equals(mode) ? factory.readOnly() : factory;
+		transactionTemplate = data.getBean(TransactionTemplate.class);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	public int loadAndFlush() {
+		return transactionTemplate.execute(status -> {
+			List<Member> members = queryFactory.selectFrom(member).fetch();
+			em.flush(); // managed 는 모든 엔티티를 스냅샷과 비교
+			return members.size();
+		});
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	public int retainedHeap(Heap heap) {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		return transactionTemplate.execute(status -> {
+			memory.gc();
+			long before = memory.getHeapMemoryUsage().getUsed();
+			List<Member> members = queryFactory.selectFrom(member).fetch();
+			memory.gc(); // 영속성 컨텍스트(엔티티 + 스냅샷)가 붙잡고 있는 것만 남음
+			heap.retainedBytes += memory.getHeapMemoryUsage().getUsed() - before;
+			return members.size();
+		});
+	}
+}
@@ -0,0 +1,227 @@
+package study.querydsl.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import study.querydsl.QuerydslApplication;
+import study.querydsl.dto.MemberIngestRow;
+import study.querydsl.service.MemberIngestService;
+
+/**
+ * /v1 ~ /v3 검색 부하 테스트. 플랫폼 스레드(Tomcat 기본 풀) vs 가상 스레드 + JdbcConcurrencyLimiter 비교.
+ * <p>
+ * 모드마다 in-memory H2 로 애플리케이션을 새로 띄우고 memberCount 명을 넣은 뒤, clients 개의 동시 클라이언트가
+ * 각자 응답을 받자마자 다음 요청을 보내는 것을 endpoint 마다 durationSeconds 동안 반복한다. (닫힌 부하 모델)
+ * 조건 값은 요청마다 무작위 - 같은 조건이면 single-flight 로 합쳐져서 DB 부하가 줄어드므로.
+ * <pre>
+ * ./gradlew loadTest -Pclients=5000 -PdurationSeconds=30 -PmemberCount=100000
+ * </pre>
+ * 결과는 mode, endpoint 별 처리량(성공 req/s), p50, p99, 오류 수(5xx, 연결 실패, timeout), 오류 p99 표로 출력.
+ * p50/p99 는 오류 응답까지 포함한 전체 요청 기준 - limiter 가 acquire-timeout 만큼 기다린 뒤 돌려주는 503 도 지연에 들어가므로
+ * 오류가 많은 모드가 성공 요청만 골라 세서 유리해지지 않는다.
+ */
+public class SearchLoadTest {
+
+	private static final int TEAM_COUNT = 10;
+	private static final Duration WARMUP = Duration.ofSeconds(5);
+
+	private static final List<Endpoint> ENDPOINTS = List.of(
+		new Endpoint("/v1", random -> "/v1/members?teamName=team" + random.nextInt(TEAM_COUNT)
+			+ "&ageGoe=" + random.nextInt(100) + "&ageLoe=" + (90 + random.nextInt(10))),
+		new Endpoint("/v2", random -> "/v2/members?teamName=team" + random.nextInt(TEAM_COUNT)
+			+ "&ageGoe=" + random.nextInt(100) + "&page=" + random.nextInt(50) + "&size=20"),
+		new Endpoint("/v3", random -> "/v3/members?ageGoe=" + random.nextInt(100)
+			+ "&page=" + random.nextInt(50) + "&size=20"));
+
+	record Endpoint(String name, Function<ThreadLocalRandom, String> path) {
+	}
+
+	record Result(String mode, String endpoint, long requests, long errors, double seconds, long[] latencies,
+		long[] errorLatencies) {
+
+		// 성공한 요청만
+		double throughput() {
+			return (requests - errors) / seconds;
+		}
+
+		// 오류 포함 전체 요청
+		double percentileMillis(double percentile) {
+			return percentileMillis(latencies, percentile);
+		}
+
+		double errorPercentileMillis(double percentile) {
+			return percentileMillis(errorLatencies, percentile);
+		}
+
+		private static double percentileMillis(long[] sorted, double percentile) {
+			if (sorted.length == 0) {
+				return Double.NaN;
+			}
+			int index = (int)Math.ceil(percentile * sorted.length) - 1;
+			return sorted[Math.max(index, 0)] / 1_000_000.0;
+		}
+	}
+
+	// 클라이언트 하나가 기록한 지연 (ns)
+	private static final class Latencies {
+
+		private long[] values;
+		private int size;
+
+		Latencies(int capacity) {
+			this.values = new long[capacity];
+		}
+
+		void add(long nanos) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = nanos;
+		}
+
+		static long[] merge(List<Latencies> latencies) {
+			long[] merged = new long[latencies.stream().mapToInt(l -> l.size).sum()];
+			int offset = 0;
+			for (Latencies l : latencies) {
+				System.arraycopy(l.values, 0, merged, offset, l.size);
+				offset += l.size;
+			}
+			Arrays.sort(merged);
+			return merged;
+		}
+	}
+
+	// 클라이언트 하나의 전체 요청 지연과 그중 오류 요청 지연
+	private record ClientLatencies(Latencies all, Latencies errors) {
+	}
+
+	public static void main(String[] args) throws Exception {
+		int clients = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+		Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 30);
+		int memberCount = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+		List<Result> results = new ArrayList<>();
+		results.addAll(run("platform", false, clients, duration, memberCount));
+		results.addAll(run("virtual", true, clients, duration, memberCount));
+
+		System.out.printf("%nclients=%d duration=%ds members=%d%n", clients, duration.toSeconds(), memberCount);
+		System.out.printf("%-9s %-8s %12s %10s %10s %8s %14s%n", "mode", "endpoint", "req/s", "p50(ms)", "p99(ms)",
+			"errors", "error p99(ms)");
+		for (Result result : results) {
+			System.out.printf(Locale.ROOT, "%-9s %-8s %12.1f %10.1f %10.1f %8d %14.1f%n", result.mode(),
+				result.endpoint(), result.throughput(), result.percentileMillis(0.5), result.percentileMillis(0.99),
+				result.errors(), result.errorPercentileMillis(0.99));
+		}
+	}
+
+	private static List<Result> run(String mode, boolean virtualThreads, int clients, Duration duration,
+		int memberCount) throws Exception {
+		try (ConfigurableApplicationContext context = start(mode, virtualThreads)) {
+			seed(context, memberCount);
+			String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+			try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+				HttpClient client = HttpClient.newBuilder()
+					.version(HttpClient.Version.HTTP_1_1)
+					.connectTimeout(Duration.ofSeconds(30))
+					.executor(executor)
+					.build();
+				List<Result> results = new ArrayList<>();
+				for (Endpoint endpoint : ENDPOINTS) {
+					load(client, executor, baseUrl, endpoint, clients, WARMUP, mode); // JIT, 커넥션 준비
+					results.add(load(client, executor, baseUrl, endpoint, clients, duration, mode));
+				}
+				return results;
+			}
+		}
+	}
+
+	private static ConfigurableApplicationContext start(String mode, boolean virtualThreads) {
+		return new SpringApplicationBuilder(QuerydslApplication.class)
+			.run("--spring.profiles.active=loadtest",
+				"--server.port=0",
+				"--server.tomcat.max-connections=20000",
+				"--server.tomcat.accept-count=10000",
+				"--spring.threads.virtual.enabled=" + virtualThreads,
+				"--querydsl.jdbc-limiter.enabled=" + virtualThreads,
+				"--spring.datasource.url=jdbc:h2:mem:loadtest-" + mode + ";DB_CLOSE_DELAY=-1",
+				"--spring.jpa.hibernate.ddl-auto=create",
+				"--spring.jpa.properties.hibernate.use_sql_comments=false",
+				"--logging.level.org.hibernate.SQL=warn",
+				"--logging.level.org.hibernate.type=warn",
+				"--logging.level.study.querydsl=warn",
+				"--decorator.datasource.p6spy.enable-logging=false");
+	}
+
+	private static void seed(ConfigurableApplicationContext context, int memberCount) {
+		Iterator<MemberIngestRow> rows = IntStream.range(0, memberCount)
+			.mapToObj(i -> {
+				MemberIngestRow row = new MemberIngestRow();
+				row.setUsername("member" + i);
+				row.setAge(i % 100);
+				row.setTeamName("team" + (i % TEAM_COUNT));
+				return row;
+			})
+			.iterator();
+		context.getBean(MemberIngestService.class).ingest(rows);
+	}
+
+	private static Result load(HttpClient client, ExecutorService executor, String baseUrl, Endpoint endpoint,
+		int clients, Duration duration, String mode) throws Exception {
+		long deadline = System.nanoTime() + duration.toNanos();
+		List<Future<ClientLatencies>> futures = new ArrayList<>(clients);
+		for (int i = 0; i < clients; i++) {
+			futures.add(executor.submit(() -> {
+				ClientLatencies recorded = new ClientLatencies(new Latencies(1024), new Latencies(16));
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				while (System.nanoTime() < deadline) {
+					HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint.path().apply(random)))
+						.timeout(Duration.ofSeconds(60))
+						.build();
+					long start = System.nanoTime();
+					boolean failed;
+					try {
+						HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+						failed = response.statusCode() >= 500;
+					} catch (Exception e) {
+						failed = true;
+					}
+					long latency = System.nanoTime() - start;
+					recorded.all().add(latency);
+					if (failed) {
+						recorded.errors().add(latency);
+					}
+				}
+				return recorded;
+			}));
+		}
+
+		List<Latencies> all = new ArrayList<>(clients);
+		List<Latencies> errors = new ArrayList<>(clients);
+		for (Future<ClientLatencies> future : futures) {
+			ClientLatencies recorded = future.get();
+			all.add(recorded.all());
+			errors.add(recorded.errors());
+		}
+		long[] latencies = Latencies.merge(all);
+		long[] errorLatencies = Latencies.merge(errors);
+		return new Result(mode, endpoint.name(), latencies.length, errorLatencies.length, duration.toNanos() / 1e9,
+			latencies, errorLatencies);
+	}
+}
@@ -2,8 +2,10 @@ package study.querydsl;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // TeamStatistics 재계산
 public class QuerydslApplication {
 
 	public static void main(String[] args) {
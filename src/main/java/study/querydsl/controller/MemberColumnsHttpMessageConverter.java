@@ -0,0 +1,159 @@
+package study.querydsl.controller;
+
+import static java.nio.charset.StandardCharsets.*;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import study.querydsl.dto.MemberTeamColumns;
+
+/**
+ * application/x-member-columns - 회원 검색 결과 바이너리 컬럼 형식. (배치 소비자용, Accept 헤더로 선택)
+ * <p>
+ * JSON 은 행마다 필드 이름을, Page 응답마다 pageable/sort 메타데이터를 반복한다. 여기서는 컬럼별로 값만 연속해서 쓴다.
+ * 모든 정수는 big-endian, 문자열은 (int 바이트 길이, UTF-8 바이트) 이고 길이 -1 은 null.
+ * <pre>
+ * int     magic 0x4D544331 ("MTC1")
+ * byte    flags (1 = 페이지 메타데이터 있음)
+ * [flags & 1] long totalElements, int pageNumber, int pageSize
+ * int     n (행 수)
+ * long[n] memberId
+ * int[n]  age
+ * long[n] teamId (팀 없으면 0)
+ * int     d, string[d] 팀 이름 사전
+ * int[n]  팀 이름 코드 (사전 index, 팀 없으면 -1)
+ * string[n] username
+ * </pre>
+ * Spring Boot 가 HttpMessageConverter 빈을 기본 컨버터 목록에 추가한다.
+ */
+@Component
+public class MemberColumnsHttpMessageConverter extends AbstractHttpMessageConverter<MemberTeamColumns> {
+
+	public static final String MEDIA_TYPE_VALUE = "application/x-member-columns";
+	public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+	static final int MAGIC = 0x4D544331;
+	static final int FLAG_PAGE = 1;
+
+	public MemberColumnsHttpMessageConverter() {
+		super(MEDIA_TYPE);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return MemberTeamColumns.class == clazz;
+	}
+
+	@Override
+	protected void writeInternal(MemberTeamColumns columns, HttpOutputMessage outputMessage) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputMessage.getBody(), 64 * 1024));
+		int n = columns.size();
+		out.writeInt(MAGIC);
+		out.writeByte(columns.isPage() ? FLAG_PAGE : 0);
+		if (columns.isPage()) {
+			out.writeLong(columns.getTotalElements());
+			out.writeInt(columns.getPageNumber());
+			out.writeInt(columns.getPageSize());
+		}
+		out.writeInt(n);
+		for (int row = 0; row < n; row++) {
+			out.writeLong(columns.memberId(row));
+		}
+		for (int row = 0; row < n; row++) {
+			out.writeInt(columns.age(row));
+		}
+		for (int row = 0; row < n; row++) {
+			out.writeLong(columns.teamId(row));
+		}
+		out.writeInt(columns.getTeamNames().size());
+		for (String teamName : columns.getTeamNames()) {
+			writeString(out, teamName);
+		}
+		for (int row = 0; row < n; row++) {
+			out.writeInt(columns.teamNameCode(row));
+		}
+		for (int row = 0; row < n; row++) {
+			writeString(out, columns.username(row));
+		}
+		out.flush();
+	}
+
+	@Override
+	protected MemberTeamColumns readInternal(Class<? extends MemberTeamColumns> clazz,
+		HttpInputMessage inputMessage) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(inputMessage.getBody()));
+		if (in.readInt() != MAGIC) {
+			throw new HttpMessageNotReadableException("application/x-member-columns 형식이 아닙니다.", inputMessage);
+		}
+		boolean page = (in.readByte() & FLAG_PAGE) != 0;
+		long totalElements = page ? in.readLong() : -1;
+		int pageNumber = page ? in.readInt() : 0;
+		int pageSize = page ? in.readInt() : 0;
+
+		int n = in.readInt();
+		long[] memberIds = new long[n];
+		for (int row = 0; row < n; row++) {
+			memberIds[row] = in.readLong();
+		}
+		int[] ages = new int[n];
+		for (int row = 0; row < n; row++) {
+			ages[row] = in.readInt();
+		}
+		long[] teamIds = new long[n];
+		for (int row = 0; row < n; row++) {
+			teamIds[row] = in.readLong();
+		}
+		String[] teamNames = new String[in.readInt()];
+		for (int i = 0; i < teamNames.length; i++) {
+			teamNames[i] = readString(in);
+		}
+		int[] teamNameCodes = new int[n];
+		for (int row = 0; row < n; row++) {
+			teamNameCodes[row] = in.readInt();
+		}
+
+		MemberTeamColumns columns = new MemberTeamColumns(n);
+		for (String teamName : teamNames) {
+			columns.addTeamName(teamName); // 사전 코드 유지
+		}
+		for (int row = 0; row < n; row++) {
+			boolean hasTeam = teamNameCodes[row] != MemberTeamColumns.NO_TEAM;
+			columns.add(memberIds[row], readString(in), ages[row], hasTeam ? teamIds[row] : null,
+				hasTeam ? teamNames[teamNameCodes[row]] : null);
+		}
+		if (page) {
+			columns.page(totalElements, pageNumber, pageSize);
+		}
+		return columns;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, UTF_8);
+	}
+}
@@ -1,24 +1,52 @@
 package study.querydsl.controller;
 
+import static java.nio.charset.StandardCharsets.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import study.querydsl.dto.IngestResult;
+import study.querydsl.dto.KeysetCursor;
+import study.querydsl.dto.KeysetSlice;
+import study.querydsl.dto.MemberIngestRow;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.service.MemberIngestService;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+	private static final int MAX_SLICE_SIZE = 100;
+
 	private final MemberJpaRepository memberJpaRepository;
 	private final MemberRepository memberRepository;
+	private final MemberIngestService memberIngestService;
+	private final ObjectMapper objectMapper;
 
 	@GetMapping("/v1/members")
 	public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
@@ -34,4 +62,70 @@ public class MemberController {
 	public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
 		return memberRepository.searchPageComplex(condition, pageable);
 	}
+
+	// Accept: application/x-member-columns - 같은 검색을 바이너리 컬럼 형식으로 (MemberColumnsHttpMessageConverter)
+	// 쿼리 결과 행에서 바로 컬럼을 채우므로 MemberTeamDto 를 만들지 않음
+	@GetMapping(value = "/v1/members", produces = MemberColumnsHttpMessageConverter.MEDIA_TYPE_VALUE)
+	public MemberTeamColumns searchMemberV1Columns(MemberSearchCondition condition) {
+		return memberJpaRepository.searchColumns(condition);
+	}
+
+	// v2, v3 는 같은 페이지 - count 는 필요할 때만 (v3 방식)
+	@GetMapping(value = {"/v2/members", "/v3/members"}, produces = MemberColumnsHttpMessageConverter.MEDIA_TYPE_VALUE)
+	public MemberTeamColumns searchMemberPageColumns(MemberSearchCondition condition, Pageable pageable) {
+		return memberRepository.searchPageColumns(condition, pageable);
+	}
+
+	// cursor 가 없으면 첫 페이지, 응답의 nextCursor 를 그대로 넘기면 다음 페이지
+	@GetMapping("/v4/members")
+	public KeysetSlice<MemberTeamDto> searchMemberV4(MemberSearchCondition condition,
+		@RequestParam(required = false) String cursor,
+		@RequestParam(defaultValue = "ID") KeysetCursor.SortKey sort,
+		@RequestParam(defaultValue = "20") int size) {
+		KeysetCursor keysetCursor;
+		try {
+			keysetCursor = cursor != null ? KeysetCursor.decode(cursor) : KeysetCursor.first(sort);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+		}
+		int sliceSize = Math.min(Math.max(size, 1), MAX_SLICE_SIZE);
+		return memberRepository.searchSlice(condition, keysetCursor, sliceSize);
+	}
+
+	// 조회 결과를 List 로 모으지 않고 DB 커서에서 읽는 대로 응답에 씀 -> 결과 크기와 상관없이 힙 사용량 일정
+	// 첫 행을 쓰자마자 flush 해서 클라이언트가 바로 받기 시작함
+	@GetMapping("/members/export")
+	public ResponseEntity<StreamingResponseBody> exportMembers(MemberSearchCondition condition,
+		@RequestParam(defaultValue = "NDJSON") MemberExportFormat format) {
+		StreamingResponseBody body = out -> {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8));
+			format.writeHeader(writer);
+			boolean[] first = {true};
+			memberJpaRepository.searchStream(condition, row -> {
+				try {
+					format.writeRow(writer, objectMapper, row);
+					if (first[0]) {
+						writer.flush();
+						first[0] = false;
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			writer.flush();
+		};
+		return ResponseEntity.ok()
+			.contentType(MediaType.parseMediaType(format.getContentType()))
+			.body(body);
+	}
+
+	// NDJSON 한 줄에 회원 한 명 {"username":"member1","age":10,"teamName":"teamA"}
+	// 요청 본문을 한 번에 읽지 않고 한 줄씩 파싱해서 chunk 단위로 저장
+	@PostMapping(value = "/members/bulk", consumes = "application/x-ndjson")
+	public IngestResult ingestMembers(HttpServletRequest request) throws IOException {
+		try (MappingIterator<MemberIngestRow> rows = objectMapper.readerFor(MemberIngestRow.class)
+			.readValues(request.getInputStream())) {
+			return memberIngestService.ingest(rows);
+		}
+	}
 }
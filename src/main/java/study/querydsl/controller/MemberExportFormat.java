@@ -0,0 +1,68 @@
+package study.querydsl.controller;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import study.querydsl.dto.MemberTeamDto;
+
+// /members/export 응답 형식. 한 행씩 바로 쓰기 때문에 전체 결과를 메모리에 올리지 않음
+public enum MemberExportFormat {
+
+	NDJSON("application/x-ndjson") {
+		@Override
+		void writeRow(Writer writer, ObjectMapper objectMapper, MemberTeamDto row) throws IOException {
+			writer.write(objectMapper.writeValueAsString(row));
+			writer.write('\n');
+		}
+	},
+
+	CSV("text/csv") {
+		@Override
+		void writeHeader(Writer writer) throws IOException {
+			writer.write("memberId,username,age,teamId,teamName\n");
+		}
+
+		@Override
+		void writeRow(Writer writer, ObjectMapper objectMapper, MemberTeamDto row) throws IOException {
+			writer.write(String.valueOf(row.getMemberId()));
+			writer.write(',');
+			writer.write(csv(row.getUsername()));
+			writer.write(',');
+			writer.write(String.valueOf(row.getAge()));
+			writer.write(',');
+			writer.write(row.getTeamId() != null ? String.valueOf(row.getTeamId()) : "");
+			writer.write(',');
+			writer.write(csv(row.getTeamName()));
+			writer.write('\n');
+		}
+	};
+
+	private final String contentType;
+
+	MemberExportFormat(String contentType) {
+		this.contentType = contentType;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	void writeHeader(Writer writer) throws IOException {
+	}
+
+	abstract void writeRow(Writer writer, ObjectMapper objectMapper, MemberTeamDto row) throws IOException;
+
+	// RFC 4180. null 은 빈 필드, 빈 문자열은 "" 로 구분
+	private static String csv(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (!value.isEmpty() && value.indexOf(',') < 0 && value.indexOf('"') < 0
+			&& value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+}
@@ -0,0 +1,64 @@
+package study.querydsl.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import study.querydsl.repository.support.StatementBudget;
+
+/**
+ * HTTP 요청 한 번 동안 나간 statement 수를 {@link StatementBudget} 으로 세서 querydsl.request.statements{uri} 로 남기고,
+ * 요청이 끝난 뒤 예산을 넘겼으면 경고 로그.
+ * 스트리밍/비동기 응답은 요청 스레드가 먼저 끝나므로 요청 스레드에서 나간 statement 까지만 센다.
+ */
+@Component
+public class StatementBudgetInterceptor implements AsyncHandlerInterceptor {
+
+	private static final String SCOPE_ATTRIBUTE = StatementBudgetInterceptor.class.getName() + ".scope";
+
+	private final MeterRegistry meterRegistry;
+	private final int perRequest;
+
+	public StatementBudgetInterceptor(MeterRegistry meterRegistry,
+		@Value("${querydsl.statement-budget.per-request:30}") int perRequest) {
+		this.meterRegistry = meterRegistry;
+		this.perRequest = perRequest;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		String name = request.getMethod() + " " + request.getRequestURI();
+		request.setAttribute(SCOPE_ATTRIBUTE, StatementBudget.open(name, perRequest));
+		return true;
+	}
+
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+		Object handler) {
+		close(request);
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+		Exception ex) {
+		close(request);
+	}
+
+	private void close(HttpServletRequest request) {
+		if (!(request.getAttribute(SCOPE_ATTRIBUTE) instanceof StatementBudget.Scope scope)) {
+			return;
+		}
+		request.removeAttribute(SCOPE_ATTRIBUTE);
+		scope.close();
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		DistributionSummary.builder("querydsl.request.statements")
+			.tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+			.register(meterRegistry)
+			.record(scope.getCount());
+	}
+}
@@ -0,0 +1,84 @@
+package study.querydsl.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import lombok.RequiredArgsConstructor;
+import study.querydsl.dto.KeysetSlice;
+import study.querydsl.dto.TeamMemberDto;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.dto.TeamTransferRequest;
+import study.querydsl.dto.TeamTransferResult;
+import study.querydsl.dto.TeamWithMembersDto;
+import study.querydsl.repository.TeamQueryRepository;
+import study.querydsl.repository.readmodel.TeamStatistics;
+import study.querydsl.service.TeamTransferService;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+	private static final int MAX_PAGE_SIZE = 100;
+
+	private final TeamTransferService teamTransferService;
+	private final TeamStatistics teamStatistics;
+	private final TeamQueryRepository teamQueryRepository;
+
+	// 팀 size 개 + 팀마다 회원 memberLimit 명. 응답의 nextCursor 로 다음 팀 페이지, membersCursor 로 팀의 나머지 회원
+	@GetMapping("/teams")
+	public KeysetSlice<TeamWithMembersDto> teams(@RequestParam(required = false) Long cursor,
+		@RequestParam(defaultValue = "20") int size,
+		@RequestParam(defaultValue = "10") int memberLimit) {
+		return teamQueryRepository.findTeamsWithMembers(cursor, clamp(size), clamp(memberLimit));
+	}
+
+	@GetMapping("/teams/{teamId}/members")
+	public KeysetSlice<TeamMemberDto> teamMembers(@PathVariable Long teamId,
+		@RequestParam(required = false) Long cursor,
+		@RequestParam(defaultValue = "20") int size) {
+		return teamQueryRepository.findMembers(teamId, cursor, clamp(size));
+	}
+
+	// 팀별 회원 수, 나이 합/평균/최소/최대. 메모리 집계라 팀 수에 비례 (querydsl.team-stats.enabled)
+	@GetMapping("/teams/stats")
+	public List<TeamStatsDto> teamStats() {
+		return teamStatistics.stats();
+	}
+
+	@PutMapping("/members/{memberId}/team/{teamId}")
+	public ResponseEntity<Void> transferMember(@PathVariable Long memberId, @PathVariable Long teamId) {
+		try {
+			teamTransferService.transfer(memberId, teamId);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+		}
+		return ResponseEntity.noContent().build();
+	}
+
+	// {"toTeamId":2,"memberIds":[1,2,3]}
+	@PostMapping("/teams/{teamId}/transfer")
+	public TeamTransferResult transferMembers(@PathVariable Long teamId, @RequestBody TeamTransferRequest request) {
+		if (request.getToTeamId() == null || request.getMemberIds() == null) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "toTeamId, memberIds 는 필수입니다");
+		}
+		try {
+			return teamTransferService.transfer(teamId, request.getToTeamId(), request.getMemberIds());
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+		}
+	}
+
+	private static int clamp(int size) {
+		return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+	}
+}
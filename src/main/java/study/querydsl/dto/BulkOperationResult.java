@@ -0,0 +1,23 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class BulkOperationResult {
+
+	private final String jobName;
+	private final int chunks;
+	private final long rows; // update/delete 된 행 수
+	private final long elapsedMillis;
+	private final double rowsPerSecond;
+
+	public BulkOperationResult(String jobName, int chunks, long rows, long elapsedNanos) {
+		this.jobName = jobName;
+		this.chunks = chunks;
+		this.rows = rows;
+		this.elapsedMillis = elapsedNanos / 1_000_000;
+		this.rowsPerSecond = elapsedNanos > 0 ? rows * 1_000_000_000.0 / elapsedNanos : 0;
+	}
+}
@@ -0,0 +1,31 @@
+package study.querydsl.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.ToString;
+
+// 검색 조건 조합(shape) + 정렬 하나에 대한 실행 계획 분석 결과
+@Getter
+@ToString
+public class IndexAdvice {
+
+	private final List<String> conditions; // 값이 있던 MemberSearchCondition 필드
+	private final String orderBy;
+	private final long count; // 들어온 요청 수
+	private final List<String> usedIndexes;
+	private final boolean memberFullScan;
+	private final String suggestion; // 없으면 null
+	private final String plan;
+
+	public IndexAdvice(List<String> conditions, String orderBy, long count, List<String> usedIndexes,
+		boolean memberFullScan, String suggestion, String plan) {
+		this.conditions = conditions;
+		this.orderBy = orderBy;
+		this.count = count;
+		this.usedIndexes = usedIndexes;
+		this.memberFullScan = memberFullScan;
+		this.suggestion = suggestion;
+		this.plan = plan;
+	}
+}
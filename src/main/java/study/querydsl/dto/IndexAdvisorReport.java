@@ -0,0 +1,21 @@
+package study.querydsl.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class IndexAdvisorReport {
+
+	private final List<IndexAdvice> shapes; // 요청 수가 많은 순
+	private final List<String> unusedIndexes; // 기록된 어떤 shape 의 실행 계획에도 나오지 않은 인덱스
+	private final boolean planOnly; // true 면 H2 가 아니라 실행 계획을 해석하지 않음 - plan 원문만 참고
+
+	public IndexAdvisorReport(List<IndexAdvice> shapes, List<String> unusedIndexes, boolean planOnly) {
+		this.shapes = shapes;
+		this.unusedIndexes = unusedIndexes;
+		this.planOnly = planOnly;
+	}
+}
@@ -0,0 +1,35 @@
+package study.querydsl.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class IngestResult {
+
+	private final long rows;
+	private final long failedRows; // 저장되지 않은 행 수
+	private final List<RowRange> failedRanges; // 저장되지 않은 행의 위치
+	private final boolean stopped; // true 면 마지막 failedRange 이후 행은 읽지 않음
+	private final long elapsedMillis;
+	private final double rowsPerSecond;
+
+	public IngestResult(long rows, List<RowRange> failedRanges, boolean stopped, long elapsedNanos) {
+		this.rows = rows;
+		this.failedRows = failedRanges.stream().mapToLong(RowRange::size).sum();
+		this.failedRanges = List.copyOf(failedRanges);
+		this.stopped = stopped;
+		this.elapsedMillis = elapsedNanos / 1_000_000;
+		this.rowsPerSecond = elapsedNanos > 0 ? rows * 1_000_000_000.0 / elapsedNanos : 0;
+	}
+
+	// 요청 본문에서 0부터 센 행 번호. from 포함, to 제외
+	public record RowRange(long from, long to) {
+
+		public long size() {
+			return to - from;
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package study.querydsl.dto;
+
+import static java.nio.charset.StandardCharsets.*;
+
+import java.util.Base64;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+// Keyset(seek) 페이징용 커서. offset 대신 마지막으로 본 (sortKey, member.id) 다음부터 조회
+// 클라이언트에는 encode() 한 불투명 토큰만 내려줌
+@Getter
+@EqualsAndHashCode
+@ToString
+public class KeysetCursor {
+
+	private static final String SEPARATOR = ":";
+
+	public enum SortKey {
+		ID, AGE
+	}
+
+	private final SortKey sortKey;
+	private final Long lastId; // null 이면 첫 페이지
+	private final String lastValue; // sortKey 가 ID 가 아닐 때 마지막 행의 정렬 값
+
+	private KeysetCursor(SortKey sortKey, Long lastId, String lastValue) {
+		this.sortKey = sortKey;
+		this.lastId = lastId;
+		this.lastValue = lastValue;
+	}
+
+	public static KeysetCursor first(SortKey sortKey) {
+		return new KeysetCursor(sortKey != null ? sortKey : SortKey.ID, null, null);
+	}
+
+	public static KeysetCursor after(SortKey sortKey, Long lastId, String lastValue) {
+		return new KeysetCursor(sortKey, lastId, lastValue);
+	}
+
+	public boolean isFirst() {
+		return lastId == null;
+	}
+
+	public String encode() {
+		String raw = sortKey.name() + SEPARATOR + lastId + SEPARATOR + (lastValue != null ? lastValue : "");
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(UTF_8));
+	}
+
+	public static KeysetCursor decode(String token) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), UTF_8);
+			String[] parts = raw.split(SEPARATOR, 3);
+			if (parts.length != 3) {
+				throw new IllegalArgumentException("cursor 형식이 올바르지 않습니다: " + token);
+			}
+			SortKey sortKey = SortKey.valueOf(parts[0]);
+			Long lastId = Long.valueOf(parts[1]);
+			String lastValue = parts[2].isEmpty() ? null : parts[2];
+			if (sortKey == SortKey.AGE) {
+				Integer.parseInt(lastValue); // AGE 커서는 정렬 값이 반드시 있어야 함
+			}
+			return new KeysetCursor(sortKey, lastId, lastValue);
+		} catch (IllegalArgumentException e) { // NumberFormatException 포함
+			throw new IllegalArgumentException("cursor 형식이 올바르지 않습니다: " + token, e);
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package study.querydsl.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+
+// Keyset 페이징 결과. total count 없이 다음 페이지 존재 여부와 다음 커서만 제공
+@Getter
+public class KeysetSlice<T> {
+
+	private final List<T> content;
+	private final int size;
+	private final boolean hasNext;
+	private final String nextCursor; // 마지막 페이지면 null
+
+	public KeysetSlice(List<T> content, boolean hasNext, String nextCursor) {
+		this.content = content;
+		this.size = content.size();
+		this.hasNext = hasNext;
+		this.nextCursor = nextCursor;
+	}
+}
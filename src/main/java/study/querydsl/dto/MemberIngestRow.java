@@ -0,0 +1,12 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+// 대량 등록 요청의 한 행 (NDJSON 한 줄)
+@Data
+public class MemberIngestRow {
+
+	private String username;
+	private int age;
+	private String teamName; // 없으면 팀 없이 등록, 처음 보는 이름이면 팀 생성
+}
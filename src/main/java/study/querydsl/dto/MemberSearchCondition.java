@@ -1,5 +1,7 @@
 package study.querydsl.dto;
 
+import static org.springframework.util.StringUtils.*;
+
 import lombok.Data;
 
 @Data
@@ -8,7 +10,31 @@ public class MemberSearchCondition {
 	// 회원명, 팀명, 나이(age,Goe, ageLoe)
 
 	private String username;
+	private UsernameMatch usernameMatch; // null 이면 EXACT
 	private String teamName;
 	private Integer ageGoe;
 	private Integer ageLoe;
+
+	// 같은 where 절이 만들어지는 조건은 같은 값이 되도록 정규화한 복사본 (캐시 key 등에 사용)
+	// usernameEq, teamNameEq 처럼 hasText 가 아니면 조건에서 빠지므로 null 로 맞춤
+	public MemberSearchCondition normalized() {
+		MemberSearchCondition normalized = new MemberSearchCondition();
+		normalized.setUsername(hasText(username) ? username : null);
+		normalized.setUsernameMatch(hasText(username) && usernameMatch != null ? usernameMatch : UsernameMatch.EXACT);
+		normalized.setTeamName(hasText(teamName) ? teamName : null);
+		normalized.setAgeGoe(ageGoe);
+		normalized.setAgeLoe(ageLoe);
+		return normalized;
+	}
+
+	public UsernameMatch usernameMatchOrDefault() {
+		return usernameMatch != null ? usernameMatch : UsernameMatch.EXACT;
+	}
+
+	// username 검색 방식. PREFIX, CONTAINS 는 UsernameNgramIndex 로 후보 id 를 먼저 좁힌다
+	public enum UsernameMatch {
+		EXACT, // username = ?
+		PREFIX, // username like 'x%'
+		CONTAINS // username like '%x%'
+	}
 }
@@ -0,0 +1,170 @@
+package study.querydsl.dto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Pageable;
+
+/**
+ * MemberTeamDto 목록을 행(객체) 대신 컬럼(배열)으로 담은 검색 결과. application/x-member-columns 응답용.
+ * <p>
+ * 쿼리 결과 행에서 바로 채우기 때문에 MemberTeamDto 를 만들지 않는다. 팀 이름은 사전(teamNames)에 한 번만 두고
+ * 행에는 사전 코드만 둔다. 팀이 없는 회원은 teamId 0, 팀 이름 코드 -1.
+ * <p>
+ * 페이지 조회면 totalElements, pageNumber, pageSize 도 함께. (아니면 totalElements 가 -1)
+ */
+public class MemberTeamColumns {
+
+	public static final int NO_TEAM = -1;
+
+	private long[] memberIds;
+	private String[] usernames;
+	private int[] ages;
+	private long[] teamIds;
+	private int[] teamNameCodes;
+	private int size;
+
+	private final List<String> teamNames = new ArrayList<>();
+	private final Map<String, Integer> teamNameCodeByName = new HashMap<>();
+
+	private long totalElements = -1;
+	private int pageNumber;
+	private int pageSize;
+
+	public MemberTeamColumns(int expectedSize) {
+		int capacity = Math.max(expectedSize, 16);
+		memberIds = new long[capacity];
+		usernames = new String[capacity];
+		ages = new int[capacity];
+		teamIds = new long[capacity];
+		teamNameCodes = new int[capacity];
+	}
+
+	public static MemberTeamColumns from(List<MemberTeamDto> rows) {
+		MemberTeamColumns columns = new MemberTeamColumns(rows.size());
+		for (MemberTeamDto row : rows) {
+			columns.add(row.getMemberId(), row.getUsername(), row.getAge(), row.getTeamId(), row.getTeamName());
+		}
+		return columns;
+	}
+
+	public void add(Long memberId, String username, int age, Long teamId, String teamName) {
+		if (size == memberIds.length) {
+			int capacity = size * 2;
+			memberIds = Arrays.copyOf(memberIds, capacity);
+			usernames = Arrays.copyOf(usernames, capacity);
+			ages = Arrays.copyOf(ages, capacity);
+			teamIds = Arrays.copyOf(teamIds, capacity);
+			teamNameCodes = Arrays.copyOf(teamNameCodes, capacity);
+		}
+		memberIds[size] = memberId;
+		usernames[size] = username;
+		ages[size] = age;
+		teamIds[size] = teamId != null ? teamId : 0;
+		teamNameCodes[size] = teamId != null ? teamNameCode(teamName) : NO_TEAM;
+		size++;
+	}
+
+	// 디코딩용 - 사전 순서를 그대로 유지
+	public void addTeamName(String teamName) {
+		teamNameCode(teamName);
+	}
+
+	private int teamNameCode(String teamName) {
+		Integer code = teamNameCodeByName.get(teamName);
+		if (code != null) {
+			return code;
+		}
+		int newCode = teamNames.size();
+		teamNameCodeByName.put(teamName, newCode);
+		teamNames.add(teamName);
+		return newCode;
+	}
+
+	// 같은 결과를 여러 호출에 나눠줄 때 (MemberSearchCoalescingAspect)
+	public MemberTeamColumns copy() {
+		MemberTeamColumns copy = new MemberTeamColumns(size);
+		System.arraycopy(memberIds, 0, copy.memberIds, 0, size);
+		System.arraycopy(usernames, 0, copy.usernames, 0, size);
+		System.arraycopy(ages, 0, copy.ages, 0, size);
+		System.arraycopy(teamIds, 0, copy.teamIds, 0, size);
+		System.arraycopy(teamNameCodes, 0, copy.teamNameCodes, 0, size);
+		copy.size = size;
+		copy.teamNames.addAll(teamNames);
+		copy.teamNameCodeByName.putAll(teamNameCodeByName);
+		return copy.page(totalElements, pageNumber, pageSize);
+	}
+
+	public MemberTeamColumns page(Pageable pageable, long totalElements) {
+		return page(totalElements, pageable.isPaged() ? pageable.getPageNumber() : 0,
+			pageable.isPaged() ? pageable.getPageSize() : size);
+	}
+
+	public MemberTeamColumns page(long totalElements, int pageNumber, int pageSize) {
+		this.totalElements = totalElements;
+		this.pageNumber = pageNumber;
+		this.pageSize = pageSize;
+		return this;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isPage() {
+		return totalElements >= 0;
+	}
+
+	public long getTotalElements() {
+		return totalElements;
+	}
+
+	public int getPageNumber() {
+		return pageNumber;
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	public long memberId(int row) {
+		return memberIds[row];
+	}
+
+	public String username(int row) {
+		return usernames[row];
+	}
+
+	public int age(int row) {
+		return ages[row];
+	}
+
+	public long teamId(int row) {
+		return teamIds[row];
+	}
+
+	public int teamNameCode(int row) {
+		return teamNameCodes[row];
+	}
+
+	public String teamName(int row) {
+		int code = teamNameCodes[row];
+		return code != NO_TEAM ? teamNames.get(code) : null;
+	}
+
+	public List<String> getTeamNames() {
+		return teamNames;
+	}
+
+	public List<MemberTeamDto> toDtoList() {
+		List<MemberTeamDto> result = new ArrayList<>(size);
+		for (int row = 0; row < size; row++) {
+			result.add(new MemberTeamDto(memberIds[row], usernames[row], ages[row],
+				teamNameCodes[row] != NO_TEAM ? teamIds[row] : null, teamName(row)));
+		}
+		return result;
+	}
+}
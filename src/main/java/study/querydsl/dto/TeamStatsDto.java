@@ -0,0 +1,28 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+// 팀별 회원 나이 통계 (QuerydslBasicTest.aggregation, group 의 count/sum/avg/max/min)
+@Getter
+@ToString
+public class TeamStatsDto {
+
+	private final Long teamId;
+	private final String teamName;
+	private final long count;
+	private final long sum;
+	private final Double avg; // 회원이 없으면 null
+	private final Integer min;
+	private final Integer max;
+
+	public TeamStatsDto(Long teamId, String teamName, long count, long sum, Integer min, Integer max) {
+		this.teamId = teamId;
+		this.teamName = teamName;
+		this.count = count;
+		this.sum = sum;
+		this.avg = count > 0 ? (double)sum / count : null;
+		this.min = min;
+		this.max = max;
+	}
+}
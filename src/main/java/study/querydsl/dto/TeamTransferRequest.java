@@ -0,0 +1,13 @@
+package study.querydsl.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+// fromTeam 에 있는 memberIds 회원들을 toTeamId 팀으로 이동
+@Data
+public class TeamTransferRequest {
+
+	private Long toTeamId;
+	private List<Long> memberIds;
+}
@@ -0,0 +1,17 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class TeamTransferResult {
+
+	private final int requested;
+	private final long transferred; // fromTeam 소속이 아니었던 회원은 제외된 수
+
+	public TeamTransferResult(int requested, long transferred) {
+		this.requested = requested;
+		this.transferred = transferred;
+	}
+}
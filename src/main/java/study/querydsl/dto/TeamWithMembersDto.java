@@ -0,0 +1,27 @@
+package study.querydsl.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.ToString;
+
+// 팀 + 앞쪽 회원 일부. 나머지 회원은 membersCursor 로 /teams/{teamId}/members 에서 이어서 조회
+@Getter
+@ToString
+public class TeamWithMembersDto {
+
+	private final Long teamId;
+	private final String teamName;
+	private final long memberCount; // 팀 전체 회원 수
+	private final List<TeamMemberDto> members; // member id 순, 최대 memberLimit 명
+	private final String membersCursor; // 더 없으면 null
+
+	public TeamWithMembersDto(Long teamId, String teamName, long memberCount, List<TeamMemberDto> members,
+		String membersCursor) {
+		this.teamId = teamId;
+		this.teamName = teamName;
+		this.memberCount = memberCount;
+		this.members = members;
+		this.membersCursor = membersCursor;
+	}
+}
@@ -1,19 +1,33 @@
 package study.querydsl.entity;
 
+import org.hibernate.Hibernate;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import study.querydsl.repository.readmodel.ReadModelListener;
+import study.querydsl.repository.support.CountCacheInvalidationListener;
 
 @Entity
+@Table(indexes = {
+	@Index(name = "idx_member_username", columnList = "username"), // usernameEq, prefix like
+	@Index(name = "idx_member_team_age", columnList = "team_id, age") // team join + ageGoe/ageLoe, FK 인덱스도 겸함
+})
+@EntityListeners({CountCacheInvalidationListener.class, ReadModelListener.class})
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -21,7 +35,8 @@ import lombok.ToString;
 public class Member {
 
 	@Id
-	@GeneratedValue
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+	@SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 100) // 시퀀스 한 번에 id 100개 확보 (pooled-lo)
 	@Column(name = "member_id")
 	private Long id;
 	private String username;
@@ -48,8 +63,19 @@ public class Member {
 		}
 	}
 
-	public void changeTeam(Team team) { // 양방향 연관관계 처리 메서드
+	// 양방향 연관관계 처리 메서드
+	// team.getMember() 는 이미 로딩된 경우에만 맞춰준다. 지연 로딩 컬렉션을 건드리면 팀 회원 전체를 select 하게 됨
+	public void changeTeam(Team team) {
+		if (this.team != null && isMemberLoaded(this.team)) {
+			this.team.getMember().remove(this);
+		}
 		this.team = team;
-		team.getMember().add(this);
+		if (team != null && isMemberLoaded(team)) {
+			team.getMember().add(this);
+		}
+	}
+
+	private static boolean isMemberLoaded(Team team) {
+		return Hibernate.isInitialized(team) && Hibernate.isInitialized(team.getMember());
 	}
 }
@@ -3,18 +3,34 @@ package study.querydsl.entity;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import study.querydsl.repository.readmodel.ReadModelListener;
+import study.querydsl.repository.support.CountCacheInvalidationListener;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_team_name", columnNames = "name")) // teamNameEq, 이름 -> id 조회
+@Cacheable // 2차 캐시 - Member.team 지연 로딩 시 팀마다 select 하지 않음 (hibernate.cache.use_second_level_cache 가 켜진 경우)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")
+@EntityListeners({CountCacheInvalidationListener.class, ReadModelListener.class})
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -22,11 +38,13 @@ import lombok.ToString;
 public class Team {
 
 	@Id
-	@GeneratedValue
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+	@SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 100) // 시퀀스 한 번에 id 100개 확보 (pooled-lo)
 	@Column(name = "team_id")
 	private Long id;
 	private String name;
 	@OneToMany(mappedBy = "team")
+	@BatchSize(size = 100) // 여러 팀의 member 를 지연 로딩할 때 팀마다 select 하지 않고 IN 으로 100 팀씩
 	private List<Member> member = new ArrayList<>();
 
 	public Team(String name) {
@@ -0,0 +1,281 @@
+package study.querydsl.repository;
+
+import static study.querydsl.entity.QMember.*;
+import static study.querydsl.repository.MemberSearchPredicates.*;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.hibernate.Session;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.querydsl.core.types.OrderSpecifier;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.Query;
+import lombok.extern.slf4j.Slf4j;
+import study.querydsl.dto.IndexAdvice;
+import study.querydsl.dto.IndexAdvisorReport;
+import study.querydsl.dto.MemberSearchCondition.UsernameMatch;
+import study.querydsl.repository.MemberSearchPredicates.UsernameFilter;
+import study.querydsl.repository.support.QueryStatementInspector;
+
+/**
+ * 실제로 들어오는 MemberSearchCondition 조건 조합(shape), username 검색 방식(EXACT/PREFIX/CONTAINS 와
+ * like/색인 후보 id 중 어느 쪽으로 걸렀는지), 정렬을 세어두고, 요청이 있었던 조합마다
+ * 검색과 같은 조건({@link MemberSearchPredicates})으로 Hibernate 가 만드는 SQL 을 EXPLAIN 해서 인덱스를 타는지 확인한다.
+ * <ul>
+ *     <li>member 를 tableScan 하는 조합 -> 필요한 인덱스 제안 (like '%x%' 는 인덱스를 못 타므로 n-gram 색인)</li>
+ *     <li>선언된 인덱스 중 어떤 실행 계획에도 나오지 않는 것 -> unusedIndexes</li>
+ * </ul>
+ * 기록은 배열의 LongAdder 하나 증가라서 검색마다 호출해도 됨. 실행 계획 해석은 H2 형식
+ * (인덱스 사용은 "PUBLIC.IDX_MEMBER_USERNAME: USERNAME = 'x'", 전체 스캔은 "PUBLIC.MEMBER.tableScan" 주석) 기준이라
+ * H2 Dialect 가 아니면 해석하지 않고 plan 원문만 담은 보고서({@link IndexAdvisorReport#isPlanOnly()})를 돌려준다.
+ * (usedIndexes, unusedIndexes 는 비어 있고 memberFullScan 은 false, suggestion 은 null)
+ */
+@Slf4j
+@Component
+public class IndexAdvisor {
+
+	public enum Order {
+		NONE(null), ID("member_id", member.id.asc()), AGE_ID("age, member_id", member.age.asc(), member.id.asc());
+
+		private final String columns; // 보고서 표시용
+		private final OrderSpecifier<?>[] orderBy;
+
+		Order(String columns, OrderSpecifier<?>... orderBy) {
+			this.columns = columns;
+			this.orderBy = orderBy;
+		}
+
+		OrderSpecifier<?>[] orderBy() {
+			return orderBy;
+		}
+	}
+
+	// 조건 없이 정렬에만 쓰인 인덱스는 ": 조건" 없이 "/* PUBLIC.PRIMARY_KEY_8 */"
+	private static final Pattern INDEX_USE = Pattern.compile("/\\* (?:\\w+\\.)?(\\w+)(?::| \\*/)");
+	private static final Pattern TABLE_SCAN = Pattern.compile("(?:\\w+\\.)?(\\w+)\\.tableScan");
+
+	private static final String USERNAME_INDEX_SUGGESTION = "querydsl.username-index.enabled=true";
+
+	private static final UsernameMatch[] MATCHES = UsernameMatch.values();
+	private static final UsernameFilter[] FILTERS = UsernameFilter.values();
+	private static final Order[] ORDERS = Order.values();
+
+	private final EntityManager em;
+	private final boolean parsePlan; // H2 형식 실행 계획일 때만
+	// MemberSearchPredicates 가 IndexAdvisor 를 쓰므로 EXPLAIN 할 때 꺼냄
+	private final ObjectProvider<MemberSearchPredicates> memberSearchPredicates;
+	// [shape][username match][username filter][order]
+	private final LongAdder[] counts = new LongAdder[SHAPE_COUNT * MATCHES.length * FILTERS.length * ORDERS.length];
+
+	@Autowired
+	public IndexAdvisor(EntityManager em, ObjectProvider<MemberSearchPredicates> memberSearchPredicates) {
+		this(em, memberSearchPredicates, isH2(em));
+	}
+
+	IndexAdvisor(EntityManager em, ObjectProvider<MemberSearchPredicates> memberSearchPredicates, boolean parsePlan) {
+		this.em = em;
+		this.parsePlan = parsePlan;
+		this.memberSearchPredicates = memberSearchPredicates;
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = new LongAdder();
+		}
+	}
+
+	private static boolean isH2(EntityManager em) {
+		return em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+			.getJdbcServices().getDialect() instanceof H2Dialect;
+	}
+
+	// username 조건이 없는 shape 는 EXACT, EQ 로
+	void record(int shape, UsernameMatch usernameMatch, UsernameFilter usernameFilter, Order order) {
+		int index = ((shape * MATCHES.length + usernameMatch.ordinal()) * FILTERS.length + usernameFilter.ordinal())
+			* ORDERS.length + order.ordinal();
+		counts[index].increment();
+	}
+
+	public void reset() {
+		for (LongAdder count : counts) {
+			count.reset();
+		}
+	}
+
+	@Transactional(readOnly = true)
+	public IndexAdvisorReport advise() {
+		List<IndexAdvice> shapes = new ArrayList<>();
+		Set<String> usedIndexes = new LinkedHashSet<>();
+		for (int i = 0; i < counts.length; i++) {
+			long count = counts[i].sum();
+			if (count == 0) {
+				continue;
+			}
+			int rest = i / ORDERS.length;
+			UsernameFilter usernameFilter = FILTERS[rest % FILTERS.length];
+			rest /= FILTERS.length;
+			IndexAdvice advice = explain(rest / MATCHES.length, MATCHES[rest % MATCHES.length], usernameFilter,
+				ORDERS[i % ORDERS.length], count);
+			usedIndexes.addAll(advice.getUsedIndexes());
+			shapes.add(advice);
+		}
+		shapes.sort(Comparator.comparingLong(IndexAdvice::getCount).reversed());
+
+		if (!parsePlan) {
+			return new IndexAdvisorReport(shapes, List.of(), true);
+		}
+		List<String> unusedIndexes = declaredIndexes();
+		unusedIndexes.removeAll(usedIndexes);
+		return new IndexAdvisorReport(shapes, unusedIndexes, false);
+	}
+
+	private IndexAdvice explain(int shape, UsernameMatch usernameMatch, UsernameFilter usernameFilter, Order order,
+		long count) {
+		List<String> conditions = conditions(shape, usernameMatch, usernameFilter);
+		String plan;
+		try {
+			MemberSearchPredicates.ExplainQuery query = memberSearchPredicates.getObject()
+				.explainQuery(shape, usernameMatch, usernameFilter, order);
+			plan = explain(sql(query), query.values());
+		} catch (PersistenceException e) {
+			log.warn("explain failed shape={} order={}", conditions, order, e);
+			return new IndexAdvice(conditions, order.columns, count, List.of(), false, null,
+				"explain failed: " + e.getMessage());
+		}
+		if (!parsePlan) {
+			return new IndexAdvice(conditions, order.columns, count, List.of(), false, null, plan);
+		}
+
+		List<String> used = new ArrayList<>();
+		Matcher index = INDEX_USE.matcher(plan);
+		while (index.find()) {
+			used.add(index.group(1).toUpperCase(Locale.ROOT));
+		}
+		boolean memberFullScan = false;
+		boolean teamFullScan = false;
+		Matcher scan = TABLE_SCAN.matcher(plan);
+		while (scan.find()) {
+			memberFullScan |= "MEMBER".equalsIgnoreCase(scan.group(1));
+			teamFullScan |= "TEAM".equalsIgnoreCase(scan.group(1));
+		}
+		return new IndexAdvice(conditions, order.columns, count, used, memberFullScan,
+			suggest(shape, usernameMatch, usernameFilter, order, memberFullScan, teamFullScan), plan);
+	}
+
+	// Hibernate 가 검색 JPQL 로 만드는 SQL. 행은 읽지 않음
+	private String sql(MemberSearchPredicates.ExplainQuery explainQuery) {
+		Query query = em.createQuery(explainQuery.jpql()).setFlushMode(FlushModeType.COMMIT); // flush SQL 이 섞이지 않도록
+		for (int i = 0; i < explainQuery.values().size(); i++) {
+			query.setParameter(i + 1, explainQuery.values().get(i));
+		}
+		return QueryStatementInspector.dryRun(query::getResultList).get(0);
+	}
+
+	// SQL 의 ? 순서는 JPQL 위치 파라미터 순서와 같음 (where 조건이 and 로만 이어짐). 목록 값은 원소마다 ?
+	private String explain(String sql, List<Object> values) {
+		return em.unwrap(Session.class).doReturningWork(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+				int index = 1;
+				for (Object value : values) {
+					for (Object element : value instanceof List<?> list ? list : List.of(value)) {
+						statement.setObject(index++, element);
+					}
+				}
+				List<String> rows = new ArrayList<>();
+				try (ResultSet resultSet = statement.executeQuery()) {
+					while (resultSet.next()) {
+						rows.add(resultSet.getString(1));
+					}
+				}
+				return String.join("\n", rows);
+			}
+		});
+	}
+
+	// 등호 조건 컬럼 -> 범위/정렬 컬럼 순서로 복합 인덱스 제안. like '%x%' 는 인덱스를 못 타므로 컬럼 대신 n-gram 색인
+	private static String suggest(int shape, UsernameMatch usernameMatch, UsernameFilter usernameFilter, Order order,
+		boolean memberFullScan, boolean teamFullScan) {
+		boolean containsLike = (shape & USERNAME) != 0 && usernameMatch == UsernameMatch.CONTAINS
+			&& usernameFilter == UsernameFilter.LIKE;
+		List<String> suggestions = new ArrayList<>();
+		if (teamFullScan && (shape & TEAM_NAME) != 0) {
+			suggestions.add("team(name)");
+		}
+		if (memberFullScan && (shape != 0 || order == Order.AGE_ID)) {
+			List<String> columns = new ArrayList<>();
+			if ((shape & USERNAME) != 0 && !containsLike) {
+				columns.add("username");
+			}
+			if ((shape & TEAM_NAME) != 0) {
+				columns.add("team_id");
+			}
+			if ((shape & (AGE_GOE | AGE_LOE)) != 0 || order == Order.AGE_ID) {
+				columns.add("age");
+			}
+			if (order == Order.AGE_ID) {
+				columns.add("member_id");
+			}
+			if (!columns.isEmpty()) {
+				suggestions.add("member(" + String.join(", ", columns) + ")");
+			}
+		}
+		String index = suggestions.isEmpty() ? null : "create index on " + String.join(", ", suggestions);
+		if (!memberFullScan || !containsLike) {
+			return index;
+		}
+		return index == null ? USERNAME_INDEX_SUGGESTION : index + "; " + USERNAME_INDEX_SUGGESTION;
+	}
+
+	// PK, unique 제약, FK 용으로 DB 가 만든 인덱스는 제외하고 직접 선언한 인덱스만
+	@SuppressWarnings("unchecked")
+	private List<String> declaredIndexes() {
+		try {
+			List<Object> names = em.createNativeQuery("select index_name from information_schema.indexes"
+					+ " where table_schema = current_schema and table_name in ('MEMBER', 'TEAM')"
+					+ " and index_type_name = 'INDEX' and is_generated = false")
+				.getResultList();
+			List<String> result = new ArrayList<>();
+			names.forEach(name -> result.add(String.valueOf(name).toUpperCase(Locale.ROOT)));
+			return result;
+		} catch (PersistenceException e) {
+			log.warn("index list query failed", e);
+			return new ArrayList<>();
+		}
+	}
+
+	// username 은 EXACT 면 "username", 아니면 "username contains", 색인 후보 id 로 좁혔으면 "username contains (member_id in)"
+	private static List<String> conditions(int shape, UsernameMatch usernameMatch, UsernameFilter usernameFilter) {
+		List<String> conditions = new ArrayList<>();
+		if ((shape & USERNAME) != 0) {
+			String username = usernameMatch == UsernameMatch.EXACT
+				? "username" : "username " + usernameMatch.name().toLowerCase(Locale.ROOT);
+			conditions.add(usernameFilter == UsernameFilter.IDS ? username + " (member_id in)" : username);
+		}
+		if ((shape & TEAM_NAME) != 0) {
+			conditions.add("teamName");
+		}
+		if ((shape & AGE_GOE) != 0) {
+			conditions.add("ageGoe");
+		}
+		if ((shape & AGE_LOE) != 0) {
+			conditions.add("ageLoe");
+		}
+		return conditions;
+	}
+}
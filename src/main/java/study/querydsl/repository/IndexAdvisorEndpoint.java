@@ -0,0 +1,29 @@
+package study.querydsl.repository;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import study.querydsl.dto.IndexAdvisorReport;
+
+// GET /actuator/indexadvisor - 기록된 검색 조건 조합별 실행 계획, 인덱스 제안, 안 쓰이는 인덱스 (H2 가 아니면 planOnly - 실행 계획 원문만)
+// DELETE /actuator/indexadvisor - 기록 초기화 (인덱스 변경 후 다시 모을 때)
+@Component
+@Endpoint(id = "indexadvisor")
+@RequiredArgsConstructor
+public class IndexAdvisorEndpoint {
+
+	private final IndexAdvisor indexAdvisor;
+
+	@ReadOperation
+	public IndexAdvisorReport report() {
+		return indexAdvisor.advise();
+	}
+
+	@DeleteOperation
+	public void reset() {
+		indexAdvisor.reset();
+	}
+}
@@ -1,35 +1,50 @@
 package study.querydsl.repository;
 
-import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.*;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.querydsl.core.BooleanBuilder;
-import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.jpa.impl.JPAQueryFactory;
 
 import jakarta.persistence.EntityManager;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.readmodel.MemberReadModel;
+import study.querydsl.repository.support.MeteredJPAQueryFactory;
+import study.querydsl.repository.support.QueryMetrics;
 
 @Repository
 public class MemberJpaRepository {
 
 	private final EntityManager em;
-	private final JPAQueryFactory queryFactory; // JPAQueryFactory 는 그냥 Bean으로 바로 등록해도 됨
+	private final MeteredJPAQueryFactory queryFactory; // JPAQueryFactory 는 그냥 Bean으로 바로 등록해도 됨
+	private final MemberSearchPredicates memberSearchPredicates;
+	private final MemberReadModel memberReadModel;
 
-	public MemberJpaRepository(EntityManager em) {
+	@Value("${querydsl.export.fetch-size:1000}")
+	private int exportFetchSize;
+
+	public MemberJpaRepository(EntityManager em, QueryMetrics queryMetrics,
+		MemberSearchPredicates memberSearchPredicates, MemberReadModel memberReadModel) {
 		// public MemberJpaRepository(EntityManager em, JPAQueryFactory queryFactory) {
 		this.em = em;
-		this.queryFactory = new JPAQueryFactory(em); // JPAQueryFactory Bean 등록 안 하는 경우
+		// this.queryFactory = new JPAQueryFactory(em); // JPAQueryFactory Bean 등록 안 하는 경우
+		this.queryFactory = queryMetrics.factory(em); // 쿼리 이름별 실행 시간, 행 수 측정
 		// this.queryFactory = queryFactory; // JPAQueryFactory Bean 등록 하는 경우 -> 의존성 주입 받아야 하므로 테스트 코드에서 번거로울 수도
+		this.memberSearchPredicates = memberSearchPredicates;
+		this.memberReadModel = memberReadModel;
 	}
 
 	public void save(Member member) {
@@ -46,7 +61,7 @@ public class MemberJpaRepository {
 	}
 
 	public List<Member> findAll_Querydsl() {
-		return queryFactory
+		return queryFactory.named("member.findAll")
 			.selectFrom(member)
 			.fetch();
 	}
@@ -58,32 +73,23 @@ public class MemberJpaRepository {
 	}
 
 	public List<Member> findByUsername_Querydsl(String username) {
-		return queryFactory
+		return queryFactory.named("member.findByUsername")
 			.selectFrom(member)
 			.where(member.username.eq(username))
 			.fetch();
 	}
 
 	// 검색
+	@Transactional(readOnly = true)
 	public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
 
+		// 조건마다 null 이면 건너뜀 - where(condition) 과 같은 공용 식 (eq, prefix, contains)
 		BooleanBuilder builder = new BooleanBuilder();
-		if (hasText(condition.getUsername())) {
-			builder.and(member.username.eq(condition.getUsername()));
-		}
-
-		if (hasText(condition.getTeamName())) {
-			builder.and(team.name.eq(condition.getTeamName()));
-		}
-
-		if (condition.getAgeGoe() != null) {
-			builder.and(member.age.goe(condition.getAgeGoe()));
-		}
-
-		if (condition.getAgeLoe() != null) {
-			builder.and(member.age.loe(condition.getAgeLoe()));
-		}
-		return queryFactory
+		builder.and(memberSearchPredicates.usernameMatches(condition));
+		builder.and(memberSearchPredicates.teamNameEq(condition.getTeamName()));
+		builder.and(memberSearchPredicates.ageGoe(condition.getAgeGoe()));
+		builder.and(memberSearchPredicates.ageLoe(condition.getAgeLoe()));
+		return queryFactory.named("member.searchByBuilder")
 			.select(new QMemberTeamDto(
 				member.id.as("memberId"),
 				member.username,
@@ -96,8 +102,28 @@ public class MemberJpaRepository {
 			.fetch();
 	}
 
+	@Transactional(readOnly = true)
 	public List<MemberTeamDto> search(MemberSearchCondition condition) {
-		return queryFactory
+		// 읽기 모델이 준비돼 있으면 메모리에서, 아니면 공용 검색 조건으로 조회
+		return memberReadModel.search(condition)
+			.orElseGet(() -> memberSearchPredicates.fetch("member.search", condition));
+	}
+
+	// search 와 같은 결과를 MemberTeamDto 없이 컬럼으로 (application/x-member-columns)
+	// 읽기 모델에서 찾은 경우는 이미 만들어진 DTO 를 옮겨 담음
+	@Transactional(readOnly = true)
+	public MemberTeamColumns searchColumns(MemberSearchCondition condition) {
+		return memberReadModel.search(condition)
+			.map(MemberTeamColumns::from)
+			.orElseGet(() -> memberSearchPredicates.fetchColumns("member.searchColumns", condition, 0, -1));
+	}
+
+	// search 와 같은 조건이지만 List 로 모으지 않고 한 행씩 consumer 에 넘김
+	// stream() 은 JDBC 커서(ScrollableResults)를 사용하고 fetch size 만큼씩 가져오므로 결과 크기와 상관없이 메모리 일정
+	// DTO 조회라 영속성 컨텍스트에도 쌓이지 않음. 커서가 열려 있는 동안 트랜잭션(커넥션)이 필요
+	@Transactional(readOnly = true)
+	public void searchStream(MemberSearchCondition condition, Consumer<MemberTeamDto> consumer) {
+		try (Stream<MemberTeamDto> stream = queryFactory.named("member.searchStream")
 			.select(new QMemberTeamDto(
 				member.id.as("memberId"),
 				member.username,
@@ -106,49 +132,23 @@ public class MemberJpaRepository {
 				team.name.as("teamName")))
 			.from(member)
 			.leftJoin(member.team, team)
-			.where(
-				usernameEq(condition.getUsername()),
-				teamNameEq(condition.getTeamName()),
-				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
-				// ageBetween(condition.getAgeLoe(), condition.getAgeGoe()) // 조립 가능
-			)
-			.fetch();
-	}
-
-	// Predicate 보다 BooleanExpression 이 나음
-	private BooleanExpression usernameEq(String username) {
-		return hasText(username) ? member.username.eq(username) : null;
-	}
-
-	private BooleanExpression teamNameEq(String teamName) {
-		return hasText(teamName) ? team.name.eq(teamName) : null;
-	}
-
-	private BooleanExpression ageGoe(Integer ageGoe) {
-		return ageGoe != null ? member.age.goe(ageGoe) : null;
-	}
-
-	private BooleanExpression ageLoe(Integer ageLoe) {
-		return ageLoe != null ? member.age.loe(ageLoe) : null;
-	}
-
-	private BooleanExpression ageBetween(int ageLoe, int ageGoe) {
-		return ageGoe(ageLoe).and(ageGoe(ageGoe));
+			.where(memberSearchPredicates.where(condition, IndexAdvisor.Order.ID))
+			.orderBy(member.id.asc())
+			.setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+			.stream()) {
+			stream.forEach(consumer);
+		}
 	}
 
+	// 조회 전용 - 반환한 Member 를 수정해도 DB 에 반영되지 않음
+	// 읽기/쓰기 트랜잭션에 참여해도 적용되도록 트랜잭션 설정이 아닌 쿼리 힌트(readOnly)로
 	public List<Member> searchMember(MemberSearchCondition condition) {
 
 		// Projection 이 달라졌음에도 where 조건 재사용 가능
-		return queryFactory
+		return queryFactory.readOnly().named("member.searchMember")
 			.selectFrom(member)
 			.leftJoin(member.team, team)
-			.where(
-				usernameEq(condition.getUsername()),
-				teamNameEq(condition.getTeamName()),
-				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
-			)
+			.where(memberSearchPredicates.where(condition))
 			.fetch();
 	}
 }
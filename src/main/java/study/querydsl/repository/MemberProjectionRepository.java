@@ -0,0 +1,96 @@
+package study.querydsl.repository;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.UserDto;
+import study.querydsl.repository.support.DtoRowMapper;
+import study.querydsl.repository.support.QueryMetrics;
+
+/**
+ * DTO 조회 전용 - JPQL/Querydsl 튜플 없이 JDBC 결과에서 바로 DTO 를 만든다. ({@link DtoRowMapper})
+ * <p>
+ * Projections.bean/fields/constructor, {@code @QueryProjection} 과 같은 결과. 영속성 컨텍스트, 엔티티와 무관한
+ * 읽기 전용 조회라 JDBC 로 직접 실행한다. 검색({@link #search})은 조건을 SQL 로 따로 쓰지 않고
+ * {@link MemberSearchPredicates#fetch} 로 조회 - 조건이 검색과 어긋나지 않도록.
+ * <p>
+ * JDBC 로 읽으면 JPQL 처럼 Hibernate auto flush 가 일어나지 않는다. 읽기/쓰기 트랜잭션에 참여했을 때는
+ * (아직 flush 되지 않은 변경이 있을 수 있음) 조회 전에 직접 flush 한다. 자기가 시작한 읽기 전용 트랜잭션이면 flush 없음.
+ * JPA 트랜잭션 안에서는 같은 커넥션을 사용 (JpaTransactionManager 가 JDBC 커넥션을 노출)
+ */
+@Repository
+public class MemberProjectionRepository {
+
+	// 조립한 MethodHandle 은 한 번만 만들어 재사용 (DtoRowMapper 참고)
+	private static final MethodHandle MEMBER_DTO = DtoRowMapper.constructor(MemberDto.class, String.class, int.class);
+	private static final MethodHandle USER_DTO = DtoRowMapper.constructor(UserDto.class, String.class, int.class);
+
+	private static final RowMapper<MemberDto> MEMBER_DTO_MAPPER = (rs, rowNum) -> {
+		try {
+			return (MemberDto)MEMBER_DTO.invokeExact(rs);
+		} catch (Throwable e) {
+			throw DtoRowMapper.rethrow(e);
+		}
+	};
+	private static final RowMapper<UserDto> USER_DTO_MAPPER = (rs, rowNum) -> {
+		try {
+			return (UserDto)USER_DTO.invokeExact(rs);
+		} catch (Throwable e) {
+			throw DtoRowMapper.rethrow(e);
+		}
+	};
+
+	private final EntityManager em;
+	private final JdbcTemplate jdbcTemplate;
+	private final QueryMetrics queryMetrics;
+	private final MemberSearchPredicates memberSearchPredicates;
+
+	public MemberProjectionRepository(EntityManager em, JdbcTemplate jdbcTemplate, QueryMetrics queryMetrics,
+		MemberSearchPredicates memberSearchPredicates) {
+		this.em = em;
+		this.jdbcTemplate = jdbcTemplate;
+		this.queryMetrics = queryMetrics;
+		this.memberSearchPredicates = memberSearchPredicates;
+	}
+
+	// select(Projections.bean(MemberDto.class, member.username, member.age)).from(member)
+	@Transactional(readOnly = true)
+	public List<MemberDto> findMemberDtos() {
+		flushIfReadWrite();
+		return queryMetrics.record("projection.memberDto",
+			() -> jdbcTemplate.query("select m.username, m.age from member m", MEMBER_DTO_MAPPER),
+			List::size);
+	}
+
+	// select(Projections.constructor(UserDto.class, member.username, member.age)).from(member)
+	@Transactional(readOnly = true)
+	public List<UserDto> findUserDtos() {
+		flushIfReadWrite();
+		return queryMetrics.record("projection.userDto",
+			() -> jdbcTemplate.query("select m.username, m.age from member m", USER_DTO_MAPPER),
+			List::size);
+	}
+
+	// MemberSearchPredicates.fetch 그대로 - JPQL 이라 auto flush 됨
+	@Transactional(readOnly = true)
+	public List<MemberTeamDto> search(MemberSearchCondition condition) {
+		return memberSearchPredicates.fetch("projection.memberTeamDto", condition);
+	}
+
+	// JPQL 이었다면 auto flush 됐을 변경을 JDBC 조회 전에 반영
+	private void flushIfReadWrite() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			em.flush();
+		}
+	}
+}
@@ -1,31 +1,35 @@
 package study.querydsl.repository;
 
-import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.*;
 
 import java.util.List;
 
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.jpa.impl.JPAQueryFactory;
 
 import jakarta.persistence.EntityManager;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.support.MeteredJPAQueryFactory;
+import study.querydsl.repository.support.QueryMetrics;
 
 // 공용성이 없고 특화된 기능이라면 한 메서드만 따로 분리, 모든 Querydsl 을 Custom 에 다 구현할 필요는 없음
 @Repository
 public class MemberQueryRepository {
 
-	private final JPAQueryFactory queryFactory;
+	private final MeteredJPAQueryFactory queryFactory;
+	private final MemberSearchPredicates memberSearchPredicates;
 
-	public MemberQueryRepository(EntityManager em) {
-		this.queryFactory = new JPAQueryFactory(em);
+	public MemberQueryRepository(EntityManager em, QueryMetrics queryMetrics,
+		MemberSearchPredicates memberSearchPredicates) {
+		this.queryFactory = queryMetrics.factory(em).named("memberQuery.search");
+		this.memberSearchPredicates = memberSearchPredicates;
 	}
 
+	@Transactional(readOnly = true)
 	public List<MemberTeamDto> search(MemberSearchCondition condition) {
 		return queryFactory
 			.select(new QMemberTeamDto(
@@ -36,34 +40,7 @@ public class MemberQueryRepository {
 				team.name.as("teamName")))
 			.from(member)
 			.leftJoin(member.team, team)
-			.where(
-				usernameEq(condition.getUsername()),
-				teamNameEq(condition.getTeamName()),
-				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
-				// ageBetween(condition.getAgeLoe(), condition.getAgeGoe()) // 조립 가능
-			)
+			.where(memberSearchPredicates.where(condition))
 			.fetch();
 	}
-
-	// Predicate 보다 BooleanExpression 이 나음
-	private BooleanExpression usernameEq(String username) {
-		return hasText(username) ? member.username.eq(username) : null;
-	}
-
-	private BooleanExpression teamNameEq(String teamName) {
-		return hasText(teamName) ? team.name.eq(teamName) : null;
-	}
-
-	private BooleanExpression ageGoe(Integer ageGoe) {
-		return ageGoe != null ? member.age.goe(ageGoe) : null;
-	}
-
-	private BooleanExpression ageLoe(Integer ageLoe) {
-		return ageLoe != null ? member.age.loe(ageLoe) : null;
-	}
-
-	private BooleanExpression ageBetween(int ageLoe, int ageGoe) {
-		return ageGoe(ageLoe).and(ageGoe(ageGoe));
-	}
 }
@@ -5,7 +5,10 @@ import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import study.querydsl.dto.KeysetCursor;
+import study.querydsl.dto.KeysetSlice;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDto;
 
 // 사용자 정의 Repository
@@ -16,4 +19,10 @@ public interface MemberRepositoryCustom {
 	Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
 
 	Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+
+	// searchPageComplex 와 같은 페이지를 MemberTeamDto 없이 컬럼으로 (application/x-member-columns)
+	MemberTeamColumns searchPageColumns(MemberSearchCondition condition, Pageable pageable);
+
+	// offset 없이 cursor 다음부터 size 개 조회 (keyset pagination)
+	KeysetSlice<MemberTeamDto> searchSlice(MemberSearchCondition condition, KeysetCursor cursor, int size);
 }
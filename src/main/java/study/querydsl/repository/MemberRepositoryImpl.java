@@ -1,6 +1,5 @@
 package study.querydsl.repository;
 
-import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.*;
 
@@ -10,26 +9,38 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.querydsl.core.QueryResults;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.jpa.impl.JPAQuery;
-import com.querydsl.jpa.impl.JPAQueryFactory;
 
 import jakarta.persistence.EntityManager;
+import study.querydsl.dto.KeysetCursor;
+import study.querydsl.dto.KeysetSlice;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
-import study.querydsl.entity.Member;
+import study.querydsl.repository.readmodel.MemberReadModel;
+import study.querydsl.repository.support.CountCache;
+import study.querydsl.repository.support.MeteredJPAQueryFactory;
+import study.querydsl.repository.support.QueryMetrics;
 
 public class MemberRepositoryImpl
 	// extends QuerydslRepositorySupport
 	implements MemberRepositoryCustom {
 
-	private final JPAQueryFactory queryFactory;
-
-	public MemberRepositoryImpl(EntityManager em) {
-		this.queryFactory = new JPAQueryFactory(em);
+	private final MeteredJPAQueryFactory queryFactory;
+	private final CountCache countCache;
+	private final MemberSearchPredicates memberSearchPredicates;
+	private final MemberReadModel memberReadModel;
+
+	public MemberRepositoryImpl(EntityManager em, CountCache countCache, QueryMetrics queryMetrics,
+		MemberSearchPredicates memberSearchPredicates, MemberReadModel memberReadModel) {
+		this.queryFactory = queryMetrics.factory(em);
+		this.countCache = countCache;
+		this.memberSearchPredicates = memberSearchPredicates;
+		this.memberReadModel = memberReadModel;
 	}
 
 	// QuerydslRepositorySupport 추가
@@ -39,6 +50,7 @@ public class MemberRepositoryImpl
 	// }
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<MemberTeamDto> search(MemberSearchCondition condition) {
 
 		// QuerydslRepositorySupport -> Querydsl 3 버전에서 만들어진 기능이라 순서가 다름, 스프링 데이터의 sort 적용 안 됨
@@ -60,66 +72,23 @@ public class MemberRepositoryImpl
 		// 		team.name.as("teamName")))
 		// 	.fetch();
 
-		return queryFactory
-			.select(new QMemberTeamDto(
-				member.id.as("memberId"),
-				member.username,
-				member.age,
-				team.id.as("teamId"),
-				team.name.as("teamName")))
-			.from(member)
-			.leftJoin(member.team, team)
-			.where(
-				usernameEq(condition.getUsername()),
-				teamNameEq(condition.getTeamName()),
-				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
-			)
-			.fetch();
-	}
-
-	private BooleanExpression usernameEq(String username) {
-		return hasText(username) ? member.username.eq(username) : null;
-	}
-
-	private BooleanExpression teamNameEq(String teamName) {
-		return hasText(teamName) ? team.name.eq(teamName) : null;
-	}
-
-	private BooleanExpression ageGoe(Integer ageGoe) {
-		return ageGoe != null ? member.age.goe(ageGoe) : null;
-	}
-
-	private BooleanExpression ageLoe(Integer ageLoe) {
-		return ageLoe != null ? member.age.loe(ageLoe) : null;
+		// 공용 검색 조건 (MemberSearchPredicates)
+		// querydsl.read-model.enabled 면 메모리 읽기 모델 먼저 (적재 전이거나 쓰기 트랜잭션 안이면 DB)
+		return memberReadModel.search(condition)
+			.orElseGet(() -> memberSearchPredicates.fetch("member.search", condition));
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-		QueryResults<MemberTeamDto> results = queryFactory
-			.select(new QMemberTeamDto(
-				member.id.as("memberId"),
-				member.username,
-				member.age,
-				team.id.as("teamId"),
-				team.name.as("teamName")))
-			.from(member)
-			.leftJoin(member.team, team)
-			.where(
-				usernameEq(condition.getUsername()),
-				teamNameEq(condition.getTeamName()),
-				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
-			)
-			.offset(pageable.getOffset())
-			.limit(pageable.getPageSize())
-			.fetchResults();
-
-		// fetchResults -> contents 를 위한 쿼리 + Count 를 위한 쿼리 = 쿼리 두 번
-		// fetchResults 에서 orderBy 는 count 쿼리에선 지워짐
-
-		List<MemberTeamDto> content = results.getResults();
-		long total = results.getTotal();
+		List<MemberTeamDto> content = memberSearchPredicates.fetch("member.searchPageSimple", condition,
+			pageable.getOffset(), pageable.getPageSize());
+
+		// fetchResults -> contents 를 위한 쿼리 + Count 를 위한 쿼리 = 쿼리 두 번 (Querydsl 5 부터 deprecated)
+		// fetchResults 는 select 절을 그대로 감싸서 count 하지만 count 쿼리는 select count(m) 이고
+		// teamName 조건이 없으면 team join 도 없음
+		long total = countCache.get(CountCache.key("member.searchPageSimple", condition.normalized()),
+			() -> memberSearchPredicates.fetchCount("member.searchPageSimple.count", condition));
 
 		return new PageImpl<>(content, pageable, total);
 
@@ -131,25 +100,10 @@ public class MemberRepositoryImpl
 
 	// 아니면 count 쿼리를 먼저 호출하고 만약 데이터가 없다면 content 쿼리는 호출하지 않는 등... 의 성능 개선 가능
 	@Override
+	@Transactional(readOnly = true)
 	public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-		List<MemberTeamDto> content = queryFactory
-			.select(new QMemberTeamDto(
-				member.id.as("memberId"),
-				member.username,
-				member.age,
-				team.id.as("teamId"),
-				team.name.as("teamName")))
-			.from(member)
-			.leftJoin(member.team, team)
-			.where(
-				usernameEq(condition.getUsername()),
-				teamNameEq(condition.getTeamName()),
-				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
-			)
-			.offset(pageable.getOffset())
-			.limit(pageable.getPageSize())
-			.fetch();
+		List<MemberTeamDto> content = memberSearchPredicates.fetch("member.searchPageComplex", condition,
+			pageable.getOffset(), pageable.getPageSize());
 
 		// fetch -> content 조회 쿼리 하나만
 
@@ -168,20 +122,87 @@ public class MemberRepositoryImpl
 
 		// return new PageImpl<>(content, pageable, total);
 
-		// count 쿼리 최적화
-		JPAQuery<Member> countQuery = queryFactory
-			.select(member)
+		// count 쿼리 최적화 - 최소한의 count 쿼리 (teamName 조건이 없으면 join 도 생략)
+
+		// content 와 pageable 을 보고 content 사이즈가 (page 시작임에도) pageSize 보다 작거나 마지막 페이지라면 countQuery 안 날림
+		// 필요한 경우에도 같은 조건의 count 는 TTL 동안 캐시에서 재사용
+		CountCache.Key countKey = CountCache.key("member.searchPageComplex", condition.normalized());
+		return PageableExecutionUtils.getPage(content, pageable,
+			() -> countCache.get(countKey,
+				() -> memberSearchPredicates.fetchCount("member.searchPageComplex.count", condition)));
+	}
+
+	// count 생략 규칙은 PageableExecutionUtils.getPage 와 같음
+	@Override
+	@Transactional(readOnly = true)
+	public MemberTeamColumns searchPageColumns(MemberSearchCondition condition, Pageable pageable) {
+		MemberTeamColumns content = memberSearchPredicates.fetchColumns("member.searchPageColumns", condition,
+			pageable.isPaged() ? pageable.getOffset() : 0, pageable.isPaged() ? pageable.getPageSize() : -1);
+
+		long total;
+		if (pageable.isUnpaged() || (pageable.getOffset() == 0 && pageable.getPageSize() > content.size())) {
+			total = content.size();
+		} else if (content.size() != 0 && pageable.getPageSize() > content.size()) {
+			total = pageable.getOffset() + content.size();
+		} else {
+			// searchPageComplex 와 같은 count 라 캐시 키 공유
+			total = countCache.get(CountCache.key("member.searchPageComplex", condition.normalized()),
+				() -> memberSearchPredicates.fetchCount("member.searchPageColumns.count", condition));
+		}
+		return content.page(pageable, total);
+	}
+
+	// offset 은 앞 페이지의 행을 모두 읽고 버리기 때문에 뒤 페이지로 갈수록 느려짐
+	// keyset 은 마지막으로 본 (정렬 값, id) 보다 큰 행부터 인덱스를 타고 바로 찾아가므로 페이지 깊이와 무관
+	// count 쿼리도 날리지 않음. size + 1 개를 조회해서 다음 페이지 존재 여부만 판단
+	@Override
+	@Transactional(readOnly = true)
+	public KeysetSlice<MemberTeamDto> searchSlice(MemberSearchCondition condition, KeysetCursor cursor, int size) {
+		List<MemberTeamDto> rows = queryFactory.named("member.searchSlice")
+			.select(new QMemberTeamDto(
+				member.id.as("memberId"),
+				member.username,
+				member.age,
+				team.id.as("teamId"),
+				team.name.as("teamName")))
 			.from(member)
 			.leftJoin(member.team, team)
-			.where(
-				usernameEq(condition.getUsername()),
-				teamNameEq(condition.getTeamName()),
-				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
-			);
+			.where(memberSearchPredicates.where(condition, cursor.getSortKey() == KeysetCursor.SortKey.AGE
+				? IndexAdvisor.Order.AGE_ID : IndexAdvisor.Order.ID))
+			.where(seek(cursor))
+			.orderBy(keysetOrder(cursor.getSortKey()))
+			.limit(size + 1)
+			.fetch();
 
-		// content 와 pageable 을 보고 content 사이즈가 (page 시작임에도) pageSize 보다 작거나 마지막 페이지라면 countQuery 안 날림
-		return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
+		boolean hasNext = rows.size() > size;
+		List<MemberTeamDto> content = hasNext ? rows.subList(0, size) : rows;
+		String nextCursor = hasNext ? nextCursor(cursor.getSortKey(), content.get(content.size() - 1)) : null;
+		return new KeysetSlice<>(content, hasNext, nextCursor);
+	}
+
+	private BooleanExpression seek(KeysetCursor cursor) {
+		if (cursor.isFirst()) {
+			return null;
+		}
+		if (cursor.getSortKey() == KeysetCursor.SortKey.AGE) {
+			int lastAge = Integer.parseInt(cursor.getLastValue());
+			return member.age.gt(lastAge)
+				.or(member.age.eq(lastAge).and(member.id.gt(cursor.getLastId())));
+		}
+		return member.id.gt(cursor.getLastId());
+	}
+
+	// 정렬 마지막에 항상 id 를 붙여야 같은 정렬 값에서도 순서가 유일하게 정해짐
+	private OrderSpecifier<?>[] keysetOrder(KeysetCursor.SortKey sortKey) {
+		if (sortKey == KeysetCursor.SortKey.AGE) {
+			return new OrderSpecifier<?>[] {member.age.asc(), member.id.asc()};
+		}
+		return new OrderSpecifier<?>[] {member.id.asc()};
+	}
+
+	private String nextCursor(KeysetCursor.SortKey sortKey, MemberTeamDto last) {
+		String lastValue = sortKey == KeysetCursor.SortKey.AGE ? String.valueOf(last.getAge()) : null;
+		return KeysetCursor.after(sortKey, last.getMemberId(), lastValue).encode();
 	}
 
 	// QuerydslRepositorySupport 은 Pagination 을 편하게 제공
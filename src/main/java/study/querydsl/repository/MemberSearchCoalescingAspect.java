@@ -0,0 +1,91 @@
+package study.querydsl.repository;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.RequiredArgsConstructor;
+import study.querydsl.dto.KeysetSlice;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.support.SingleFlight;
+
+/**
+ * MemberRepository 의 MemberRepositoryCustom 검색 메서드 앞단. 같은 (메서드, 정규화된 검색 조건, Pageable/커서)
+ * 로 동시에 들어온 호출은 content/count 쿼리를 한 번만 실행하고 결과를 공유한다. ({@link SingleFlight})
+ * <p>
+ * 트랜잭션(@Transactional(readOnly = true))보다 바깥에서 기다리므로 기다리는 동안 커넥션을 잡지 않음.
+ * 호출한 쪽이 읽기/쓰기 트랜잭션 안이면 아직 커밋 안 된 변경이 결과에 보여야 하므로 합치지 않는다.
+ * <p>
+ * 공유된 결과를 한 호출이 수정해도 다른 호출에 보이지 않도록 호출마다 복사본(DTO 까지, 목록은 수정 불가)을 돌려준다.
+ * querydsl.single-flight.enabled=true 일 때만.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE) // StatementBudgetAspect, 트랜잭션보다 바깥
+@ConditionalOnProperty(name = "querydsl.single-flight.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class MemberSearchCoalescingAspect {
+
+	private record Key(String method, List<Object> args) {
+	}
+
+	private final SingleFlight singleFlight;
+
+	// MemberRepositoryImpl 빈에는 적용하지 않음 (this 가 MemberRepository 인 Spring Data 프록시만)
+	@Around("this(study.querydsl.repository.MemberRepository) "
+		+ "&& execution(* study.querydsl.repository.MemberRepositoryCustom.*(..))")
+	public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+		if (TransactionSynchronizationManager.isActualTransactionActive()
+			&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return joinPoint.proceed();
+		}
+		String method = joinPoint.getSignature().getName();
+		Object shared = singleFlight.execute("member." + method, new Key(method, normalize(joinPoint.getArgs())),
+			joinPoint::proceed);
+		return copyOf(shared);
+	}
+
+	// 같은 where 절이 되는 조건은 같은 key 가 되도록 (빈 문자열 -> null). PageRequest, KeysetCursor 는 equals 구현됨
+	private static List<Object> normalize(Object[] args) {
+		Object[] normalized = args.clone();
+		for (int i = 0; i < normalized.length; i++) {
+			if (normalized[i] instanceof MemberSearchCondition condition) {
+				normalized[i] = condition.normalized();
+			}
+		}
+		return Arrays.asList(normalized);
+	}
+
+	// MemberRepositoryCustom 의 반환 타입별 복사
+	@SuppressWarnings("unchecked")
+	private static Object copyOf(Object result) {
+		return switch (result) {
+			case Page<?> page -> new PageImpl<>(copyRows((List<MemberTeamDto>)page.getContent()), page.getPageable(),
+				page.getTotalElements());
+			case KeysetSlice<?> slice -> new KeysetSlice<>(copyRows((List<MemberTeamDto>)slice.getContent()),
+				slice.isHasNext(), slice.getNextCursor());
+			case MemberTeamColumns columns -> columns.copy();
+			case List<?> rows -> copyRows((List<MemberTeamDto>)rows);
+			case null, default -> result;
+		};
+	}
+
+	private static List<MemberTeamDto> copyRows(List<MemberTeamDto> rows) {
+		return rows.stream()
+			.map(row -> new MemberTeamDto(row.getMemberId(), row.getUsername(), row.getAge(), row.getTeamId(),
+				row.getTeamName()))
+			.toList();
+	}
+}
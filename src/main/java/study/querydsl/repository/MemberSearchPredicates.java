@@ -0,0 +1,334 @@
+package study.querydsl.repository;
+
+import static org.springframework.util.StringUtils.*;
+import static study.querydsl.entity.QMember.*;
+import static study.querydsl.entity.QTeam.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSearchCondition.UsernameMatch;
+import study.querydsl.dto.MemberTeamColumns;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.readmodel.UsernameNgramIndex;
+import study.querydsl.repository.support.CountQueryBuilder;
+import study.querydsl.repository.support.QueryMetrics;
+
+/**
+ * MemberSearchCondition 검색 조건 공용 컴포넌트. (리포지토리마다 복사되던 usernameEq, teamNameEq, ageGoe, ageLoe)
+ * <p>
+ * 요청마다 값이 있는 조건만 BooleanExpression 으로 만들어 Querydsl where 절에 넘긴다. ({@link #where(MemberSearchCondition)})
+ * 같은 조건 조합이면 JPQL 문자열이 같으므로 파싱은 Hibernate 쿼리 플랜 캐시가 맡음
+ * <p>
+ * querydsl.team-cache.enabled 면 teamName 조건은 {@link TeamIdResolver} 로 캐시된 team id 를 구해서
+ * member.team_id 로 거른다. count 쿼리는 team join 이 아예 빠짐
+ * <p>
+ * username 이 PREFIX/CONTAINS 면 {@link UsernameNgramIndex} 로 후보 id 를 먼저 구해서 member_id in (...) 로 좁히고
+ * like 는 확인용으로 함께 둔다 (색인이 커밋 직후 잠깐 늦어도 틀린 행은 나오지 않음). 색인으로 좁힐 수 없으면 like 만.
+ */
+@Component
+public class MemberSearchPredicates {
+
+	// 값이 있는 조건 필드를 비트로 표현한 조건 조합(shape) - IndexAdvisor 기록용
+	static final int USERNAME = 1;
+	static final int TEAM_NAME = 1 << 1;
+	static final int AGE_GOE = 1 << 2;
+	static final int AGE_LOE = 1 << 3;
+	static final int SHAPE_COUNT = 1 << 4;
+
+	private static final char LIKE_ESCAPE = '!'; // Querydsl JPQLTemplates 와 같은 escape 문자
+
+	// EXPLAIN 에는 실제 값이 필요 없으므로 임의 값. id 목록이 하나면 Querydsl 이 in 대신 = 로 만들어서 둘
+	private static final String EXPLAIN_VALUE = "x";
+	private static final List<Long> EXPLAIN_IDS = List.of(0L, 1L);
+
+	// username 조건을 거르는 방식 (shape 의 USERNAME 비트가 있을 때)
+	enum UsernameFilter {
+		EQ, // EXACT
+		LIKE, // PREFIX/CONTAINS, 색인으로 좁힐 수 없음
+		IDS // PREFIX/CONTAINS, 색인 후보 id + like 확인
+	}
+
+	// IndexAdvisor 의 EXPLAIN 용 - JPQL 과 위치 파라미터 순서대로의 값
+	record ExplainQuery(String jpql, List<Object> values) {
+	}
+
+	// 요청 하나의 조건 조합, username 방식, where 조건
+	// matchesNothing: 없는 팀 이름이거나 username 색인 후보가 없음 - DB 조회 없이 빈 결과
+	private record Search(int shape, UsernameFilter usernameFilter, Predicate[] where, boolean matchesNothing) {
+	}
+
+	private final EntityManager em;
+	private final JPAQueryFactory queryFactory;
+	private final QueryMetrics queryMetrics;
+	private final TeamIdResolver teamIdResolver;
+	private final IndexAdvisor indexAdvisor;
+	private final UsernameNgramIndex usernameNgramIndex;
+	private final boolean resolveTeamId;
+
+	public MemberSearchPredicates(EntityManager em, QueryMetrics queryMetrics, TeamIdResolver teamIdResolver,
+		IndexAdvisor indexAdvisor, UsernameNgramIndex usernameNgramIndex) {
+		this.em = em;
+		this.queryFactory = new JPAQueryFactory(em);
+		this.queryMetrics = queryMetrics;
+		this.teamIdResolver = teamIdResolver;
+		this.indexAdvisor = indexAdvisor;
+		this.usernameNgramIndex = usernameNgramIndex;
+		this.resolveTeamId = teamIdResolver.isEnabled();
+	}
+
+	private static JPAQuery<Tuple> searchQuery(JPAQueryFactory queryFactory, Predicate[] where) {
+		return queryFactory
+			.select(member.id, member.username, member.age, team.id, team.name)
+			.from(member)
+			.leftJoin(member.team, team)
+			.where(where);
+	}
+
+	// 값이 있는 조건 필드를 비트로 표현 (0 ~ 15)
+	static int shape(MemberSearchCondition condition) {
+		int shape = 0;
+		if (hasText(condition.getUsername())) {
+			shape |= USERNAME;
+		}
+		if (hasText(condition.getTeamName())) {
+			shape |= TEAM_NAME;
+		}
+		if (condition.getAgeGoe() != null) {
+			shape |= AGE_GOE;
+		}
+		if (condition.getAgeLoe() != null) {
+			shape |= AGE_LOE;
+		}
+		return shape;
+	}
+
+	/**
+	 * Querydsl where 절에 그대로 넘김.
+	 * team-cache 가 켜져 있으면 teamName 을 여기서 {@link TeamIdResolver} 로 team id 로 바꾼다.
+	 * (query cache miss 면 select 한 번 - 다른 쿼리처럼 statement 수, 예산에 포함)
+	 */
+	public Predicate[] where(MemberSearchCondition condition) {
+		return resolve(condition).where();
+	}
+
+	// 정렬까지 정해진 검색용 - 조건 조합, username 방식과 정렬을 IndexAdvisor 에 기록
+	public Predicate[] where(MemberSearchCondition condition, IndexAdvisor.Order order) {
+		Search search = resolve(condition);
+		record(condition, search, order);
+		return search.where();
+	}
+
+	// username 방식은 색인 조회 결과에 따라 달라지므로 resolve 뒤에 기록
+	private void record(MemberSearchCondition condition, Search search, IndexAdvisor.Order order) {
+		UsernameMatch usernameMatch = (search.shape() & USERNAME) != 0
+			? condition.usernameMatchOrDefault() : UsernameMatch.EXACT;
+		indexAdvisor.record(search.shape(), usernameMatch, search.usernameFilter(), order);
+	}
+
+	// Predicate 보다 BooleanExpression 이 나음 - and/or 로 조립 가능
+	public BooleanExpression usernameEq(String username) {
+		return hasText(username) ? member.username.eq(username) : null;
+	}
+
+	// EXACT 면 usernameEq, PREFIX/CONTAINS 면 색인 후보 id 로 좁히고 like 로 확인 (색인으로 못 좁히면 like 만)
+	public BooleanExpression usernameMatches(MemberSearchCondition condition) {
+		if (!hasText(condition.getUsername())) {
+			return null;
+		}
+		List<Long> memberIds = usernameIds(condition);
+		return usernameWhere(usernameFilter(condition, memberIds), condition.getUsername(),
+			condition.usernameMatchOrDefault(), memberIds);
+	}
+
+	// DB 조회 없이 team join 의 team.name 으로 거름. team id 로 거르는 건 where(condition)/fetch 에서만
+	public BooleanExpression teamNameEq(String teamName) {
+		return hasText(teamName) ? team.name.eq(teamName) : null;
+	}
+
+	public BooleanExpression ageGoe(Integer ageGoe) {
+		return ageGoe != null ? member.age.goe(ageGoe) : null;
+	}
+
+	public BooleanExpression ageLoe(Integer ageLoe) {
+		return ageLoe != null ? member.age.loe(ageLoe) : null;
+	}
+
+	public List<MemberTeamDto> fetch(String queryName, MemberSearchCondition condition) {
+		return fetch(queryName, condition, 0, -1);
+	}
+
+	// limit 가 음수면 전체 조회
+	public List<MemberTeamDto> fetch(String queryName, MemberSearchCondition condition, long offset, int limit) {
+		JPAQuery<Tuple> query = contentQuery(condition, offset, limit);
+		if (query == null) {
+			return new ArrayList<>(); // 없는 팀 이름 - DB 조회 없이 빈 결과
+		}
+		return queryMetrics.record(queryName, () -> toDto(query.fetch()), List::size);
+	}
+
+	// fetch 와 같은 쿼리지만 결과 행을 MemberTeamDto 로 만들지 않고 바로 컬럼에 채움
+	public MemberTeamColumns fetchColumns(String queryName, MemberSearchCondition condition, long offset,
+		int limit) {
+		JPAQuery<Tuple> query = contentQuery(condition, offset, limit);
+		if (query == null) {
+			return new MemberTeamColumns(0);
+		}
+		return queryMetrics.record(queryName, () -> toColumns(query.fetch()), MemberTeamColumns::size);
+	}
+
+	// 없는 팀 이름이거나 username 색인 후보가 없으면 null
+	private JPAQuery<Tuple> contentQuery(MemberSearchCondition condition, long offset, int limit) {
+		Search search = resolve(condition);
+		record(condition, search, IndexAdvisor.Order.NONE);
+		if (search.matchesNothing()) {
+			return null;
+		}
+		JPAQuery<Tuple> query = searchQuery(queryFactory, search.where());
+		if (offset > 0) {
+			query.offset(offset);
+		}
+		if (limit >= 0) {
+			query.limit(limit);
+		}
+		return query;
+	}
+
+	// team.name 을 조건으로 쓰지 않으면 count 쿼리에서 team join 이 빠짐
+	public long fetchCount(String queryName, MemberSearchCondition condition) {
+		Search search = resolve(condition);
+		if (search.matchesNothing()) {
+			return 0;
+		}
+		JPAQuery<Long> query = CountQueryBuilder.build(queryFactory, searchQuery(queryFactory, search.where()));
+		return queryMetrics.record(queryName, () -> {
+			Long total = query.fetchOne();
+			return total != null ? total : 0L;
+		}, total -> 1);
+	}
+
+	// 같은 조건 조합, username 방식의 검색 쿼리에 정렬을 붙인 것. 조건은 검색과 같은 식에 임의 값
+	ExplainQuery explainQuery(int shape, UsernameMatch usernameMatch, UsernameFilter usernameFilter,
+		IndexAdvisor.Order order) {
+		List<Predicate> where = new ArrayList<>(4);
+		if ((shape & USERNAME) != 0) {
+			where.add(usernameWhere(usernameFilter, EXPLAIN_VALUE, usernameMatch, EXPLAIN_IDS));
+		}
+		if ((shape & TEAM_NAME) != 0) {
+			where.add(teamWhere(EXPLAIN_VALUE, EXPLAIN_IDS));
+		}
+		if ((shape & AGE_GOE) != 0) {
+			where.add(member.age.goe(0));
+		}
+		if ((shape & AGE_LOE) != 0) {
+			where.add(member.age.loe(0));
+		}
+		// 직렬화만 하므로 실행되지 않음
+		JPAQuery<Tuple> query = searchQuery(new JPAQueryFactory(HQLTemplates.DEFAULT, em),
+			where.toArray(new Predicate[0])).orderBy(order.orderBy());
+		JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+		serializer.serialize(query.getMetadata(), false, null);
+		return new ExplainQuery(serializer.toString(), List.copyOf(serializer.getConstants()));
+	}
+
+	// shape 를 구하고 where 조건을 만듦. teamName -> team id 조회, username 색인 조회는 모두 여기서 한 번
+	private Search resolve(MemberSearchCondition condition) {
+		int shape = shape(condition);
+		List<Predicate> where = new ArrayList<>(4);
+		UsernameFilter usernameFilter = UsernameFilter.EQ;
+		boolean matchesNothing = false;
+		if ((shape & USERNAME) != 0) {
+			List<Long> memberIds = usernameIds(condition);
+			usernameFilter = usernameFilter(condition, memberIds);
+			where.add(usernameWhere(usernameFilter, condition.getUsername(), condition.usernameMatchOrDefault(),
+				memberIds));
+			matchesNothing = memberIds != null && memberIds.isEmpty();
+		}
+		if ((shape & TEAM_NAME) != 0) {
+			List<Long> teamIds = resolveTeamId ? teamIdResolver.findIdsByName(condition.getTeamName()) : null;
+			where.add(teamWhere(condition.getTeamName(), teamIds));
+			matchesNothing |= teamIds != null && teamIds.isEmpty();
+		}
+		if ((shape & AGE_GOE) != 0) {
+			where.add(member.age.goe(condition.getAgeGoe()));
+		}
+		if ((shape & AGE_LOE) != 0) {
+			where.add(member.age.loe(condition.getAgeLoe()));
+		}
+		return new Search(shape, usernameFilter, where.toArray(new Predicate[0]), matchesNothing);
+	}
+
+	// PREFIX/CONTAINS 를 색인으로 좁힐 수 있으면 후보 id, EXACT 거나 못 좁히면 null
+	private List<Long> usernameIds(MemberSearchCondition condition) {
+		UsernameMatch match = condition.usernameMatchOrDefault();
+		return match == UsernameMatch.EXACT ? null : usernameNgramIndex.find(condition.getUsername(), match).orElse(null);
+	}
+
+	private static UsernameFilter usernameFilter(MemberSearchCondition condition, List<Long> memberIds) {
+		if (condition.usernameMatchOrDefault() == UsernameMatch.EXACT) {
+			return UsernameFilter.EQ;
+		}
+		return memberIds != null ? UsernameFilter.IDS : UsernameFilter.LIKE;
+	}
+
+	private static BooleanExpression usernameWhere(UsernameFilter filter, String username, UsernameMatch match,
+		List<Long> memberIds) {
+		return switch (filter) {
+			case EQ -> member.username.eq(username);
+			case LIKE -> usernameLike(username, match);
+			case IDS -> member.id.in(memberIds).and(usernameLike(username, match));
+		};
+	}
+
+	private static BooleanExpression usernameLike(String username, UsernameMatch match) {
+		String escaped = escapeLike(username);
+		return member.username.like(match == UsernameMatch.PREFIX ? escaped + "%" : "%" + escaped + "%", LIKE_ESCAPE);
+	}
+
+	// member.team.id 는 FK 컬럼이라 team join 이 필요 없음
+	private BooleanExpression teamWhere(String teamName, List<Long> teamIds) {
+		return resolveTeamId ? member.team.id.in(teamIds) : team.name.eq(teamName);
+	}
+
+	static String escapeLike(String value) {
+		StringBuilder escaped = new StringBuilder(value.length() + 4);
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+				escaped.append(LIKE_ESCAPE);
+			}
+			escaped.append(c);
+		}
+		return escaped.toString();
+	}
+
+	private static List<MemberTeamDto> toDto(List<Tuple> rows) {
+		List<MemberTeamDto> result = new ArrayList<>(rows.size());
+		for (Tuple row : rows) {
+			result.add(new MemberTeamDto(row.get(member.id), row.get(member.username), row.get(member.age),
+				row.get(team.id), row.get(team.name)));
+		}
+		return result;
+	}
+
+	private static MemberTeamColumns toColumns(List<Tuple> rows) {
+		MemberTeamColumns columns = new MemberTeamColumns(rows.size());
+		for (Tuple row : rows) {
+			columns.add(row.get(member.id), row.get(member.username), row.get(member.age), row.get(team.id),
+				row.get(team.name));
+		}
+		return columns;
+	}
+}
@@ -0,0 +1,52 @@
+package study.querydsl.repository;
+
+import static study.querydsl.entity.QTeam.*;
+
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.repository.support.MeteredJPAQueryFactory;
+import study.querydsl.repository.support.QueryMetrics;
+
+/**
+ * 팀 이름 -> team id 조회. Hibernate query cache(team.idByName region) 에 결과를 캐시한다.
+ * <p>
+ * teamName 검색 조건을 매번 team join 으로 거르지 않고 id 를 한 번 구해서 member.team_id 로 거를 때 사용.
+ * team 테이블이 insert/update/delete(벌크 포함) 되면 Hibernate 가 update timestamp 로 캐시를 무효화하므로 따로 비울 필요 없음.
+ * 팀 이름은 uk_team_name 으로 유일하므로 결과는 0개 또는 1개.
+ * 그래도 목록으로 돌려주는 건 검색 조건이 member.team.id in (...) 라서 - 없는 팀 이름(빈 목록)도 같은 Querydsl 조건으로 표현되고 (Querydsl 은 빈 in 을 항상 거짓으로 직렬화) null id 를 따로 다룰 필요가 없다.
+ */
+@Component
+public class TeamIdResolver {
+
+	public static final String CACHE_REGION = "team.idByName";
+
+	private final MeteredJPAQueryFactory queryFactory;
+	private final boolean enabled;
+
+	public TeamIdResolver(EntityManager em, QueryMetrics queryMetrics,
+		@Value("${querydsl.team-cache.enabled:false}") boolean enabled) {
+		this.queryFactory = queryMetrics.factory(em).named("team.findIdsByName");
+		this.enabled = enabled;
+	}
+
+	// false 면 검색 조건은 기존처럼 team join + team.name 조건
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	// 이름이 유일하므로 최대 1개
+	public List<Long> findIdsByName(String teamName) {
+		return queryFactory
+			.select(team.id)
+			.from(team)
+			.where(team.name.eq(teamName))
+			.setHint(HibernateHints.HINT_CACHEABLE, true)
+			.setHint(HibernateHints.HINT_CACHE_REGION, CACHE_REGION)
+			.fetch();
+	}
+}
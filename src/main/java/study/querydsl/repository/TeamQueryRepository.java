@@ -0,0 +1,131 @@
+package study.querydsl.repository;
+
+import static study.querydsl.entity.QMember.*;
+import static study.querydsl.entity.QTeam.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.querydsl.core.Tuple;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.dto.KeysetSlice;
+import study.querydsl.dto.QTeamMemberDto;
+import study.querydsl.dto.TeamMemberDto;
+import study.querydsl.dto.TeamWithMembersDto;
+import study.querydsl.repository.support.MeteredJPAQueryFactory;
+import study.querydsl.repository.support.QueryMetrics;
+
+/**
+ * 팀 + 회원 페이지 조회.
+ * <p>
+ * Team.member 를 fetch join 하고 offset/limit 을 걸면 Hibernate 가 전체를 읽어 메모리에서 페이징(HHH90003004)하고,
+ * fetch join 없이 팀마다 member 를 건드리면 N+1. 대신 팀 페이지를 SQL 로 자른 뒤 그 팀들의 회원을
+ * IN 쿼리 한 번에, 팀마다 memberLimit + 1 명까지만 (row_number() over (partition by team_id)) 가져온다.
+ * <p>
+ * statement 는 팀 페이지, 회원 수, 회원 세 개로 고정이고 메모리는 teamSize * (memberLimit + 1) 행이 최대.
+ * 팀 크기와 무관.
+ */
+@Repository
+public class TeamQueryRepository {
+
+	// 팀마다 앞쪽 memberLimit + 1 명 (한 명 더 읽어서 다음 커서 존재 여부 판단)
+	private static final String LIMITED_MEMBERS_JPQL = "select r.teamId, r.memberId, r.username, r.age from ("
+		+ "select m.team.id as teamId, m.id as memberId, m.username as username, m.age as age,"
+		+ " row_number() over (partition by m.team.id order by m.id) as rn"
+		+ " from Member m where m.team.id in :teamIds) r"
+		+ " where r.rn <= :limit order by r.teamId, r.memberId";
+
+	private final EntityManager em;
+	private final MeteredJPAQueryFactory queryFactory;
+	private final QueryMetrics queryMetrics;
+
+	public TeamQueryRepository(EntityManager em, QueryMetrics queryMetrics) {
+		this.em = em;
+		this.queryFactory = queryMetrics.factory(em);
+		this.queryMetrics = queryMetrics;
+	}
+
+	// cursor(마지막으로 본 team id) 다음 팀부터 teamSize 개
+	@Transactional(readOnly = true)
+	public KeysetSlice<TeamWithMembersDto> findTeamsWithMembers(Long cursor, int teamSize, int memberLimit) {
+		List<Tuple> teams = queryFactory.named("team.page")
+			.select(team.id, team.name)
+			.from(team)
+			.where(cursor != null ? team.id.gt(cursor) : null)
+			.orderBy(team.id.asc())
+			.limit(teamSize + 1)
+			.fetch();
+		boolean hasNext = teams.size() > teamSize;
+		List<Tuple> page = hasNext ? teams.subList(0, teamSize) : teams;
+		if (page.isEmpty()) {
+			return new KeysetSlice<>(List.of(), false, null);
+		}
+
+		List<Long> teamIds = page.stream().map(row -> row.get(team.id)).toList();
+		Map<Long, Long> counts = countMembers(teamIds);
+		Map<Long, List<TeamMemberDto>> members = findLimitedMembers(teamIds, memberLimit + 1);
+
+		List<TeamWithMembersDto> content = new ArrayList<>(page.size());
+		for (Tuple row : page) {
+			Long teamId = row.get(team.id);
+			List<TeamMemberDto> teamMembers = members.getOrDefault(teamId, List.of());
+			boolean moreMembers = teamMembers.size() > memberLimit;
+			List<TeamMemberDto> shown = moreMembers ? teamMembers.subList(0, memberLimit) : teamMembers;
+			content.add(new TeamWithMembersDto(teamId, row.get(team.name), counts.getOrDefault(teamId, 0L),
+				shown, moreMembers ? String.valueOf(shown.get(shown.size() - 1).getMemberId()) : null));
+		}
+		String nextCursor = hasNext ? String.valueOf(page.get(page.size() - 1).get(team.id)) : null;
+		return new KeysetSlice<>(content, hasNext, nextCursor);
+	}
+
+	// 한 팀의 회원을 cursor(마지막으로 본 member id) 다음부터 size 명
+	@Transactional(readOnly = true)
+	public KeysetSlice<TeamMemberDto> findMembers(Long teamId, Long cursor, int size) {
+		List<TeamMemberDto> rows = queryFactory.named("team.members")
+			.select(new QTeamMemberDto(member.id, member.username, member.age))
+			.from(member)
+			.where(member.team.id.eq(teamId),
+				cursor != null ? member.id.gt(cursor) : null)
+			.orderBy(member.id.asc())
+			.limit(size + 1)
+			.fetch();
+		boolean hasNext = rows.size() > size;
+		List<TeamMemberDto> content = hasNext ? rows.subList(0, size) : rows;
+		String nextCursor = hasNext ? String.valueOf(content.get(content.size() - 1).getMemberId()) : null;
+		return new KeysetSlice<>(content, hasNext, nextCursor);
+	}
+
+	private Map<Long, Long> countMembers(List<Long> teamIds) {
+		Map<Long, Long> counts = new HashMap<>();
+		queryFactory.named("team.memberCount")
+			.select(member.team.id, member.count())
+			.from(member)
+			.where(member.team.id.in(teamIds))
+			.groupBy(member.team.id)
+			.fetch()
+			.forEach(row -> counts.put(row.get(member.team.id), row.get(member.count())));
+		return counts;
+	}
+
+	// Querydsl JPQL 은 from 절 서브쿼리, 윈도 함수를 표현할 수 없어서 HQL 로 작성
+	private Map<Long, List<TeamMemberDto>> findLimitedMembers(List<Long> teamIds, int limit) {
+		List<Object[]> rows = queryMetrics.record("team.limitedMembers",
+			() -> em.createQuery(LIMITED_MEMBERS_JPQL, Object[].class)
+				.setParameter("teamIds", teamIds)
+				.setParameter("limit", (long)limit)
+				.getResultList(),
+			List::size);
+		Map<Long, List<TeamMemberDto>> members = new HashMap<>();
+		for (Object[] row : rows) {
+			members.computeIfAbsent((Long)row[0], id -> new ArrayList<>())
+				.add(new TeamMemberDto((Long)row[1], (String)row[2], (Integer)row[3]));
+		}
+		return members;
+	}
+}
@@ -0,0 +1,68 @@
+package study.querydsl.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import study.querydsl.repository.readmodel.UsernameBloomFilter;
+
+/**
+ * findByUsername 앞단. {@link UsernameBloomFilter} 가 확실히 없다고 하면 DB 조회 없이 빈 목록.
+ * 가입/검증 흐름은 대부분 아직 없는 이름을 확인하므로 그 조회가 트랜잭션, 커넥션 없이 끝난다.
+ * <p>
+ * 읽기/쓰기 트랜잭션 안이면 항상 DB 로 조회 - 그 트랜잭션의 변경은 auto flush 후 보여야 하므로.
+ * (MemberReadModel.search, UsernameNgramIndex.find 와 같은 기준)
+ * <p>
+ * metric: querydsl.username-filter.lookup{result}
+ * absent(DB 조회 생략), present(DB 에 있음), false_positive(filter 는 있다고 했지만 DB 에 없음), bypass(준비 전, 읽기/쓰기 트랜잭션)
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE) // 트랜잭션, JdbcConcurrencyLimiter 보다 바깥
+public class UsernameLookupAspect {
+
+	private final UsernameBloomFilter usernameBloomFilter;
+	private final Counter absentCount;
+	private final Counter presentCount;
+	private final Counter falsePositiveCount;
+	private final Counter bypassCount;
+
+	public UsernameLookupAspect(UsernameBloomFilter usernameBloomFilter, MeterRegistry meterRegistry) {
+		this.usernameBloomFilter = usernameBloomFilter;
+		this.absentCount = counter(meterRegistry, "absent");
+		this.presentCount = counter(meterRegistry, "present");
+		this.falsePositiveCount = counter(meterRegistry, "false_positive");
+		this.bypassCount = counter(meterRegistry, "bypass");
+	}
+
+	private static Counter counter(MeterRegistry meterRegistry, String result) {
+		return Counter.builder("querydsl.username-filter.lookup").tag("result", result).register(meterRegistry);
+	}
+
+	@Around("execution(java.util.List study.querydsl.repository.MemberRepository.findByUsername(String)) "
+		+ "|| execution(java.util.List study.querydsl.repository.MemberJpaRepository.findByUsername*(String))")
+	public Object lookup(ProceedingJoinPoint joinPoint) throws Throwable {
+		String username = (String)joinPoint.getArgs()[0];
+		if (!usernameBloomFilter.isReady() || (TransactionSynchronizationManager.isActualTransactionActive()
+			&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+			bypassCount.increment();
+			return joinPoint.proceed();
+		}
+		if (!usernameBloomFilter.mightContain(username)) {
+			absentCount.increment();
+			return new ArrayList<>();
+		}
+		Object result = joinPoint.proceed();
+		(((List<?>)result).isEmpty() ? falsePositiveCount : presentCount).increment();
+		return result;
+	}
+}
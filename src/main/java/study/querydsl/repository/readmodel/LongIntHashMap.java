@@ -0,0 +1,80 @@
+package study.querydsl.repository.readmodel;
+
+import java.util.Arrays;
+
+/**
+ * long -> int open addressing 해시맵. (id -> 행 번호)
+ * HashMap&lt;Long, Integer&gt; 는 항목마다 Entry, Long, Integer 객체가 생겨서 천만 건이면 수백 MB 가 됨.
+ * 삭제는 지원하지 않음 - 삭제된 회원은 행에 표시만 하고 재적재 때 정리.
+ */
+final class LongIntHashMap {
+
+	static final int MISSING = -1;
+
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private long[] keys;
+	private int[] values;
+	private int size;
+
+	LongIntHashMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(expectedSize * 2, 16) - 1) << 1;
+		keys = new long[capacity];
+		values = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+	}
+
+	int get(long key) {
+		int mask = keys.length - 1;
+		for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				return values[slot];
+			}
+			if (keys[slot] == EMPTY) {
+				return MISSING;
+			}
+		}
+	}
+
+	void put(long key, int value) {
+		if ((size + 1) * 2 > keys.length) {
+			resize();
+		}
+		int mask = keys.length - 1;
+		for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+			if (keys[slot] == EMPTY) {
+				keys[slot] = key;
+				values[slot] = value;
+				size++;
+				return;
+			}
+			if (keys[slot] == key) {
+				values[slot] = value;
+				return;
+			}
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	private void resize() {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = new int[oldValues.length * 2];
+		Arrays.fill(keys, EMPTY);
+		size = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				put(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h >>> 32));
+	}
+}
@@ -0,0 +1,264 @@
+package study.querydsl.repository.readmodel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import study.querydsl.dto.MemberTeamDto;
+
+/**
+ * 회원을 행(객체) 대신 컬럼(배열)으로 저장. 스레드 안전하지 않음 - {@link MemberReadModel} 의 lock 안에서만 사용.
+ * <ul>
+ *     <li>회원: ids, ages, usernames(사전 코드), teams(팀 slot, 없으면 -1), deleted</li>
+ *     <li>팀: teamIds, teamNames(사전 코드), teamRows(팀별 회원 행 번호 목록)</li>
+ * </ul>
+ * 삭제된 회원은 deleted 로 표시만 하고 재적재할 때 정리한다.
+ */
+final class MemberColumns {
+
+	private static final int NO_TEAM = -1;
+
+	private long[] ids;
+	private int[] ages;
+	private int[] usernames;
+	private int[] teams;
+	private boolean[] deleted;
+	private int size;
+	private int liveCount;
+	private final LongIntHashMap rowById;
+	private final StringDictionary usernameDictionary = new StringDictionary();
+
+	private long[] teamIds = new long[16];
+	private int[] teamNames = new int[16];
+	private IntList[] teamRows = new IntList[16];
+	private int teamCount;
+	private final LongIntHashMap slotByTeamId = new LongIntHashMap(16);
+	private final StringDictionary teamNameDictionary = new StringDictionary();
+
+	MemberColumns(int expectedSize) {
+		int capacity = Math.max(expectedSize, 16);
+		ids = new long[capacity];
+		ages = new int[capacity];
+		usernames = new int[capacity];
+		teams = new int[capacity];
+		deleted = new boolean[capacity];
+		rowById = new LongIntHashMap(capacity);
+	}
+
+	int liveCount() {
+		return liveCount;
+	}
+
+	void upsertTeam(long teamId, String name) {
+		int slot = teamSlot(teamId);
+		teamNames[slot] = teamNameDictionary.encode(name);
+	}
+
+	void upsertMember(long id, String username, int age, Long teamId) {
+		int row = rowById.get(id);
+		if (row == LongIntHashMap.MISSING) {
+			row = appendRow(id);
+		}
+		ages[row] = age;
+		usernames[row] = usernameDictionary.encode(username);
+		int newTeam = teamId != null ? teamSlot(teamId) : NO_TEAM;
+		if (teams[row] != newTeam) {
+			if (teams[row] != NO_TEAM) {
+				teamRows[teams[row]].remove(row);
+			}
+			if (newTeam != NO_TEAM) {
+				teamRows[newTeam].add(row);
+			}
+			teams[row] = newTeam;
+		}
+		if (deleted[row]) {
+			deleted[row] = false;
+			liveCount++;
+		}
+	}
+
+	void removeMember(long id) {
+		int row = rowById.get(id);
+		if (row == LongIntHashMap.MISSING || deleted[row]) {
+			return;
+		}
+		deleted[row] = true;
+		liveCount--;
+		if (teams[row] != NO_TEAM) {
+			teamRows[teams[row]].remove(row);
+			teams[row] = NO_TEAM;
+		}
+	}
+
+	private int appendRow(long id) {
+		if (size == ids.length) {
+			int capacity = size * 2;
+			ids = Arrays.copyOf(ids, capacity);
+			ages = Arrays.copyOf(ages, capacity);
+			usernames = Arrays.copyOf(usernames, capacity);
+			teams = Arrays.copyOf(teams, capacity);
+			deleted = Arrays.copyOf(deleted, capacity);
+		}
+		int row = size++;
+		ids[row] = id;
+		teams[row] = NO_TEAM;
+		rowById.put(id, row);
+		liveCount++;
+		return row;
+	}
+
+	private int teamSlot(long teamId) {
+		int slot = slotByTeamId.get(teamId);
+		if (slot != LongIntHashMap.MISSING) {
+			return slot;
+		}
+		if (teamCount == teamIds.length) {
+			teamIds = Arrays.copyOf(teamIds, teamCount * 2);
+			teamNames = Arrays.copyOf(teamNames, teamCount * 2);
+			teamRows = Arrays.copyOf(teamRows, teamCount * 2);
+		}
+		slot = teamCount++;
+		teamIds[slot] = teamId;
+		teamNames[slot] = teamNameDictionary.encode(null);
+		teamRows[slot] = new IntList();
+		slotByTeamId.put(teamId, slot);
+		return slot;
+	}
+
+	/**
+	 * 조건에 맞는 행 번호 (오름차순). 조건 값이 null 이면 그 조건은 무시
+	 * @param parallelThreshold 전체 스캔할 행 수가 이 값 이상이면 구간을 나눠 병렬 스캔
+	 */
+	int[] select(String username, String teamName, Integer ageGoe, Integer ageLoe, int parallelThreshold) {
+		int usernameCode = -1;
+		if (username != null) {
+			usernameCode = usernameDictionary.find(username);
+			if (usernameCode == StringDictionary.MISSING) {
+				return new int[0];
+			}
+		}
+		int minAge = ageGoe != null ? ageGoe : Integer.MIN_VALUE;
+		int maxAge = ageLoe != null ? ageLoe : Integer.MAX_VALUE;
+
+		if (teamName != null) {
+			return selectTeamRows(teamName, usernameCode, minAge, maxAge);
+		}
+		if (size < parallelThreshold) {
+			return scan(0, size, usernameCode, minAge, maxAge);
+		}
+		int parts = Math.max(1, Runtime.getRuntime().availableProcessors());
+		int partSize = (size + parts - 1) / parts;
+		int code = usernameCode;
+		List<int[]> results = IntStream.range(0, parts)
+			.parallel()
+			.mapToObj(part -> scan(part * partSize, Math.min(size, (part + 1) * partSize), code, minAge, maxAge))
+			.toList(); // 순서 유지
+		return concat(results);
+	}
+
+	// 팀 이름 조건: 같은 이름의 팀들의 행 목록만 확인
+	private int[] selectTeamRows(String teamName, int usernameCode, int minAge, int maxAge) {
+		int teamNameCode = teamNameDictionary.find(teamName);
+		if (teamNameCode == StringDictionary.MISSING) {
+			return new int[0];
+		}
+		List<int[]> results = new ArrayList<>();
+		for (int slot = 0; slot < teamCount; slot++) {
+			if (teamNames[slot] == teamNameCode) {
+				IntList rows = teamRows[slot];
+				results.add(filter(rows.values(), rows.size(), usernameCode, minAge, maxAge));
+			}
+		}
+		int[] selected = concat(results);
+		Arrays.sort(selected);
+		return selected;
+	}
+
+	// 분기 없이 조건을 계산하고 결과 위치만 전진 -> 예측 실패 없는 단순 루프
+	private int[] scan(int from, int to, int usernameCode, int minAge, int maxAge) {
+		int[] out = new int[Math.min(to - from, 1024)];
+		int n = 0;
+		for (int row = from; row < to; row++) {
+			if (n == out.length) {
+				out = Arrays.copyOf(out, Math.min(to - from, out.length * 2));
+			}
+			int age = ages[row];
+			boolean match = !deleted[row] & age >= minAge & age <= maxAge
+				& (usernameCode < 0 | usernames[row] == usernameCode);
+			out[n] = row;
+			n += match ? 1 : 0;
+		}
+		return Arrays.copyOf(out, n);
+	}
+
+	private int[] filter(int[] rows, int count, int usernameCode, int minAge, int maxAge) {
+		int[] out = new int[count];
+		int n = 0;
+		for (int i = 0; i < count; i++) {
+			int row = rows[i];
+			int age = ages[row];
+			boolean match = age >= minAge & age <= maxAge & (usernameCode < 0 | usernames[row] == usernameCode);
+			out[n] = row;
+			n += match ? 1 : 0;
+		}
+		return Arrays.copyOf(out, n);
+	}
+
+	private static int[] concat(List<int[]> parts) {
+		int total = 0;
+		for (int[] part : parts) {
+			total += part.length;
+		}
+		int[] result = new int[total];
+		int offset = 0;
+		for (int[] part : parts) {
+			System.arraycopy(part, 0, result, offset, part.length);
+			offset += part.length;
+		}
+		return result;
+	}
+
+	List<MemberTeamDto> toDto(int[] rows) {
+		List<MemberTeamDto> result = new ArrayList<>(rows.length);
+		for (int row : rows) {
+			int team = teams[row];
+			result.add(new MemberTeamDto(ids[row], usernameDictionary.decode(usernames[row]), ages[row],
+				team != NO_TEAM ? teamIds[team] : null,
+				team != NO_TEAM ? teamNameDictionary.decode(teamNames[team]) : null));
+		}
+		return result;
+	}
+
+	// 팀별 회원 행 번호
+	static final class IntList {
+		private int[] values = new int[8];
+		private int size;
+
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		// 팀 이동/삭제 시 - 팀 크기에 비례하지만 int 배열 비교라 빠름
+		void remove(int value) {
+			for (int i = 0; i < size; i++) {
+				if (values[i] == value) {
+					System.arraycopy(values, i + 1, values, i, size - i - 1);
+					size--;
+					return;
+				}
+			}
+		}
+
+		int[] values() {
+			return values;
+		}
+
+		int size() {
+			return size;
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package study.querydsl.repository.readmodel;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+/**
+ * 회원-팀 검색용 메모리 읽기 모델. (querydsl.read-model.enabled)
+ * <p>
+ * 애플리케이션이 뜨면 백그라운드에서 회원/팀 전체를 {@link MemberColumns} 로 적재하고,
+ * 이후 변경은 {@link ReadModelListener} 가 커밋된 뒤에 반영한다. (적재/반영/교체는 {@link ReadModelState})
+ * MemberSearchCondition 검색은 배열 스캔만으로 끝나므로 DB 왕복이 없다.
+ * <p>
+ * 다음 경우에는 {@link #search} 가 empty 를 돌려주고 호출한 쪽이 DB 로 조회한다.
+ * <ul>
+ *     <li>꺼져 있거나 아직 적재 전/재적재 중</li>
+ *     <li>읽기/쓰기 트랜잭션 안 - 아직 커밋 안 된 변경은 읽기 모델에 없음</li>
+ *     <li>username prefix/contains 검색</li>
+ * </ul>
+ * 벌크 update/delete 는 엔티티 리스너를 거치지 않으므로 실행한 쪽에서 {@link #invalidate()} 를 호출해야 함.
+ */
+@Component
+public class MemberReadModel {
+
+	private final int parallelThreshold;
+	private final int fetchSize;
+	private final ReadModelState<MemberColumns> state;
+
+	private final Counter hitCount;
+	private final Counter fallbackCount;
+
+	public MemberReadModel(EntityManagerFactory emf, MeterRegistry meterRegistry,
+		@Value("${querydsl.read-model.enabled:false}") boolean enabled,
+		@Value("${querydsl.read-model.parallel-threshold:262144}") int parallelThreshold,
+		@Value("${querydsl.read-model.fetch-size:1000}") int fetchSize) {
+		this.parallelThreshold = parallelThreshold;
+		this.fetchSize = fetchSize;
+		this.state = new ReadModelState<>("member read model", emf, enabled, new MemberColumns(0), this::load);
+		this.hitCount = Counter.builder("querydsl.read-model.search").tag("result", "hit").register(meterRegistry);
+		this.fallbackCount = Counter.builder("querydsl.read-model.search").tag("result", "fallback")
+			.register(meterRegistry);
+		Gauge.builder("querydsl.read-model.rows", this, MemberReadModel::size).register(meterRegistry);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadOnStartup() {
+		state.loadOnStartup();
+	}
+
+	public boolean isReady() {
+		return state.isReady();
+	}
+
+	public Optional<List<MemberTeamDto>> search(MemberSearchCondition condition) {
+		MemberSearchCondition normalized = condition.normalized();
+		if (normalized.getUsernameMatch() != MemberSearchCondition.UsernameMatch.EXACT
+			|| (TransactionSynchronizationManager.isActualTransactionActive()
+			&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+			fallbackCount.increment(); // prefix/contains 는 DB 쪽 (UsernameNgramIndex)
+			return Optional.empty();
+		}
+		Optional<List<MemberTeamDto>> result = state.read(columns -> columns.toDto(columns.select(
+			normalized.getUsername(), normalized.getTeamName(), normalized.getAgeGoe(), normalized.getAgeLoe(),
+			parallelThreshold)));
+		(result.isPresent() ? hitCount : fallbackCount).increment();
+		return result;
+	}
+
+	// 전체 재적재. 끝날 때까지 검색은 DB 로 (트랜잭션 안이면 커밋/롤백 후에 다시 읽음)
+	public void invalidate() {
+		state.invalidate();
+	}
+
+	void reload() {
+		state.reload();
+	}
+
+	private MemberColumns load(EntityManager em) {
+		long count = em.createQuery("select count(m) from Member m", Long.class).getSingleResult();
+		MemberColumns loaded = new MemberColumns(Math.toIntExact(count + count / 4)); // 적재 후 추가분 여유
+
+		em.createQuery("select t.id, t.name from Team t", Object[].class)
+			.getResultList()
+			.forEach(row -> loaded.upsertTeam((Long)row[0], (String)row[1]));
+		// m.team.id 는 FK 컬럼이라 team join 없음
+		try (Stream<Object[]> rows = em.createQuery(
+				"select m.id, m.username, m.age, m.team.id from Member m order by m.id", Object[].class)
+			.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+			.getResultStream()) {
+			rows.forEach(row -> loaded.upsertMember((Long)row[0], (String)row[1], (Integer)row[2], (Long)row[3]));
+		}
+		return loaded;
+	}
+
+	// 엔티티 리스너에서 호출. 트랜잭션이 있으면 커밋된 뒤에, 없으면 바로 반영
+	void apply(Consumer<MemberColumns> change) {
+		state.apply(change);
+	}
+
+	public int size() {
+		return state.readCurrent(MemberColumns::liveCount);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		state.shutdown();
+	}
+}
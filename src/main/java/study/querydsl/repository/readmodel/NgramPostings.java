@@ -0,0 +1,200 @@
+package study.querydsl.repository.readmodel;
+
+import java.util.Arrays;
+
+/**
+ * username 3-gram -> 회원 행 번호 목록(오름차순). 스레드 안전하지 않음 - {@link UsernameNgramIndex} 의 lock 안에서만 사용.
+ * <p>
+ * username 앞에 시작 표시(START)를 붙여서 색인하므로 "START + 앞 두 글자" gram 으로 prefix 검색도 된다.
+ * gram 은 char 세 개를 long 하나로 (16bit * 3). 후보는 gram 목록의 교집합이라 실제 포함 여부는 username 으로 다시 확인.
+ * 삭제된 회원은 목록에서 빼고 username 을 null 로 둔다 (행 번호는 재적재 때 정리).
+ */
+final class NgramPostings {
+
+	static final int GRAM = 3;
+	static final char START = '\u0002';
+
+	private long[] ids;
+	private String[] usernames;
+	private int size;
+	private final LongIntHashMap rowById;
+
+	private SortedIntList[] postings = new SortedIntList[1024];
+	private int gramCount;
+	private final LongIntHashMap slotByGram = new LongIntHashMap(1024);
+
+	NgramPostings(int expectedSize) {
+		int capacity = Math.max(expectedSize, 16);
+		ids = new long[capacity];
+		usernames = new String[capacity];
+		rowById = new LongIntHashMap(capacity);
+	}
+
+	int gramCount() {
+		return gramCount;
+	}
+
+	void upsert(long id, String username) {
+		int row = rowById.get(id);
+		if (row == LongIntHashMap.MISSING) {
+			row = appendRow(id);
+		} else if (username != null && username.equals(usernames[row])) {
+			return;
+		} else if (usernames[row] != null) {
+			for (long gram : grams(START + usernames[row])) {
+				postings[slotByGram.get(gram)].remove(row);
+			}
+		}
+		usernames[row] = username;
+		if (username != null) {
+			for (long gram : grams(START + username)) {
+				postingsOf(gram).add(row);
+			}
+		}
+	}
+
+	void remove(long id) {
+		int row = rowById.get(id);
+		if (row == LongIntHashMap.MISSING || usernames[row] == null) {
+			return;
+		}
+		for (long gram : grams(START + usernames[row])) {
+			postings[slotByGram.get(gram)].remove(row);
+		}
+		usernames[row] = null;
+	}
+
+	private int appendRow(long id) {
+		if (size == ids.length) {
+			ids = Arrays.copyOf(ids, size * 2);
+			usernames = Arrays.copyOf(usernames, size * 2);
+		}
+		int row = size++;
+		ids[row] = id;
+		rowById.put(id, row);
+		return row;
+	}
+
+	private SortedIntList postingsOf(long gram) {
+		int slot = slotByGram.get(gram);
+		if (slot != LongIntHashMap.MISSING) {
+			return postings[slot];
+		}
+		if (gramCount == postings.length) {
+			postings = Arrays.copyOf(postings, gramCount * 2);
+		}
+		slot = gramCount++;
+		postings[slot] = new SortedIntList();
+		slotByGram.put(gram, slot);
+		return postings[slot];
+	}
+
+	/**
+	 * prefix/contains 로 username 이 맞는 회원 id. (행 순서 = 대체로 id 순)
+	 * @return 검색어가 짧아서 gram 이 없으면 null (색인으로 좁힐 수 없음), 결과가 limit 를 넘으면 limit + 1 개에서 멈춤
+	 */
+	long[] find(String term, boolean prefix, int limit) {
+		long[] queryGrams = grams(prefix ? START + term : term);
+		if (queryGrams.length == 0) {
+			return null;
+		}
+		SortedIntList[] lists = new SortedIntList[queryGrams.length];
+		for (int i = 0; i < queryGrams.length; i++) {
+			int slot = slotByGram.get(queryGrams[i]);
+			if (slot == LongIntHashMap.MISSING || postings[slot].size() == 0) {
+				return new long[0];
+			}
+			lists[i] = postings[slot];
+		}
+		Arrays.sort(lists, (a, b) -> Integer.compare(a.size(), b.size())); // 가장 짧은 목록을 기준으로 교집합
+
+		long[] out = new long[Math.min(lists[0].size(), limit + 1)];
+		int n = 0;
+		int[] base = lists[0].values();
+		for (int i = 0; i < lists[0].size() && n < out.length; i++) {
+			int row = base[i];
+			if (containsAll(lists, row) && matches(usernames[row], term, prefix)) {
+				out[n++] = ids[row];
+			}
+		}
+		return Arrays.copyOf(out, n);
+	}
+
+	private static boolean containsAll(SortedIntList[] lists, int row) {
+		for (int i = 1; i < lists.length; i++) {
+			if (!lists[i].contains(row)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// gram 교집합은 후보일 뿐 (순서, 위치는 보지 않음) - like 와 같은 결과가 되도록 직접 확인
+	private static boolean matches(String username, String term, boolean prefix) {
+		return username != null && (prefix ? username.startsWith(term) : username.contains(term));
+	}
+
+	// 중복 제거한 3-gram 목록
+	static long[] grams(String value) {
+		int count = value.length() - GRAM + 1;
+		if (count <= 0) {
+			return new long[0];
+		}
+		long[] grams = new long[count];
+		for (int i = 0; i < count; i++) {
+			grams[i] = ((long)value.charAt(i) << 32) | ((long)value.charAt(i + 1) << 16) | value.charAt(i + 2);
+		}
+		Arrays.sort(grams);
+		int n = 1;
+		for (int i = 1; i < count; i++) {
+			if (grams[i] != grams[n - 1]) {
+				grams[n++] = grams[i];
+			}
+		}
+		return Arrays.copyOf(grams, n);
+	}
+
+	// 오름차순 int 목록. 적재할 때는 행 번호가 커지는 순서라 끝에 붙이기만 함
+	static final class SortedIntList {
+		private int[] values = new int[4];
+		private int size;
+
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			if (size == 0 || values[size - 1] < value) {
+				values[size++] = value;
+				return;
+			}
+			int index = Arrays.binarySearch(values, 0, size, value);
+			if (index >= 0) {
+				return;
+			}
+			int insertAt = -index - 1;
+			System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+			values[insertAt] = value;
+			size++;
+		}
+
+		void remove(int value) {
+			int index = Arrays.binarySearch(values, 0, size, value);
+			if (index >= 0) {
+				System.arraycopy(values, index + 1, values, index, size - index - 1);
+				size--;
+			}
+		}
+
+		boolean contains(int value) {
+			return Arrays.binarySearch(values, 0, size, value) >= 0;
+		}
+
+		int[] values() {
+			return values;
+		}
+
+		int size() {
+			return size;
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package study.querydsl.repository.readmodel;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+// Member, Team 에 @EntityListeners 로 등록. 메모리 읽기 모델 세 개에 변경을 전달하는 유일한 리스너
+// 리스너 빈은 EntityManagerFactory 를 만드는 도중에 생성되는데 읽기 모델은 적재에 EntityManagerFactory 를 쓰므로 이벤트 때 꺼냄
+// 값은 지금 꺼내두고 반영은 커밋 후 (ReadModelState.apply). member.getTeam().getId() 는 프록시를 초기화하지 않음
+@Component
+public class ReadModelListener {
+
+	private final ObjectProvider<MemberReadModel> memberReadModel;
+	private final ObjectProvider<UsernameNgramIndex> usernameNgramIndex;
+	private final ObjectProvider<UsernameBloomFilter> usernameBloomFilter;
+
+	public ReadModelListener(ObjectProvider<MemberReadModel> memberReadModel,
+		ObjectProvider<UsernameNgramIndex> usernameNgramIndex, ObjectProvider<UsernameBloomFilter> usernameBloomFilter) {
+		this.memberReadModel = memberReadModel;
+		this.usernameNgramIndex = usernameNgramIndex;
+		this.usernameBloomFilter = usernameBloomFilter;
+	}
+
+	// Bloom filter 만 커밋을 기다리지 않고 바로 추가 (롤백되면 false positive 로 남을 뿐)
+	// @PostPersist 는 sequence id 라 flush 때 호출되므로 @PrePersist
+	@PrePersist
+	@PreUpdate
+	public void changing(Object entity) {
+		if (entity instanceof Member member) {
+			usernameBloomFilter.getObject().add(member.getUsername());
+		}
+	}
+
+	@PostPersist
+	@PostUpdate
+	public void changed(Object entity) {
+		if (entity instanceof Member member) {
+			long id = member.getId();
+			String username = member.getUsername();
+			int age = member.getAge();
+			Long teamId = member.getTeam() != null ? member.getTeam().getId() : null;
+			memberReadModel.getObject().apply(columns -> columns.upsertMember(id, username, age, teamId));
+			usernameNgramIndex.getObject().apply(postings -> postings.upsert(id, username));
+		} else if (entity instanceof Team team) {
+			long id = team.getId();
+			String name = team.getName();
+			memberReadModel.getObject().apply(columns -> columns.upsertTeam(id, name));
+		}
+	}
+
+	@PostRemove
+	public void removed(Object entity) {
+		if (entity instanceof Member member) {
+			long id = member.getId();
+			memberReadModel.getObject().apply(columns -> columns.removeMember(id));
+			usernameNgramIndex.getObject().apply(postings -> postings.remove(id));
+		}
+		// 팀 삭제: 남은 회원의 team_id 가 먼저 바뀌어야 하므로 회원 쪽 변경으로 반영됨
+	}
+}
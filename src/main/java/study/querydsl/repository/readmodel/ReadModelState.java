@@ -0,0 +1,209 @@
+package study.querydsl.repository.readmodel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.hibernate.Session;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * DB 전체를 읽어 만든 메모리 구조 T 의 적재/변경 반영/교체. MemberReadModel, UsernameNgramIndex, UsernameBloomFilter 공용.
+ * <ul>
+ *     <li>{@link #reload()} - DB 를 읽기 전에 적재 중 표시부터 하고(write lock), 적재 중 반영된 변경은 pending 에 모았다가
+ *     새 T 에 다시 적용한 뒤 교체. DB 를 읽은 뒤 커밋된 변경도 새 T 에서 빠지지 않음</li>
+ *     <li>{@link #apply} - 트랜잭션이 있으면 커밋된 뒤에, 없으면 바로 반영 (롤백되면 반영 안 함)</li>
+ *     <li>{@link #invalidate()} - 트랜잭션이 끝난 뒤 다시 적재. 그 전에 시작한 적재가 끝나도 준비 상태가 되지 않음</li>
+ * </ul>
+ * 적재는 데몬 스레드 하나에서 순서대로 실행한다.
+ */
+@Slf4j
+final class ReadModelState<T> {
+
+	private final String name;
+	private final EntityManagerFactory emf;
+	private final boolean enabled;
+	private final Function<EntityManager, T> loader;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private volatile T current;
+	private volatile boolean ready;
+	private boolean loading; // lock 으로 보호
+	private final List<Consumer<T>> pending = new ArrayList<>(); // lock 으로 보호
+	private final AtomicLong generation = new AtomicLong(); // invalidate 마다 증가
+	private final ExecutorService executor;
+
+	/**
+	 * @param empty  적재 전에 쓰는 빈 T
+	 * @param loader 읽기 전용 EntityManager 로 전체를 읽어 T 를 만듦. EntityManager 는 여기서 닫는다
+	 */
+	ReadModelState(String name, EntityManagerFactory emf, boolean enabled, T empty,
+		Function<EntityManager, T> loader) {
+		this.name = name;
+		this.emf = emf;
+		this.enabled = enabled;
+		this.current = empty;
+		this.loader = loader;
+		this.executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, name.replace(' ', '-'));
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	boolean isEnabled() {
+		return enabled;
+	}
+
+	boolean isReady() {
+		return ready;
+	}
+
+	void loadOnStartup() {
+		if (enabled) {
+			reloadLater();
+		}
+	}
+
+	void reloadLater() {
+		executor.execute(this::reload);
+	}
+
+	// 준비됐으면 read lock 안에서 읽은 값, 아니면 empty
+	<R> Optional<R> read(Function<T, R> reader) {
+		if (!ready) {
+			return Optional.empty();
+		}
+		lock.readLock().lock();
+		try {
+			return ready ? Optional.ofNullable(reader.apply(current)) : Optional.empty();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// 준비 여부와 상관없이 지금 T 에서 읽음 (metric)
+	<R> R readCurrent(Function<T, R> reader) {
+		lock.readLock().lock();
+		try {
+			return reader.apply(current);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// lock 없이 지금 T. T 자체가 동시 읽기/쓰기에 안전할 때만
+	T current() {
+		return current;
+	}
+
+	// 엔티티 리스너에서 호출
+	void apply(Consumer<T> change) {
+		if (!enabled) {
+			return;
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					applyNow(change);
+				}
+			});
+		} else {
+			applyNow(change);
+		}
+	}
+
+	// 커밋을 기다리지 않고 지금 T 에 반영. 적재 중이면 새 T 에도
+	void applyNow(Consumer<T> change) {
+		if (!enabled) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			change.accept(current);
+			if (loading) {
+				pending.add(change);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// 벌크 update/delete 처럼 엔티티 리스너를 거치지 않는 변경 후 호출. 다시 적재할 때까지 준비 안 됨
+	void invalidate() {
+		if (!enabled) {
+			return;
+		}
+		ready = false;
+		generation.incrementAndGet();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					reloadLater();
+				}
+			});
+		} else {
+			reloadLater();
+		}
+	}
+
+	void reload() {
+		long startGeneration = generation.get();
+		lock.writeLock().lock();
+		try {
+			loading = true;
+			pending.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+
+		long start = System.nanoTime();
+		T loaded;
+		EntityManager em = emf.createEntityManager();
+		try {
+			em.unwrap(Session.class).setDefaultReadOnly(true);
+			loaded = loader.apply(em);
+		} catch (RuntimeException e) {
+			log.warn("{} load failed, falling back to the database", name, e);
+			lock.writeLock().lock();
+			try {
+				loading = false;
+				pending.clear();
+			} finally {
+				lock.writeLock().unlock();
+			}
+			return;
+		} finally {
+			em.close();
+		}
+
+		lock.writeLock().lock();
+		try {
+			pending.forEach(change -> change.accept(loaded));
+			pending.clear();
+			current = loaded;
+			loading = false;
+			ready = generation.get() == startGeneration; // 적재 중 invalidate 됐으면 다음 적재까지 준비 안 됨
+		} finally {
+			lock.writeLock().unlock();
+		}
+		log.info("{} loaded elapsedMillis={}", name, (System.nanoTime() - start) / 1_000_000);
+	}
+
+	void shutdown() {
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,36 @@
+package study.querydsl.repository.readmodel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 문자열 <-> int 코드. 같은 문자열은 한 번만 저장하고 행에는 코드만 둔다
+final class StringDictionary {
+
+	static final int MISSING = -1;
+
+	private final Map<String, Integer> codes = new HashMap<>();
+	private final List<String> values = new ArrayList<>();
+
+	int encode(String value) {
+		Integer code = codes.get(value);
+		if (code != null) {
+			return code;
+		}
+		int newCode = values.size();
+		codes.put(value, newCode);
+		values.add(value);
+		return newCode;
+	}
+
+	// 검색용 - 없는 값이면 MISSING (사전에 추가하지 않음)
+	int find(String value) {
+		Integer code = codes.get(value);
+		return code != null ? code : MISSING;
+	}
+
+	String decode(int code) {
+		return values.get(code);
+	}
+}
@@ -0,0 +1,94 @@
+package study.querydsl.repository.readmodel;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 팀 하나의 회원 나이 집계 (count, sum, 나이별 인원 histogram). 스레드 안전하지 않음 - {@link TeamStatistics} lock 안에서만.
+ * <p>
+ * min/max 는 회원이 빠질 때 다시 계산할 수 있어야 하므로 값 하나가 아니라 나이별 인원으로 들고 있다.
+ * 0 ~ 127 은 배열, 그 밖의 나이는 TreeMap. min/max 조회는 최대 128칸 훑기.
+ */
+final class TeamAggregate {
+
+	private static final int HISTOGRAM_SIZE = 128;
+
+	private String name;
+	private long count;
+	private long sum;
+	private final int[] histogram = new int[HISTOGRAM_SIZE];
+	private final TreeMap<Integer, Integer> outliers = new TreeMap<>();
+
+	TeamAggregate(String name) {
+		this.name = name;
+	}
+
+	String getName() {
+		return name;
+	}
+
+	void setName(String name) {
+		this.name = name;
+	}
+
+	long getCount() {
+		return count;
+	}
+
+	long getSum() {
+		return sum;
+	}
+
+	void add(int age, long members) {
+		count += members;
+		sum += age * members;
+		if (age >= 0 && age < HISTOGRAM_SIZE) {
+			histogram[age] += (int)members;
+		} else {
+			outliers.merge(age, (int)members, Integer::sum);
+		}
+	}
+
+	void remove(int age) {
+		count--;
+		sum -= age;
+		if (age >= 0 && age < HISTOGRAM_SIZE) {
+			histogram[age]--;
+		} else {
+			outliers.computeIfPresent(age, (key, members) -> members > 1 ? members - 1 : null);
+		}
+	}
+
+	Integer min() {
+		Map.Entry<Integer, Integer> negative = outliers.firstEntry();
+		if (negative != null && negative.getKey() < 0) {
+			return negative.getKey();
+		}
+		for (int age = 0; age < HISTOGRAM_SIZE; age++) {
+			if (histogram[age] > 0) {
+				return age;
+			}
+		}
+		return negative != null ? negative.getKey() : null;
+	}
+
+	Integer max() {
+		Map.Entry<Integer, Integer> large = outliers.lastEntry();
+		if (large != null && large.getKey() >= HISTOGRAM_SIZE) {
+			return large.getKey();
+		}
+		for (int age = HISTOGRAM_SIZE - 1; age >= 0; age--) {
+			if (histogram[age] > 0) {
+				return age;
+			}
+		}
+		return large != null ? large.getKey() : null;
+	}
+
+	// 재계산 결과와 비교 (drift 확인)
+	boolean sameAs(TeamAggregate other) {
+		return count == other.count && sum == other.sum
+			&& Arrays.equals(histogram, other.histogram) && outliers.equals(other.outliers);
+	}
+}
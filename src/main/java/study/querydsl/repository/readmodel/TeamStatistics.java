@@ -0,0 +1,234 @@
+package study.querydsl.repository.readmodel;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import study.querydsl.dto.TeamStatsDto;
+
+/**
+ * 팀별 회원 나이 집계를 메모리에 유지. (querydsl.team-stats.enabled)
+ * <p>
+ * {@link TeamStatisticsEventListener} 가 커밋된 회원 저장/삭제/나이 변경/팀 변경을 받아 해당 팀 집계에 더하고 빼므로
+ * {@link #stats()} 는 팀 수에 비례 (회원 수와 무관).
+ * <p>
+ * 재계산 도중 커밋된 변경은 모아두었다가 재계산 결과에도 반영한 뒤 교체한다. (MemberReadModel 과 같은 방식)
+ * 다만 재계산 쿼리가 이미 읽은 변경이 그 뒤에 도착하면 두 번 더해질 수 있는데, 이런 어긋남과
+ * 벌크 update/delete(이벤트가 없으므로 실행한 쪽에서 {@link #invalidate()})로 놓친 변경은
+ * 다음 주기적인 전체 재계산({@link #reconcile()})이 맞추고 어긋난 팀 수를 metric 으로 남긴다.
+ * 꺼져 있으면 요청마다 group by 쿼리로 계산.
+ */
+@Slf4j
+@Component
+public class TeamStatistics {
+
+	private final EntityManagerFactory emf;
+	private final boolean enabled;
+
+	private Map<Long, TeamAggregate> teams = new HashMap<>(); // this 로 동기화
+	private volatile boolean loaded;
+	private boolean loading; // 재계산 중 들어온 변경은 pending 에 모았다가 재계산 결과에도 반영
+	private final List<Consumer<Map<Long, TeamAggregate>>> pending = new ArrayList<>();
+	private final Object reconcileLock = new Object(); // 스케줄, invalidate, 시작 시 재계산이 겹치지 않도록
+	private final ExecutorService reconciler;
+	private final Counter driftCount;
+
+	public TeamStatistics(EntityManagerFactory emf, MeterRegistry meterRegistry,
+		@Value("${querydsl.team-stats.enabled:false}") boolean enabled) {
+		this.emf = emf;
+		this.enabled = enabled;
+		this.reconciler = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "team-stats-reconciler");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.driftCount = Counter.builder("querydsl.team-stats.drift").register(meterRegistry);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadOnStartup() {
+		if (enabled) {
+			reconcile();
+		}
+	}
+
+	public List<TeamStatsDto> stats() {
+		if (!enabled || !loaded) {
+			return toDto(load());
+		}
+		synchronized (this) {
+			return toDto(teams);
+		}
+	}
+
+	// 전체 재계산 후 교체. 유지하던 값과 다른 팀 수를 drift 로 기록
+	@Scheduled(fixedDelayString = "${querydsl.team-stats.reconcile-interval:PT5M}",
+		initialDelayString = "${querydsl.team-stats.reconcile-interval:PT5M}")
+	public void reconcile() {
+		if (!enabled) {
+			return;
+		}
+		synchronized (reconcileLock) {
+			recompute();
+		}
+	}
+
+	private void recompute() {
+		long start = System.nanoTime();
+		synchronized (this) {
+			loading = true;
+			pending.clear();
+		}
+		Map<Long, TeamAggregate> recomputed;
+		try {
+			recomputed = load();
+		} catch (RuntimeException e) {
+			synchronized (this) {
+				loading = false;
+				pending.clear();
+			}
+			throw e;
+		}
+		int drift = 0;
+		synchronized (this) {
+			pending.forEach(change -> change.accept(recomputed));
+			pending.clear();
+			loading = false;
+			if (loaded) {
+				for (Map.Entry<Long, TeamAggregate> entry : recomputed.entrySet()) {
+					TeamAggregate current = teams.get(entry.getKey());
+					if (current == null || !current.sameAs(entry.getValue())) {
+						drift++;
+					}
+				}
+				drift += (int)teams.keySet().stream().filter(id -> !recomputed.containsKey(id)).count();
+			}
+			teams = recomputed;
+			loaded = true;
+		}
+		if (drift > 0) {
+			driftCount.increment(drift);
+			log.warn("team stats drift corrected teams={}", drift);
+		}
+		log.debug("team stats reconciled teams={} elapsedMillis={}", recomputed.size(),
+			(System.nanoTime() - start) / 1_000_000);
+	}
+
+	// 벌크 연산 후 - 트랜잭션 안이면 끝난 뒤에 재계산
+	public void invalidate() {
+		if (!enabled) {
+			return;
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					reconciler.execute(TeamStatistics.this::reconcile);
+				}
+			});
+		} else {
+			reconciler.execute(this::reconcile);
+		}
+	}
+
+	// 회원 수만큼이 아니라 (팀, 나이) 조합만큼의 행만 가져옴
+	private Map<Long, TeamAggregate> load() {
+		EntityManager em = emf.createEntityManager();
+		try {
+			Map<Long, TeamAggregate> result = new HashMap<>();
+			em.createQuery("select t.id, t.name from Team t", Object[].class)
+				.getResultList()
+				.forEach(row -> result.put((Long)row[0], new TeamAggregate((String)row[1])));
+			em.createQuery("select m.team.id, m.age, count(m) from Member m"
+					+ " where m.team is not null group by m.team.id, m.age", Object[].class)
+				.getResultList()
+				.forEach(row -> {
+					TeamAggregate aggregate = result.get((Long)row[0]);
+					if (aggregate != null) {
+						aggregate.add((Integer)row[1], (Long)row[2]);
+					}
+				});
+			return result;
+		} finally {
+			em.close();
+		}
+	}
+
+	private static List<TeamStatsDto> toDto(Map<Long, TeamAggregate> teams) {
+		List<TeamStatsDto> result = new ArrayList<>(teams.size());
+		teams.forEach((id, aggregate) -> result.add(new TeamStatsDto(id, aggregate.getName(), aggregate.getCount(),
+			aggregate.getSum(), aggregate.min(), aggregate.max())));
+		result.sort(Comparator.comparing(TeamStatsDto::getTeamName, Comparator.nullsLast(Comparator.naturalOrder())));
+		return result;
+	}
+
+	// 아래는 TeamStatisticsEventListener 에서 커밋 후 호출
+
+	synchronized void teamSaved(long teamId, String name) {
+		apply(teams -> teams.computeIfAbsent(teamId, id -> new TeamAggregate(name)).setName(name));
+	}
+
+	synchronized void teamRemoved(long teamId) {
+		apply(teams -> teams.remove(teamId));
+	}
+
+	synchronized void memberAdded(Long teamId, int age) {
+		if (teamId != null) {
+			apply(teams -> {
+				TeamAggregate aggregate = teams.get(teamId);
+				if (aggregate != null) {
+					aggregate.add(age, 1);
+				}
+			});
+		}
+	}
+
+	synchronized void memberRemoved(Long teamId, int age) {
+		if (teamId != null) {
+			apply(teams -> {
+				TeamAggregate aggregate = teams.get(teamId);
+				if (aggregate != null) {
+					aggregate.remove(age);
+				}
+			});
+		}
+	}
+
+	// this 로 동기화된 상태에서 호출. 적재 전이면 재계산 중일 때만 모아둠
+	private void apply(Consumer<Map<Long, TeamAggregate>> change) {
+		if (loaded) {
+			change.accept(teams);
+		}
+		if (loading) {
+			pending.add(change);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		reconciler.shutdownNow();
+	}
+}
@@ -0,0 +1,133 @@
+package study.querydsl.repository.readmodel;
+
+import java.util.Objects;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+/**
+ * 커밋된 Member/Team 변경을 {@link TeamStatistics} 에 반영하는 Hibernate post-commit 리스너.
+ * <p>
+ * JPA @PostUpdate 는 바뀐 뒤의 값만 주므로 나이/팀 변경 시 어느 팀에서 얼마를 빼야 할지 모른다.
+ * Hibernate 이벤트는 변경 전 상태(oldState)를 같이 주고, 커밋이 성공한 뒤에만 호출되므로 롤백된 변경은 반영되지 않음.
+ * oldState 가 없는 경우(merge 등)는 반영하지 않고 재계산에 맡긴다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamStatisticsEventListener
+	implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+	private final EntityManagerFactory emf;
+	private final TeamStatistics teamStatistics;
+
+	@PostConstruct
+	public void register() {
+		if (!teamStatistics.isEnabled()) {
+			return;
+		}
+		EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+			.getServiceRegistry()
+			.getService(EventListenerRegistry.class);
+		registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+		registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+		registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+	}
+
+	@Override
+	public boolean requiresPostCommitHandling(EntityPersister persister) {
+		Class<?> entityClass = persister.getMappedClass();
+		return entityClass == Member.class || entityClass == Team.class;
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		if (event.getEntity() instanceof Member) {
+			Object[] state = event.getState();
+			teamStatistics.memberAdded(teamId(event.getPersister(), state), age(event.getPersister(), state));
+		} else if (event.getEntity() instanceof Team) {
+			teamStatistics.teamSaved((Long)event.getId(), name(event.getPersister(), event.getState()));
+		}
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		if (event.getEntity() instanceof Member) {
+			Object[] oldState = event.getOldState();
+			if (oldState == null) {
+				return;
+			}
+			EntityPersister persister = event.getPersister();
+			Long oldTeamId = teamId(persister, oldState);
+			Long newTeamId = teamId(persister, event.getState());
+			int oldAge = age(persister, oldState);
+			int newAge = age(persister, event.getState());
+			if (!Objects.equals(oldTeamId, newTeamId) || oldAge != newAge) {
+				teamStatistics.memberRemoved(oldTeamId, oldAge);
+				teamStatistics.memberAdded(newTeamId, newAge);
+			}
+		} else if (event.getEntity() instanceof Team) {
+			teamStatistics.teamSaved((Long)event.getId(), name(event.getPersister(), event.getState()));
+		}
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		if (event.getEntity() instanceof Member) {
+			Object[] state = event.getDeletedState();
+			teamStatistics.memberRemoved(teamId(event.getPersister(), state), age(event.getPersister(), state));
+		} else if (event.getEntity() instanceof Team) {
+			teamStatistics.teamRemoved((Long)event.getId());
+		}
+	}
+
+	@Override
+	public void onPostInsertCommitFailed(PostInsertEvent event) {
+	}
+
+	@Override
+	public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+	}
+
+	@Override
+	public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+	}
+
+	// team 은 프록시일 수 있지만 getId() 는 초기화하지 않음
+	private static Long teamId(EntityPersister persister, Object[] state) {
+		Team team = (Team)property(persister, state, "team");
+		return team != null ? team.getId() : null;
+	}
+
+	private static int age(EntityPersister persister, Object[] state) {
+		return (Integer)property(persister, state, "age");
+	}
+
+	private static String name(EntityPersister persister, Object[] state) {
+		return (String)property(persister, state, "name");
+	}
+
+	private static Object property(EntityPersister persister, Object[] state, String propertyName) {
+		String[] names = persister.getPropertyNames();
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(propertyName)) {
+				return state[i];
+			}
+		}
+		throw new IllegalStateException("no property " + propertyName + " in " + persister.getEntityName());
+	}
+}
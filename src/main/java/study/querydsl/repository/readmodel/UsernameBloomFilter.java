@@ -0,0 +1,227 @@
+package study.querydsl.repository.readmodel;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * username Bloom filter. (querydsl.username-filter.enabled)
+ * <p>
+ * {@link #mightContain} 이 false 면 그 username 의 회원은 확실히 없으므로 findByUsername 이 DB 조회 없이 빈 결과를 돌려준다.
+ * ({@link study.querydsl.repository.UsernameLookupAspect}) true 는 "있을 수도 있음" - false-positive-rate 확률로 틀릴 수 있다.
+ * <p>
+ * 애플리케이션이 뜨면 백그라운드로 username 을 스트리밍으로 읽어 채우고({@link ReadModelState}),
+ * 이후에는 {@link ReadModelListener} 가 persist/update 시점(커밋 전)에 바로, 커밋된 뒤에 한 번 더 추가한다.
+ * 롤백되거나 이름이 바뀌어 남은 비트는 false positive 가 될 뿐 결과는 틀리지 않음.
+ * 삭제는 반영할 수 없으므로 추가된 수가 처음 잡은 크기를 넘거나 {@link #invalidate()} 되면 새 크기로 다시 만든다.
+ * <p>
+ * metric: querydsl.username-filter.fill-ratio (1 인 비트 비율), querydsl.username-filter.lookup{result}
+ */
+@Slf4j
+@Component
+public class UsernameBloomFilter {
+
+	private final double falsePositiveRate;
+	private final long minExpectedInsertions;
+	private final int fetchSize;
+	private final ReadModelState<Bits> state;
+	private final AtomicBoolean growing = new AtomicBoolean();
+
+	public UsernameBloomFilter(EntityManagerFactory emf, MeterRegistry meterRegistry,
+		@Value("${querydsl.username-filter.enabled:false}") boolean enabled,
+		@Value("${querydsl.username-filter.false-positive-rate:0.01}") double falsePositiveRate,
+		@Value("${querydsl.username-filter.expected-insertions:1000000}") long minExpectedInsertions,
+		@Value("${querydsl.username-filter.fetch-size:1000}") int fetchSize) {
+		if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+			throw new IllegalArgumentException("querydsl.username-filter.false-positive-rate 는 0 과 1 사이여야 합니다.");
+		}
+		this.falsePositiveRate = falsePositiveRate;
+		this.minExpectedInsertions = minExpectedInsertions;
+		this.fetchSize = fetchSize;
+		this.state = new ReadModelState<>("username bloom filter", emf, enabled, new Bits(1, falsePositiveRate),
+			this::load);
+		Gauge.builder("querydsl.username-filter.fill-ratio", this, UsernameBloomFilter::fillRatio)
+			.register(meterRegistry);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadOnStartup() {
+		state.loadOnStartup();
+	}
+
+	// 적재 전/재적재 중이면 false - 호출한 쪽은 DB 로 조회
+	public boolean isReady() {
+		return state.isReady();
+	}
+
+	// false 면 확실히 없음. 준비 전이면 항상 true. 비트는 CAS 로 켜므로 lock 없이 읽음
+	public boolean mightContain(String username) {
+		return !state.isReady() || username == null || state.current().mightContain(username);
+	}
+
+	// 엔티티 리스너에서 persist/update 시점에 호출. 커밋 직후 다른 요청의 조회가 "없음" 이 되지 않도록 바로 추가하고,
+	// 커밋된 뒤에 한 번 더 - 재적재가 DB 를 읽은 뒤에 커밋되면 바로 추가한 것은 이전 filter 에만 있으므로
+	void add(String username) {
+		if (!state.isEnabled() || username == null) {
+			return;
+		}
+		Consumer<Bits> change = bits -> bits.add(username);
+		state.applyNow(change);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			state.apply(change);
+		}
+		if (state.isReady() && state.current().isFull() && growing.compareAndSet(false, true)) {
+			// 예상보다 많이 추가됨 - false positive 비율이 올라가므로 더 크게. 다시 채우는 동안은 지금 filter 사용
+			state.reloadLater();
+		}
+	}
+
+	// 벌크 update 처럼 엔티티 리스너를 거치지 않는 변경 후 호출. 다시 채울 때까지 조회는 DB 로
+	public void invalidate() {
+		state.invalidate();
+	}
+
+	void reload() {
+		state.reload();
+	}
+
+	private Bits load(EntityManager em) {
+		try {
+			long count = em.createQuery("select count(m) from Member m", Long.class).getSingleResult();
+			Bits loaded = new Bits(Math.max(count * 2, minExpectedInsertions), falsePositiveRate); // 이후 추가분 여유
+			try (Stream<String> usernames = em.createQuery("select m.username from Member m", String.class)
+				.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+				.getResultStream()) {
+				usernames.forEach(username -> {
+					if (username != null) {
+						loaded.add(username);
+					}
+				});
+			}
+			log.info("username bloom filter loaded members={} bits={} hashes={}", count, loaded.bitSize(),
+				loaded.hashCount());
+			return loaded;
+		} finally {
+			growing.set(false);
+		}
+	}
+
+	public double fillRatio() {
+		return state.current().fillRatio();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		state.shutdown();
+	}
+
+	/**
+	 * 비트 배열 + k 개 해시 (double hashing: h1 + i * h2). 비트는 AtomicLongArray 에 CAS 로 켜므로 lock 없이 동시에 추가 가능.
+	 * expectedInsertions n, 오탐률 p 이면 비트 수 m = -n ln p / (ln 2)^2, 해시 수 k = m / n * ln 2
+	 */
+	static final class Bits {
+
+		private final AtomicLongArray words;
+		private final long bitSize;
+		private final int hashCount;
+		private final long expectedInsertions;
+		private final LongAdder insertions = new LongAdder();
+
+		Bits(long expectedInsertions, double falsePositiveRate) {
+			long n = Math.max(expectedInsertions, 1);
+			long m = Math.max(64, (long)Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+			this.words = new AtomicLongArray(Math.toIntExact((m + 63) / 64));
+			this.bitSize = words.length() * 64L;
+			this.hashCount = Math.max(1, (int)Math.round((double)bitSize / n * Math.log(2)));
+			this.expectedInsertions = n;
+		}
+
+		// 새로 켠 비트가 있을 때만 추가된 수로 셈 - 같은 username 을 다시 넣어도(커밋 후 재추가) 차지 않음
+		void add(String value) {
+			long hash = hash64(value);
+			int h1 = (int)hash;
+			int h2 = (int)(hash >>> 32);
+			boolean changed = false;
+			for (int i = 1; i <= hashCount; i++) {
+				long bit = Integer.toUnsignedLong(h1 + i * h2) * bitSize >>> 32; // [0, bitSize)
+				int word = (int)(bit >>> 6);
+				long mask = 1L << bit;
+				long old = words.get(word);
+				while ((old & mask) == 0) {
+					if (words.compareAndSet(word, old, old | mask)) {
+						changed = true;
+						break;
+					}
+					old = words.get(word);
+				}
+			}
+			if (changed) {
+				insertions.increment();
+			}
+		}
+
+		boolean mightContain(String value) {
+			long hash = hash64(value);
+			int h1 = (int)hash;
+			int h2 = (int)(hash >>> 32);
+			for (int i = 1; i <= hashCount; i++) {
+				long bit = Integer.toUnsignedLong(h1 + i * h2) * bitSize >>> 32;
+				if ((words.get((int)(bit >>> 6)) & (1L << bit)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		boolean isFull() {
+			return insertions.sum() > expectedInsertions;
+		}
+
+		double fillRatio() {
+			long set = 0;
+			for (int i = 0; i < words.length(); i++) {
+				set += Long.bitCount(words.get(i));
+			}
+			return (double)set / bitSize;
+		}
+
+		long bitSize() {
+			return bitSize;
+		}
+
+		int hashCount() {
+			return hashCount;
+		}
+
+		// char 단위 FNV-1a 후 murmur3 fmix64 로 섞음
+		static long hash64(String value) {
+			long hash = 0xcbf29ce484222325L;
+			for (int i = 0; i < value.length(); i++) {
+				hash ^= value.charAt(i);
+				hash *= 0x100000001b3L;
+			}
+			hash ^= hash >>> 33;
+			hash *= 0xff51afd7ed558ccdL;
+			hash ^= hash >>> 33;
+			hash *= 0xc4ceb9fe1a85ec53L;
+			hash ^= hash >>> 33;
+			return hash;
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package study.querydsl.repository.readmodel;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import study.querydsl.dto.MemberSearchCondition.UsernameMatch;
+
+/**
+ * username prefix/contains 검색용 메모리 n-gram 색인. (querydsl.username-index.enabled)
+ * <p>
+ * like '%x%' 는 인덱스를 탈 수 없어 member 전체를 스캔한다. 이 색인으로 후보 회원 id 를 먼저 구하고
+ * 검색 쿼리는 member_id in (...) 로 PK 만 찾아간다. ({@link study.querydsl.repository.MemberSearchPredicates})
+ * <p>
+ * {@link MemberReadModel} 과 같은 방식({@link ReadModelState})으로 유지한다 - 애플리케이션이 뜨면 백그라운드로 전체 적재,
+ * 이후 변경은 {@link ReadModelListener} 가 커밋된 뒤에 반영.
+ * 다음 경우에는 {@link #find} 가 empty 를 돌려주고 검색 쿼리는 like 로 거른다.
+ * <ul>
+ *     <li>꺼져 있거나 아직 적재 전/재적재 중</li>
+ *     <li>읽기/쓰기 트랜잭션 안 - 아직 커밋 안 된 변경은 색인에 없음</li>
+ *     <li>검색어가 gram 보다 짧음 (contains 3글자, prefix 2글자 미만)</li>
+ *     <li>후보가 max-candidates 보다 많음 - in 목록이 너무 길어지면 like 가 나음</li>
+ * </ul>
+ * metric: querydsl.username-index.find{result}, querydsl.username-index.lookup, querydsl.username-index.grams
+ * <ul>
+ *     <li>result=hit - 후보 id 로 좁힘</li>
+ *     <li>result=too_broad - 후보가 max-candidates 보다 많아서 like 로 (색인 조회는 했음, lookup 시간에 포함).
+ *     자주 늘면 검색어가 너무 짧거나 max-candidates 가 작은 것</li>
+ *     <li>result=fallback - 그 밖의 이유로 색인을 쓰지 않음 (꺼짐, 적재 중, 읽기/쓰기 트랜잭션, 짧은 검색어)</li>
+ * </ul>
+ */
+@Component
+public class UsernameNgramIndex {
+
+	private final int maxCandidates;
+	private final int fetchSize;
+	private final ReadModelState<NgramPostings> state;
+
+	private final Counter hitCount;
+	private final Counter fallbackCount;
+	private final Counter tooBroadCount;
+	private final Timer lookupTimer;
+
+	public UsernameNgramIndex(EntityManagerFactory emf, MeterRegistry meterRegistry,
+		@Value("${querydsl.username-index.enabled:false}") boolean enabled,
+		@Value("${querydsl.username-index.max-candidates:5000}") int maxCandidates,
+		@Value("${querydsl.username-index.fetch-size:1000}") int fetchSize) {
+		this.maxCandidates = maxCandidates;
+		this.fetchSize = fetchSize;
+		this.state = new ReadModelState<>("username n-gram index", emf, enabled, new NgramPostings(0), this::load);
+		this.hitCount = Counter.builder("querydsl.username-index.find").tag("result", "hit").register(meterRegistry);
+		this.fallbackCount = Counter.builder("querydsl.username-index.find").tag("result", "fallback")
+			.register(meterRegistry);
+		this.tooBroadCount = Counter.builder("querydsl.username-index.find").tag("result", "too_broad")
+			.register(meterRegistry);
+		this.lookupTimer = Timer.builder("querydsl.username-index.lookup").publishPercentiles(0.5, 0.99)
+			.register(meterRegistry);
+		Gauge.builder("querydsl.username-index.grams", this, UsernameNgramIndex::gramCount).register(meterRegistry);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadOnStartup() {
+		state.loadOnStartup();
+	}
+
+	public boolean isReady() {
+		return state.isReady();
+	}
+
+	/**
+	 * username 이 term 으로 시작하는(PREFIX) / term 을 포함하는(CONTAINS) 회원 id.
+	 * 색인으로 좁힐 수 없으면 empty - 호출한 쪽에서 like 로 거른다
+	 */
+	public Optional<List<Long>> find(String term, UsernameMatch match) {
+		if (match == UsernameMatch.EXACT || !state.isReady()
+			|| (TransactionSynchronizationManager.isActualTransactionActive()
+			&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+			fallbackCount.increment();
+			return Optional.empty();
+		}
+		long start = System.nanoTime();
+		Optional<long[]> found = state.read(postings -> postings.find(term, match == UsernameMatch.PREFIX,
+			maxCandidates));
+		lookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		if (found.isEmpty()) {
+			fallbackCount.increment();
+			return Optional.empty();
+		}
+		long[] ids = found.get();
+		if (ids.length > maxCandidates) {
+			tooBroadCount.increment();
+			return Optional.empty();
+		}
+		hitCount.increment();
+		return Optional.of(Arrays.stream(ids).sorted().boxed().toList());
+	}
+
+	// 전체 재적재. 끝날 때까지 검색은 like 로 (트랜잭션 안이면 커밋/롤백 후에 다시 읽음)
+	public void invalidate() {
+		state.invalidate();
+	}
+
+	void reload() {
+		state.reload();
+	}
+
+	private NgramPostings load(EntityManager em) {
+		long count = em.createQuery("select count(m) from Member m", Long.class).getSingleResult();
+		NgramPostings loaded = new NgramPostings(Math.toIntExact(count + count / 4)); // 적재 후 추가분 여유
+		// id 순서로 넣어야 gram 목록에 끝에 붙이기만 함
+		try (Stream<Object[]> rows = em.createQuery(
+				"select m.id, m.username from Member m order by m.id", Object[].class)
+			.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+			.getResultStream()) {
+			rows.forEach(row -> loaded.upsert((Long)row[0], (String)row[1]));
+		}
+		return loaded;
+	}
+
+	// 엔티티 리스너에서 호출. 트랜잭션이 있으면 커밋된 뒤에, 없으면 바로 반영
+	void apply(Consumer<NgramPostings> change) {
+		state.apply(change);
+	}
+
+	public int gramCount() {
+		return state.readCurrent(NgramPostings::gramCount);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		state.shutdown();
+	}
+}
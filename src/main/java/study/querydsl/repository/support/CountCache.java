@@ -0,0 +1,176 @@
+package study.querydsl.repository.support;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 페이징 count 결과 캐시. (쿼리 이름, 정규화된 검색 조건) 을 key 로 total 을 TTL 동안 재사용한다.
+ * <p>
+ * 같은 조건으로 페이지를 넘길 때마다 count 쿼리를 날리지 않고 TTL 구간마다 한 번만 실행.
+ * 크기는 max-size 를 넘으면 가장 오래 사용하지 않은 key 부터 제거(LRU).
+ * Member/Team 이 저장/수정/삭제되면 {@link CountCacheInvalidationListener} 가 커밋된 뒤에 전체를 비운다.
+ * (flush 시점에 비우면 커밋 전까지 다른 요청이 변경 전 count 를 다시 채울 수 있음)
+ * <p>
+ * 읽기/쓰기 트랜잭션 안에서는 캐시를 읽지도 채우지도 않는다 - 아직 커밋 안 된 자기 변경이 count 에 들어가거나 빠질 수 있음.
+ * <p>
+ * 벌크 연산(update/delete 쿼리)은 엔티티 리스너를 거치지 않으므로 실행한 쪽에서
+ * {@link #invalidateAfterCommit()}(트랜잭션 안) 또는 {@link #invalidateAll()} 을 호출해야 함.
+ */
+@Component
+public class CountCache {
+
+	public record Key(String queryName, Object condition) {
+	}
+
+	private record CachedTotal(long total, long expiresAt) {
+	}
+
+	/**
+	 * {@link #lookup} 결과. hit 이면 total, 아니면 조회 후 {@link #store} 로 넣는다.
+	 * 트랜잭션 상태를 보므로 호출 스레드에서 만들어야 함 (PaginationCountExecutor 는 count 를 다른 스레드에서 실행)
+	 */
+	public record Lookup(Key key, Long total, boolean storable, long generation) {
+
+		public boolean hit() {
+			return total != null;
+		}
+	}
+
+	private final boolean enabled;
+	private final long ttlNanos;
+	private final Map<Key, CachedTotal> entries;
+	// invalidate 될 때마다 증가. 조회 도중 invalidate 되었다면 그 결과는 캐시에 넣지 않음
+	private final AtomicLong generation = new AtomicLong();
+
+	private final LongSupplier nanoClock;
+
+	private final Counter hitCount;
+	private final Counter missCount;
+	private final Counter bypassCount;
+
+	@Autowired
+	public CountCache(MeterRegistry meterRegistry,
+		@Value("${querydsl.count-cache.enabled:true}") boolean enabled,
+		@Value("${querydsl.count-cache.ttl:30s}") Duration ttl,
+		@Value("${querydsl.count-cache.max-size:1000}") int maxSize) {
+		this(meterRegistry, enabled, ttl, maxSize, System::nanoTime);
+	}
+
+	// 테스트에서 TTL 만료를 시간 대기 없이 확인하기 위한 생성자
+	CountCache(MeterRegistry meterRegistry, boolean enabled, Duration ttl, int maxSize, LongSupplier nanoClock) {
+		this.enabled = enabled;
+		this.nanoClock = nanoClock;
+		this.ttlNanos = ttl.toNanos();
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, CachedTotal> eldest) {
+				return size() > maxSize;
+			}
+		};
+		this.hitCount = Counter.builder("querydsl.count-cache").tag("result", "hit").register(meterRegistry);
+		this.missCount = Counter.builder("querydsl.count-cache").tag("result", "miss").register(meterRegistry);
+		this.bypassCount = Counter.builder("querydsl.count-cache").tag("result", "bypass").register(meterRegistry);
+		Gauge.builder("querydsl.count-cache.size", this, CountCache::size).register(meterRegistry);
+	}
+
+	public static Key key(String queryName, Object condition) {
+		return new Key(queryName, condition);
+	}
+
+	public long get(Key key, LongSupplier loader) {
+		Lookup lookup = lookup(key);
+		if (lookup.hit()) {
+			return lookup.total();
+		}
+		return store(lookup, loader.getAsLong()); // DB 조회는 lock 밖에서
+	}
+
+	public Lookup lookup(Key key) {
+		if (!enabled) {
+			return new Lookup(key, null, false, 0);
+		}
+		if (TransactionSynchronizationManager.isActualTransactionActive()
+			&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			bypassCount.increment();
+			return new Lookup(key, null, false, 0);
+		}
+
+		long now = nanoClock.getAsLong();
+		synchronized (entries) {
+			CachedTotal cached = entries.get(key);
+			if (cached != null && cached.expiresAt() - now > 0) {
+				hitCount.increment();
+				return new Lookup(key, cached.total(), false, 0);
+			}
+		}
+		missCount.increment();
+		return new Lookup(key, null, true, generation.get());
+	}
+
+	// lookup 이후에 invalidate 되었다면 넣지 않음
+	public long store(Lookup lookup, long total) {
+		if (lookup.storable()) {
+			synchronized (entries) {
+				if (generation.get() == lookup.generation()) {
+					entries.put(lookup.key(), new CachedTotal(total, nanoClock.getAsLong() + ttlNanos));
+				}
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * 트랜잭션이 커밋된 뒤에 전체를 비운다. 트랜잭션마다 한 번만 등록하므로 행마다 호출해도 됨 (롤백되면 그대로 둠).
+	 * 트랜잭션 동기화가 없으면 바로 비움
+	 */
+	public void invalidateAfterCommit() {
+		if (!enabled) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			invalidateAll();
+			return;
+		}
+		if (TransactionSynchronizationManager.hasResource(this)) {
+			return; // 이 트랜잭션에서 이미 등록함
+		}
+		TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				invalidateAll();
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				TransactionSynchronizationManager.unbindResourceIfPossible(CountCache.this);
+			}
+		});
+	}
+
+	public void invalidateAll() {
+		synchronized (entries) {
+			generation.incrementAndGet();
+			entries.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package study.querydsl.repository.support;
+
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+// Member, Team 에 @EntityListeners 로 등록. 스프링 부트가 SpringBeanContainer 를 설정하므로 빈으로 주입됨
+// 어떤 행이 바뀌어도 여러 검색 조건의 count 가 달라질 수 있으므로 조건별로 골라 지우지 않고 전체 무효화
+// 비우는 건 커밋된 뒤 트랜잭션당 한 번 (CountCache.invalidateAfterCommit)
+@Component
+@RequiredArgsConstructor
+public class CountCacheInvalidationListener {
+
+	private final CountCache countCache;
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	public void invalidate(Object entity) {
+		countCache.invalidateAfterCommit();
+	}
+}
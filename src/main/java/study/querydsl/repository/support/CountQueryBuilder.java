@@ -0,0 +1,142 @@
+package study.querydsl.repository.support;
+
+import java.util.List;
+import java.util.Map;
+
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.CollectionExpression;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+/**
+ * content 쿼리로부터 최소한의 count 쿼리를 만든다. (deprecated 된 fetchResults/fetchCount 대체)
+ * <p>
+ * fetchCount 는 select 절을 그대로 감싸서 count 를 만들지만 여기서는
+ * <ul>
+ *     <li>select 절(projection) 대신 count(root)</li>
+ *     <li>order by, offset, limit, fetch join 제거</li>
+ *     <li>where/다른 join 에서 쓰지 않는 to-one left join 제거 - 결과 row 수가 달라지지 않음</li>
+ * </ul>
+ * 예) member left join team + teamName 조건이 없으면 select count(member) from Member member
+ */
+public final class CountQueryBuilder {
+
+	private CountQueryBuilder() {
+	}
+
+	public static JPAQuery<Long> build(JPAQueryFactory queryFactory, JPAQuery<?> contentQuery) {
+		if (queryFactory instanceof MeteredJPAQueryFactory metered
+			&& contentQuery instanceof MeteredJPAQuery<?> meteredContent) {
+			queryFactory = metered.named(meteredContent.getQueryName() + ".count"); // member.search -> member.search.count
+		}
+		QueryMetadata source = contentQuery.getMetadata();
+		if (!source.getGroupBy().isEmpty() || source.getHaving() != null) {
+			throw new IllegalArgumentException("group by 쿼리는 count 쿼리를 직접 작성해야 합니다");
+		}
+
+		List<JoinExpression> joins = source.getJoins();
+		Expression<?> root = joins.get(0).getTarget();
+		Expression<Long> count = source.isDistinct()
+			? Expressions.numberOperation(Long.class, Ops.AggOps.COUNT_DISTINCT_AGG, root)
+			: ExpressionUtils.count(root);
+
+		JPAQuery<Long> countQuery = queryFactory.select(count);
+		QueryMetadata target = countQuery.getMetadata();
+		for (int i = 0; i < joins.size(); i++) {
+			JoinExpression join = joins.get(i);
+			if (isRemovable(joins, i, source.getWhere())) {
+				continue;
+			}
+			// fetch join flag 는 옮기지 않음 - count 쿼리에서 fetch join 은 오류
+			target.addJoin(join.getType(), join.getTarget());
+			if (join.getCondition() != null) {
+				target.addJoinCondition(join.getCondition());
+			}
+		}
+		if (source.getWhere() != null) {
+			target.addWhere(source.getWhere());
+		}
+		copyParams(source, target);
+		return countQuery;
+	}
+
+	public static long count(JPAQueryFactory queryFactory, JPAQuery<?> contentQuery) {
+		Long total = build(queryFactory, contentQuery).fetchOne();
+		return total != null ? total : 0L;
+	}
+
+	// left join 이고 to-one 연관관계(member.team)이며 alias 를 다른 곳에서 참조하지 않을 때만 제거
+	// to-many(team.member) 는 row 수가 늘어날 수 있으므로 남김
+	// getJoins() 는 마지막 join 을 호출할 때마다 새로 만들 수 있으므로 자기 자신은 == 가 아니라 위치로 구분
+	private static boolean isRemovable(List<JoinExpression> joins, int index, Predicate where) {
+		JoinExpression join = joins.get(index);
+		if (join.getType() != JoinType.LEFTJOIN) {
+			return false;
+		}
+		if (!(join.getTarget() instanceof Operation<?> alias) || alias.getOperator() != Ops.ALIAS) {
+			return false;
+		}
+		if (alias.getArg(0) instanceof CollectionExpression<?, ?>) {
+			return false;
+		}
+		Path<?> aliasPath = (Path<?>) alias.getArg(1);
+		if (references(where, aliasPath)) {
+			return false;
+		}
+		for (int i = 0; i < joins.size(); i++) {
+			JoinExpression other = joins.get(i);
+			if (i != index
+				&& (references(other.getTarget(), aliasPath) || references(other.getCondition(), aliasPath))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean references(Expression<?> expr, Path<?> alias) {
+		if (expr == null) {
+			return false;
+		}
+		if (expr instanceof Path<?> path) {
+			return path.getRoot().equals(alias);
+		}
+		if (expr instanceof Operation<?> operation) {
+			return operation.getArgs().stream().anyMatch(arg -> references(arg, alias));
+		}
+		if (expr instanceof FactoryExpression<?> factory) {
+			return factory.getArgs().stream().anyMatch(arg -> references(arg, alias));
+		}
+		if (expr instanceof TemplateExpression<?> template) {
+			return template.getArgs().stream()
+				.anyMatch(arg -> arg instanceof Expression<?> argExpr && references(argExpr, alias));
+		}
+		if (expr instanceof SubQueryExpression<?> subQuery) {
+			QueryMetadata metadata = subQuery.getMetadata();
+			return references(metadata.getWhere(), alias)
+				|| references(metadata.getProjection(), alias)
+				|| metadata.getJoins().stream()
+				.anyMatch(join -> references(join.getTarget(), alias) || references(join.getCondition(), alias));
+		}
+		return false; // 상수, 파라미터
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static void copyParams(QueryMetadata source, QueryMetadata target) {
+		for (Map.Entry<ParamExpression<?>, Object> param : source.getParams().entrySet()) {
+			target.setParam((ParamExpression)param.getKey(), param.getValue());
+		}
+	}
+}
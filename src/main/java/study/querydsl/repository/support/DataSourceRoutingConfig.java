@@ -0,0 +1,66 @@
+package study.querydsl.repository.support;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * querydsl.datasource.routing.enabled=true 면 spring.datasource 는 primary(쓰기),
+ * querydsl.datasource.replicas 는 읽기 전용 트랜잭션용으로 나눠서 쓴다. ({@link ReplicaRoutingDataSource})
+ * 꺼져 있으면 스프링 부트 기본 DataSource 하나만 사용.
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+@ConditionalOnProperty(name = "querydsl.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	// 빈으로 등록해서 종료 시 close() 로 replica 풀을 닫음
+	@Bean
+	public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+		DataSourceProperties dataSourceProperties, DataSourceRoutingProperties routingProperties) {
+		List<DataSource> replicas = routingProperties.getReplicas().stream()
+			.map(replica -> replicaDataSource(replica, dataSourceProperties))
+			.toList();
+		return new ReplicaRoutingDataSource(primaryDataSource, replicas,
+			routingProperties.getRouting().getStrategy(), routingProperties.getRouting().getRetryAfter());
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+		// 트랜잭션이 시작될 때가 아니라 첫 statement 를 실행할 때 커넥션을 고름 (그때 readOnly 여부를 알 수 있음)
+		return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+	}
+
+	private static DataSource replicaDataSource(DataSourceRoutingProperties.Replica replica,
+		DataSourceProperties dataSourceProperties) {
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setPoolName("replica-" + replica.getUrl());
+		dataSource.setJdbcUrl(replica.getUrl());
+		dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.getUsername());
+		dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.getPassword());
+		dataSource.setDriverClassName(dataSourceProperties.getDriverClassName());
+		dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+		dataSource.setReadOnly(true);
+		dataSource.setInitializationFailTimeout(-1); // replica 가 내려가 있어도 애플리케이션은 뜨도록
+		return dataSource;
+	}
+}
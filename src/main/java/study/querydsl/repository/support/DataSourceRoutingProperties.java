@@ -0,0 +1,37 @@
+package study.querydsl.repository.support;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// querydsl.datasource.* - replica 목록과 라우팅 방식
+@Getter
+@Setter
+@ConfigurationProperties("querydsl.datasource")
+public class DataSourceRoutingProperties {
+
+	private Routing routing = new Routing();
+	private List<Replica> replicas = new ArrayList<>();
+
+	@Getter
+	@Setter
+	public static class Routing {
+		private boolean enabled;
+		private ReplicaRoutingDataSource.Strategy strategy = ReplicaRoutingDataSource.Strategy.ROUND_ROBIN;
+		private Duration retryAfter = Duration.ofSeconds(30); // 실패한 replica 를 다시 시도하기까지
+	}
+
+	@Getter
+	@Setter
+	public static class Replica {
+		private String url;
+		private String username;
+		private String password;
+		private int maximumPoolSize = 10;
+	}
+}
@@ -0,0 +1,104 @@
+package study.querydsl.repository.support;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * JDBC ResultSet 한 행 -> DTO 생성자 호출. Projections.bean/fields/constructor 를 대체하는 전용 row mapper 용 MethodHandle.
+ * <p>
+ * 만들 때 한 번 {@code (ResultSet) -> new T(rs.getXxx(1), rs.getXxx(2), ...)} 형태로 MethodHandle 을 조립해 두고
+ * 행마다 invokeExact 한 번만 호출한다. Object[] 튜플을 거치지 않고 int 같은 기본형 컬럼은 박싱 없이 생성자에 넘긴다.
+ * Projections 방식보다 빠른지는 측정하지 않았다 - 비교는 ProjectionBenchmark (src/jmh) 로 직접 돌려볼 것.
+ * <p>
+ * 조립 비용이 있으므로 MethodHandle 은 static final 필드에 한 번 만들어 두고, RowMapper 는 쓰는 쪽에서
+ * 그 MethodHandle 을 invokeExact 하는 람다로 만든다. (invokeExact 는 호출 타입이 정확히 맞아야 하므로 캐스트 필요)
+ * <pre>
+ * static final MethodHandle MEMBER_DTO = DtoRowMapper.constructor(MemberDto.class, String.class, int.class);
+ * static final RowMapper&lt;MemberDto&gt; MEMBER_DTO_MAPPER = (rs, rowNum) -&gt; {
+ *     try {
+ *         return (MemberDto)MEMBER_DTO.invokeExact(rs);
+ *     } catch (Throwable e) {
+ *         throw DtoRowMapper.rethrow(e);
+ *     }
+ * };
+ * </pre>
+ * 생성자 파라미터 i 에는 i + 1 번째 컬럼. 지원 타입: String, int, long, Integer, Long (Integer, Long 은 SQL NULL -> null)
+ */
+public final class DtoRowMapper {
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private DtoRowMapper() {
+	}
+
+	// (ResultSet) T
+	public static MethodHandle constructor(Class<?> type, Class<?>... parameterTypes) {
+		MethodHandle handle;
+		try {
+			handle = LOOKUP.findConstructor(type, MethodType.methodType(void.class, parameterTypes));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new IllegalArgumentException(type.getSimpleName() + " 에 public 생성자"
+				+ Arrays.toString(parameterTypes) + " 가 없습니다.", e);
+		}
+		// (A, B, ...) T -> (ResultSet, ResultSet, ...) T
+		for (int i = 0; i < parameterTypes.length; i++) {
+			handle = MethodHandles.filterArguments(handle, i, column(parameterTypes[i], i + 1));
+		}
+		// 모든 ResultSet 인자를 하나로 -> (ResultSet) T
+		return MethodHandles.permuteArguments(handle, MethodType.methodType(type, ResultSet.class),
+			new int[parameterTypes.length]);
+	}
+
+	// (ResultSet) 컬럼 값
+	private static MethodHandle column(Class<?> parameterType, int columnIndex) {
+		try {
+			MethodHandle getter;
+			if (parameterType == String.class) {
+				getter = LOOKUP.findVirtual(ResultSet.class, "getString", MethodType.methodType(String.class, int.class));
+			} else if (parameterType == int.class) {
+				getter = LOOKUP.findVirtual(ResultSet.class, "getInt", MethodType.methodType(int.class, int.class));
+			} else if (parameterType == long.class) {
+				getter = LOOKUP.findVirtual(ResultSet.class, "getLong", MethodType.methodType(long.class, int.class));
+			} else if (parameterType == Integer.class) {
+				getter = LOOKUP.findStatic(DtoRowMapper.class, "getNullableInt",
+					MethodType.methodType(Integer.class, ResultSet.class, int.class));
+			} else if (parameterType == Long.class) {
+				getter = LOOKUP.findStatic(DtoRowMapper.class, "getNullableLong",
+					MethodType.methodType(Long.class, ResultSet.class, int.class));
+			} else {
+				throw new IllegalArgumentException("지원하지 않는 생성자 파라미터 타입입니다. type=" + parameterType.getName());
+			}
+			return MethodHandles.insertArguments(getter, 1, columnIndex);
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Integer getNullableInt(ResultSet rs, int columnIndex) throws SQLException {
+		int value = rs.getInt(columnIndex);
+		return rs.wasNull() ? null : value;
+	}
+
+	private static Long getNullableLong(ResultSet rs, int columnIndex) throws SQLException {
+		long value = rs.getLong(columnIndex);
+		return rs.wasNull() ? null : value;
+	}
+
+	// invokeExact 의 Throwable 을 RowMapper.mapRow 가 던질 수 있는 예외로. SQLException 은 돌려주고 나머지는 바로 던짐
+	public static SQLException rethrow(Throwable e) {
+		if (e instanceof SQLException sqlException) {
+			return sqlException;
+		}
+		if (e instanceof RuntimeException runtimeException) {
+			throw runtimeException;
+		}
+		if (e instanceof Error error) {
+			throw error;
+		}
+		throw new IllegalStateException(e); // 생성자가 checked 예외를 던지는 경우
+	}
+}
@@ -0,0 +1,13 @@
+package study.querydsl.repository.support;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// JdbcConcurrencyLimiter 에서 permit 을 acquire-timeout 안에 얻지 못함 -> 503
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class JdbcConcurrencyLimitExceededException extends RuntimeException {
+
+	public JdbcConcurrencyLimitExceededException(String message) {
+		super(message);
+	}
+}
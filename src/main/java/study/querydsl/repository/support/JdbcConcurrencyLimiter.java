@@ -0,0 +1,115 @@
+package study.querydsl.repository.support;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * DB 를 사용하는 구간(리포지토리, @Transactional 메서드)에 동시에 들어가는 스레드 수를 커넥션 풀 크기 이하로 제한.
+ * <p>
+ * 가상 스레드(spring.threads.virtual.enabled)는 요청마다 스레드가 생기므로 Tomcat 스레드 수가 더 이상 동시 실행을 막지 않는다.
+ * 수천 개의 가상 스레드가 Hikari getConnection 에서 connection-timeout 까지 기다리다 한꺼번에 실패하는 대신,
+ * 여기서 permit 을 기다리고(acquire-timeout) 넘으면 {@link JdbcConcurrencyLimitExceededException} (503).
+ * <p>
+ * 같은 스레드에서 안쪽으로 다시 들어오는 호출(서비스 -> 리포지토리)은 permit 을 하나만 사용.
+ * <p>
+ * 병렬 count 풀, 벌크 chunk 풀, 읽기 모델/색인 적재, 팀 집계 재계산은 이 aspect 를 거치지 않고 커넥션을 쓰므로
+ * querydsl.jdbc-limiter.permits 를 따로 주지 않으면 풀 크기에서 켜져 있는 이런 백그라운드 커넥션 수를 뺀 값.
+ * ({@link #defaultPermits(Environment)})
+ * metric: querydsl.jdbc-limiter.wait, querydsl.jdbc-limiter.rejected, querydsl.jdbc-limiter.available
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1) // single-flight 로 합쳐진 호출은 permit 없이 기다림, 트랜잭션보다는 바깥
+@ConditionalOnProperty(name = "querydsl.jdbc-limiter.enabled", havingValue = "true")
+public class JdbcConcurrencyLimiter {
+
+	private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+	private final Semaphore permits;
+	private final long acquireTimeoutNanos;
+	private final Timer waitTimer;
+	private final Counter rejectedCount;
+
+	@Autowired
+	public JdbcConcurrencyLimiter(MeterRegistry meterRegistry, Environment environment,
+		@Value("${querydsl.jdbc-limiter.acquire-timeout:5s}") Duration acquireTimeout) {
+		this(meterRegistry, environment.getProperty("querydsl.jdbc-limiter.permits", Integer.class,
+			defaultPermits(environment)), acquireTimeout);
+	}
+
+	JdbcConcurrencyLimiter(MeterRegistry meterRegistry, int permits, Duration acquireTimeout) {
+		this.permits = new Semaphore(permits, true); // 먼저 기다린 요청부터
+		this.acquireTimeoutNanos = acquireTimeout.toNanos();
+		this.waitTimer = Timer.builder("querydsl.jdbc-limiter.wait").publishPercentiles(0.5, 0.99)
+			.register(meterRegistry);
+		this.rejectedCount = Counter.builder("querydsl.jdbc-limiter.rejected").register(meterRegistry);
+		Gauge.builder("querydsl.jdbc-limiter.available", this.permits, Semaphore::availablePermits)
+			.register(meterRegistry);
+	}
+
+	// 커넥션 풀 크기 - 요청과 상관없이 커넥션을 잡을 수 있는 풀/스레드 수. 최소 1
+	static int defaultPermits(Environment environment) {
+		int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+		int reserved = environment.getProperty("querydsl.bulk.pool-size", Integer.class, 4);
+		if (environment.getProperty("querydsl.pagination.parallel-count.enabled", Boolean.class, false)) {
+			reserved += environment.getProperty("querydsl.pagination.parallel-count.pool-size", Integer.class, 8);
+		}
+		for (String loader : List.of("read-model", "username-index", "username-filter", "team-stats")) {
+			if (environment.getProperty("querydsl." + loader + ".enabled", Boolean.class, false)) {
+				reserved++; // 적재/재계산 스레드 하나
+			}
+		}
+		return Math.max(poolSize - reserved, 1);
+	}
+
+	@Around("@within(org.springframework.stereotype.Repository) "
+		+ "|| this(org.springframework.data.repository.Repository) "
+		+ "|| @within(org.springframework.transaction.annotation.Transactional) "
+		+ "|| @annotation(org.springframework.transaction.annotation.Transactional)")
+	public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+		int[] depth = DEPTH.get();
+		if (depth[0] > 0) {
+			return proceed(joinPoint, depth);
+		}
+		long start = System.nanoTime();
+		boolean acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+		waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		if (!acquired) {
+			rejectedCount.increment();
+			throw new JdbcConcurrencyLimitExceededException(
+				"DB 동시 실행 한도를 기다리다 시간이 초과되었습니다. method=" + joinPoint.getSignature().toShortString());
+		}
+		try {
+			return proceed(joinPoint, depth);
+		} finally {
+			permits.release();
+		}
+	}
+
+	private static Object proceed(ProceedingJoinPoint joinPoint, int[] depth) throws Throwable {
+		depth[0]++;
+		try {
+			return joinPoint.proceed();
+		} finally {
+			depth[0]--;
+		}
+	}
+}
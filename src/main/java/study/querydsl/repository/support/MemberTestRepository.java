@@ -1,6 +1,5 @@
 package study.querydsl.repository.support;
 
-import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.*;
 
@@ -11,53 +10,49 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberSearchPredicates;
 
 @Repository
 public class MemberTestRepository extends Querydsl4RepositorySupport {
-	public MemberTestRepository() {
+	private final MemberSearchPredicates memberSearchPredicates;
+
+	public MemberTestRepository(MemberSearchPredicates memberSearchPredicates) {
 		super(Member.class);
+		this.memberSearchPredicates = memberSearchPredicates;
 	}
 
 	public List<Member> basicSelect() {
-		return select(member)
+		return readOnlySelect(member)
 			.from(member)
 			.fetch();
 	}
 
 	public List<Member> basicSelectFrom() {
-		return selectFrom(member)
+		return readOnlySelectFrom(member)
 			.fetch();
 	}
 
 	public Page<Member> searchPageByApplyPage(MemberSearchCondition condition, Pageable pageable) {
 		JPAQuery<Member> query = selectFrom(member)
 			.leftJoin(member.team, team)
-			.where(usernameEq(condition.getUsername()),
-				teamNameEq(condition.getTeamName()),
-				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
-			);
+			.where(memberSearchPredicates.where(condition));
 
 		List<Member> content = getQuerydsl().applyPagination(pageable, query)
 			.fetch();
 
-		return PageableExecutionUtils.getPage(content, pageable, query::fetchCount);
+		return PageableExecutionUtils.getPage(content, pageable,
+			() -> CountQueryBuilder.count(getQueryFactory(), query));
 	}
 
 	public Page<Member> applyPagination(MemberSearchCondition condition, Pageable pageable) {
 		return applyPagination(pageable, query -> query
 			.selectFrom(member)
 			.leftJoin(member.team, team)
-			.where(usernameEq(condition.getUsername()),
-				teamNameEq(condition.getTeamName()),
-				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
-			)
+			.where(memberSearchPredicates.where(condition))
 		);
 	}
 
@@ -65,40 +60,11 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
 		return applyPagination(pageable, contentQuery -> contentQuery
 			.selectFrom(member)
 			.leftJoin(member.team, team)
-			.where(usernameEq(condition.getUsername()),
-				teamNameEq(condition.getTeamName()),
-				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
-				
-			), countQuery -> countQuery
+			.where(memberSearchPredicates.where(condition)), countQuery -> countQuery
 			.select(member.id)
 			.from(member)
 			.leftJoin(member.team, team)
-			.where(usernameEq(condition.getUsername()),
-				teamNameEq(condition.getTeamName()),
-				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
-			)
+			.where(memberSearchPredicates.where(condition)), CountCache.key("member.applyPagination2", condition.normalized())
 		);
 	}
-
-	private BooleanExpression usernameEq(String username) {
-		return hasText(username) ? member.username.eq(username) : null;
-	}
-
-	private BooleanExpression teamNameEq(String teamName) {
-		return hasText(teamName) ? team.name.eq(teamName) : null;
-	}
-
-	private BooleanExpression ageGoe(Integer ageGoe) {
-		return ageGoe != null ? member.age.goe(ageGoe) : null;
-	}
-
-	private BooleanExpression ageLoe(Integer ageLoe) {
-		return ageLoe != null ? member.age.loe(ageLoe) : null;
-	}
-
-	private BooleanExpression ageBetween(int ageLoe, int ageGoe) {
-		return ageGoe(ageLoe).and(ageGoe(ageGoe));
-	}
 }
@@ -0,0 +1,64 @@
+package study.querydsl.repository.support;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import jakarta.persistence.EntityManager;
+
+// fetch, fetchOne, stream, iterate 를 쿼리 이름으로 측정하는 JPAQuery. MeteredJPAQueryFactory 가 생성
+// stream, iterate 는 close 할 때 기록하므로 try-with-resources 로 닫아야 함
+public class MeteredJPAQuery<T> extends JPAQuery<T> {
+
+	private final QueryMetrics queryMetrics;
+	private final String queryName;
+
+	public MeteredJPAQuery(EntityManager em, QueryMetrics queryMetrics, String queryName) {
+		super(em);
+		this.queryMetrics = queryMetrics;
+		this.queryName = queryName;
+	}
+
+	private MeteredJPAQuery(EntityManager em, JPQLTemplates templates, QueryMetadata metadata,
+		QueryMetrics queryMetrics, String queryName) {
+		super(em, templates, metadata);
+		this.queryMetrics = queryMetrics;
+		this.queryName = queryName;
+	}
+
+	public String getQueryName() {
+		return queryName;
+	}
+
+	@Override
+	public List<T> fetch() {
+		return queryMetrics.record(queryName, super::fetch, List::size);
+	}
+
+	@Override
+	public T fetchOne() {
+		return queryMetrics.record(queryName, super::fetchOne, result -> result != null ? 1 : 0);
+	}
+
+	@Override
+	public Stream<T> stream() {
+		return queryMetrics.recordStream(queryName, super::stream);
+	}
+
+	@Override
+	public CloseableIterator<T> iterate() {
+		return queryMetrics.recordIterator(queryName, super::iterate);
+	}
+
+	@Override
+	public MeteredJPAQuery<T> clone(EntityManager entityManager, JPQLTemplates templates) {
+		MeteredJPAQuery<T> query = new MeteredJPAQuery<>(entityManager, templates, getMetadata().clone(),
+			queryMetrics, queryName);
+		query.clone(this);
+		return query;
+	}
+}
@@ -0,0 +1,69 @@
+package study.querydsl.repository.support;
+
+import org.hibernate.jpa.HibernateHints;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * 만드는 JPAQuery 의 fetch/fetchOne 을 {@link QueryMetrics} 로 측정하는 JPAQueryFactory.
+ * select/selectFrom 모두 query() 를 거치므로 기존 JPAQueryFactory 와 똑같이 사용하면 된다.
+ * <pre>
+ * queryFactory.named("member.search")
+ *     .select(...)
+ *     .fetch();
+ * </pre>
+ * {@link #readOnly()} 로 만든 쿼리는 조회한 엔티티를 읽기 전용으로 로딩한다. (org.hibernate.readOnly 힌트)
+ * 읽기 전용 엔티티는 dirty checking 용 스냅샷을 만들지 않으므로 엔티티당 메모리가 줄고 flush 시 비교 대상에서도 빠진다.
+ * 대신 값을 바꿔도 DB 에 반영되지 않음.
+ */
+public class MeteredJPAQueryFactory extends JPAQueryFactory {
+
+	private final EntityManager entityManager;
+	private final QueryMetrics queryMetrics;
+	private final String queryName;
+	private final boolean readOnly;
+
+	public MeteredJPAQueryFactory(EntityManager entityManager, QueryMetrics queryMetrics, String queryName) {
+		this(entityManager, queryMetrics, queryName, false);
+	}
+
+	private MeteredJPAQueryFactory(EntityManager entityManager, QueryMetrics queryMetrics, String queryName,
+		boolean readOnly) {
+		super(entityManager);
+		this.entityManager = entityManager;
+		this.queryMetrics = queryMetrics;
+		this.queryName = queryName;
+		this.readOnly = readOnly;
+	}
+
+	// 같은 EntityManager, 다른 쿼리 이름
+	public MeteredJPAQueryFactory named(String queryName) {
+		return new MeteredJPAQueryFactory(entityManager, queryMetrics, queryName, readOnly);
+	}
+
+	// 같은 쿼리 이름, 다른 EntityManager (별도 커넥션에서 실행할 때)
+	public MeteredJPAQueryFactory withEntityManager(EntityManager entityManager) {
+		return new MeteredJPAQueryFactory(entityManager, queryMetrics, queryName, readOnly);
+	}
+
+	// 같은 쿼리 이름, 읽기 전용 엔티티 로딩
+	public MeteredJPAQueryFactory readOnly() {
+		return readOnly ? this : new MeteredJPAQueryFactory(entityManager, queryMetrics, queryName, true);
+	}
+
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	@Override
+	public JPAQuery<?> query() {
+		MeteredJPAQuery<Void> query = new MeteredJPAQuery<>(entityManager, queryMetrics, queryName);
+		if (readOnly) {
+			query.setHint(HibernateHints.HINT_READ_ONLY, true);
+		}
+		return query;
+	}
+}
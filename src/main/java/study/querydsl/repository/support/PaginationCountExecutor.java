@@ -0,0 +1,211 @@
+package study.querydsl.repository.support;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * content 쿼리와 count 쿼리를 동시에 실행해서 Page 를 만든다.
+ * <p>
+ * parallel-count 가 켜져 있으면 count 쿼리를 별도 스레드에서 별도 커넥션(읽기 전용 EntityManager)으로 먼저 시작하고,
+ * 호출 스레드는 content 쿼리를 실행한다. 페이지 응답 시간이 content + count 에서 max(content, count) 로 줄어든다.
+ * count 가 필요 없는 페이지(첫 페이지인데 content 가 pageSize 보다 작은 경우 등)라면 count 결과는 버린다.
+ * <p>
+ * 다음 경우에는 병렬로 실행하지 않는다.
+ * <ul>
+ *     <li>읽기/쓰기 트랜잭션 안 - 다른 커넥션의 count 에는 아직 커밋 안 된 변경이 보이지 않아 content 와 어긋남</li>
+ *     <li>{@link CountCache} 에 total 이 있음 - count 쿼리도, 풀 스레드/커넥션도 쓰지 않음</li>
+ *     <li>풀이 가득 참 - 호출 스레드에서 직렬로</li>
+ * </ul>
+ * 캐시 조회/저장과 트랜잭션 판단은 모두 호출 스레드에서 한다. (풀 스레드에는 트랜잭션이 없음)
+ * <p>
+ * querydsl.pagination.count{mode=skipped|cached|parallel|serial} 카운터로 count 생략/캐시/병렬/직렬 실행 횟수를 남긴다.
+ */
+@Component
+public class PaginationCountExecutor {
+
+	private final EntityManagerFactory emf;
+	private final CountCache countCache;
+	private final ThreadPoolExecutor executor; // null 이면 항상 직렬
+
+	private final Counter skippedCount;
+	private final Counter cachedCount;
+	private final Counter parallelCount;
+	private final Counter serialCount;
+
+	@Autowired
+	public PaginationCountExecutor(EntityManagerFactory emf, MeterRegistry meterRegistry, CountCache countCache,
+		@Value("${querydsl.pagination.parallel-count.enabled:false}") boolean parallel,
+		@Value("${querydsl.pagination.parallel-count.pool-size:8}") int poolSize) {
+		this(emf, meterRegistry, countCache, parallel ? newExecutor(poolSize) : null);
+	}
+
+	// 테스트에서 풀 상태(가득 참, 대기 중)를 직접 만들기 위한 생성자
+	PaginationCountExecutor(EntityManagerFactory emf, MeterRegistry meterRegistry, CountCache countCache,
+		ThreadPoolExecutor executor) {
+		this.emf = emf;
+		this.countCache = countCache;
+		this.executor = executor;
+		this.skippedCount = countCounter(meterRegistry, "skipped");
+		this.cachedCount = countCounter(meterRegistry, "cached");
+		this.parallelCount = countCounter(meterRegistry, "parallel");
+		this.serialCount = countCounter(meterRegistry, "serial");
+	}
+
+	private static Counter countCounter(MeterRegistry meterRegistry, String mode) {
+		return Counter.builder("querydsl.pagination.count")
+			.description("페이지 count 쿼리 실행 방식별 횟수")
+			.tag("mode", mode)
+			.register(meterRegistry);
+	}
+
+	private static ThreadPoolExecutor newExecutor(int poolSize) {
+		AtomicInteger sequence = new AtomicInteger();
+		// 큐가 가득 차면 RejectedExecutionException -> 호출 스레드에서 직렬로 count
+		return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(poolSize * 4),
+			runnable -> {
+				Thread thread = new Thread(runnable, "page-count-" + sequence.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+	}
+
+	public <T> Page<T> getPage(Pageable pageable, Supplier<List<T>> content,
+		ToLongFunction<JPAQueryFactory> count, JPAQueryFactory queryFactory) {
+		return getPage(pageable, content, count, queryFactory, null);
+	}
+
+	/**
+	 * @param content       호출 스레드에서 실행할 content 조회
+	 * @param count         주어진 JPAQueryFactory 로 count 를 구하는 함수. 병렬일 때는 별도 EntityManager 의 factory 가 넘어온다
+	 * @param queryFactory  직렬로 count 할 때 사용할 호출 스레드의 factory
+	 * @param countCacheKey null 이 아니면 {@link CountCache} 의 total 을 재사용
+	 */
+	public <T> Page<T> getPage(Pageable pageable, Supplier<List<T>> content,
+		ToLongFunction<JPAQueryFactory> count, JPAQueryFactory queryFactory, CountCache.Key countCacheKey) {
+		if (executor == null || pageable.isUnpaged() || (TransactionSynchronizationManager.isActualTransactionActive()
+			&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+			// 직렬이면 count 가 필요할 때만 캐시를 봄
+			return serialPage(pageable, content.get(), () -> countCacheKey != null
+				? countCache.get(countCacheKey, () -> count.applyAsLong(queryFactory))
+				: count.applyAsLong(queryFactory));
+		}
+
+		// 병렬이면 content 전에 정해야 하므로 캐시를 먼저 봄 (count 가 필요 없는 페이지여도 miss 로 셈)
+		CountCache.Lookup lookup = countCacheKey != null ? countCache.lookup(countCacheKey) : null;
+		if (lookup != null && lookup.hit()) {
+			return page(pageable, content.get(), lookup::total, cachedCount);
+		}
+		LongUnaryOperator store = total -> lookup != null ? countCache.store(lookup, total) : total;
+
+		CompletableFuture<Long> total;
+		try {
+			total = CompletableFuture.supplyAsync(() -> countOnSeparateConnection(count, queryFactory), executor);
+		} catch (RejectedExecutionException e) {
+			return serialPage(pageable, content.get(), () -> store.applyAsLong(count.applyAsLong(queryFactory)));
+		}
+
+		List<T> rows;
+		try {
+			rows = content.get();
+		} catch (RuntimeException e) {
+			total.cancel(false);
+			throw e;
+		}
+
+		AtomicBoolean used = new AtomicBoolean();
+		Page<T> page = PageableExecutionUtils.getPage(rows, pageable, () -> {
+			used.set(true);
+			return store.applyAsLong(join(total)); // 호출 스레드에서 저장
+		});
+		if (used.get()) {
+			parallelCount.increment();
+		} else {
+			// 이미 실행 중이면 끝까지 돌지만 결과는 사용하지 않음
+			total.cancel(false);
+			skippedCount.increment();
+		}
+		return page;
+	}
+
+	private <T> Page<T> serialPage(Pageable pageable, List<T> rows, LongSupplier total) {
+		return page(pageable, rows, total, serialCount);
+	}
+
+	private <T> Page<T> page(Pageable pageable, List<T> rows, LongSupplier total, Counter usedCount) {
+		AtomicBoolean used = new AtomicBoolean();
+		Page<T> page = PageableExecutionUtils.getPage(rows, pageable, () -> {
+			used.set(true);
+			return total.getAsLong();
+		});
+		(used.get() ? usedCount : skippedCount).increment();
+		return page;
+	}
+
+	// 트랜잭션에 묶이지 않은 새 EntityManager -> 새 커넥션. 스냅샷/flush 없이 읽기만 함
+	private long countOnSeparateConnection(ToLongFunction<JPAQueryFactory> count, JPAQueryFactory queryFactory) {
+		EntityManager em = emf.createEntityManager();
+		try {
+			Session session = em.unwrap(Session.class);
+			session.setDefaultReadOnly(true);
+			session.setHibernateFlushMode(FlushMode.MANUAL);
+			JPAQueryFactory separateFactory = queryFactory instanceof MeteredJPAQueryFactory metered
+				? metered.withEntityManager(em) // 쿼리 이름은 유지
+				: new JPAQueryFactory(em);
+			return count.applyAsLong(separateFactory);
+		} finally {
+			em.close();
+		}
+	}
+
+	private static long join(CompletableFuture<Long> total) {
+		try {
+			return total.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	public boolean isParallel() {
+		return executor != null;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package study.querydsl.repository.support;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.springframework.stereotype.Component;
+
+import com.mysema.commons.lang.CloseableIterator;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+
+/**
+ * 논리적인 쿼리 이름(member.search, member.searchPageComplex.count ...) 별 실행 지표.
+ * <ul>
+ *     <li>querydsl.query - 실행 시간 (timer, histogram)</li>
+ *     <li>querydsl.query.rows - 조회된 행 수</li>
+ *     <li>querydsl.query.statements - 실행 동안 나간 JDBC statement 수</li>
+ * </ul>
+ * actuator /actuator/metrics/querydsl.query?tag=query:member.search 로 확인.
+ * SQL 디버그/trace 로그 없이도 어떤 쿼리가 느린지 볼 수 있음
+ */
+@Component
+public class QueryMetrics {
+
+	public static final String DEFAULT_QUERY_NAME = "querydsl";
+
+	private final MeterRegistry meterRegistry;
+	// 쿼리 이름별 meter. 실행마다 builder.register() 로 registry 를 찾지 않도록 한 번 만들어 재사용
+	private final ConcurrentMap<String, QueryMeters> meters = new ConcurrentHashMap<>();
+
+	public QueryMetrics(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	public MeteredJPAQueryFactory factory(EntityManager em) {
+		return new MeteredJPAQueryFactory(em, this, DEFAULT_QUERY_NAME);
+	}
+
+	public <T> T record(String queryName, Supplier<T> query, ToIntFunction<T> rows) {
+		QueryMeters queryMeters = meters(queryName);
+		long statementsBefore = QueryStatementInspector.currentCount();
+		Timer.Sample sample = Timer.start(meterRegistry);
+		boolean success = false;
+		try {
+			T result = query.get();
+			queryMeters.rows.record(rows.applyAsInt(result));
+			success = true;
+			return result;
+		} finally {
+			queryMeters.stop(sample, success, statementsBefore);
+		}
+	}
+
+	// stream() - 시간, 행 수, statement 수는 stream 을 close 할 때까지 (소비한 행 기준)
+	// 소비 도중 예외(JDBC 오류, export 중 클라이언트 연결 끊김)가 지나가면 error 로 기록
+	public <T> Stream<T> recordStream(String queryName, Supplier<Stream<T>> query) {
+		QueryMeters queryMeters = meters(queryName);
+		long statementsBefore = QueryStatementInspector.currentCount();
+		Timer.Sample sample = Timer.start(meterRegistry);
+		Stream<T> stream;
+		try {
+			stream = query.get();
+		} catch (RuntimeException e) {
+			queryMeters.stop(sample, false, statementsBefore);
+			throw e;
+		}
+		Spliterator<T> source = stream.spliterator();
+		MeteredSpliterator<T> metered = new MeteredSpliterator<>(source);
+		return StreamSupport.stream(metered, false)
+			.onClose(stream::close)
+			.onClose(() -> {
+				queryMeters.rows.record(metered.rows);
+				queryMeters.stop(sample, !metered.failed, statementsBefore);
+			});
+	}
+
+	// iterate() - stream 과 같이 close 할 때 기록. hasNext/next 에서 예외가 나면 error
+	public <T> CloseableIterator<T> recordIterator(String queryName, Supplier<CloseableIterator<T>> query) {
+		QueryMeters queryMeters = meters(queryName);
+		long statementsBefore = QueryStatementInspector.currentCount();
+		Timer.Sample sample = Timer.start(meterRegistry);
+		CloseableIterator<T> iterator;
+		try {
+			iterator = query.get();
+		} catch (RuntimeException e) {
+			queryMeters.stop(sample, false, statementsBefore);
+			throw e;
+		}
+		return new CloseableIterator<>() {
+			private long rows;
+			private boolean failed;
+			private boolean closed;
+
+			@Override
+			public boolean hasNext() {
+				try {
+					return iterator.hasNext();
+				} catch (RuntimeException e) {
+					failed = true;
+					throw e;
+				}
+			}
+
+			@Override
+			public T next() {
+				T next;
+				try {
+					next = iterator.next();
+				} catch (RuntimeException e) {
+					failed = true;
+					throw e;
+				}
+				rows++;
+				return next;
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+			}
+
+			@Override
+			public void close() {
+				if (closed) {
+					return;
+				}
+				closed = true;
+				try {
+					iterator.close();
+				} finally {
+					queryMeters.rows.record(rows);
+					queryMeters.stop(sample, !failed, statementsBefore);
+				}
+			}
+		};
+	}
+
+	// 원본 stream 을 한 행씩 넘기면서 행 수를 세고, 원본이나 다운스트림(소비자)에서 예외가 나면 표시
+	private static final class MeteredSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+		private final Spliterator<T> source;
+		private long rows;
+		private boolean failed;
+
+		private MeteredSpliterator(Spliterator<T> source) {
+			super(source.estimateSize(), source.characteristics() & ~(Spliterator.SIZED | Spliterator.SUBSIZED));
+			this.source = source;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			try {
+				return source.tryAdvance(row -> {
+					rows++;
+					action.accept(row);
+				});
+			} catch (RuntimeException | Error e) {
+				failed = true;
+				throw e;
+			}
+		}
+	}
+
+	private QueryMeters meters(String queryName) {
+		return meters.computeIfAbsent(queryName, name -> new QueryMeters(meterRegistry, name));
+	}
+
+	private static final class QueryMeters {
+
+		private final Timer success;
+		private final Timer error;
+		private final DistributionSummary rows;
+		private final DistributionSummary statements;
+
+		private QueryMeters(MeterRegistry meterRegistry, String queryName) {
+			this.success = timer(meterRegistry, queryName, "success");
+			this.error = timer(meterRegistry, queryName, "error");
+			this.rows = DistributionSummary.builder("querydsl.query.rows")
+				.tag("query", queryName)
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+			this.statements = DistributionSummary.builder("querydsl.query.statements")
+				.tag("query", queryName)
+				.register(meterRegistry);
+		}
+
+		private static Timer timer(MeterRegistry meterRegistry, String queryName, String outcome) {
+			return Timer.builder("querydsl.query")
+				.tag("query", queryName)
+				.tag("outcome", outcome)
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+		}
+
+		private void stop(Timer.Sample sample, boolean succeeded, long statementsBefore) {
+			sample.stop(succeeded ? success : error);
+			statements.record(QueryStatementInspector.currentCount() - statementsBefore);
+		}
+	}
+}
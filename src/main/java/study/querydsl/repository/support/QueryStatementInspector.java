@@ -0,0 +1,50 @@
+package study.querydsl.repository.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate 가 JDBC 로 보내는 SQL 을 스레드별로 센다. SQL 은 바꾸지 않음 (dryRun 제외).
+ * hibernate.session_factory.statement_inspector 로 등록 (Hibernate 가 직접 생성하므로 스프링 빈이 아님)
+ * <p>
+ * 한 번의 쿼리 실행 전후 값을 비교하면 그 사이에 나간 statement 수(auto flush 포함)를 알 수 있다.
+ * 열려 있는 {@link StatementBudget} scope 에도 전달한다.
+ * <p>
+ * {@link #dryRun(Runnable)} 안에서는 SQL 만 모으고 행을 읽지 않는 SQL 로 바꿔서 보낸다. (IndexAdvisor 의 EXPLAIN 용)
+ */
+public class QueryStatementInspector implements StatementInspector {
+
+	private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+	private static final ThreadLocal<List<String>> DRY_RUN = new ThreadLocal<>();
+
+	@Override
+	public String inspect(String sql) {
+		List<String> dryRun = DRY_RUN.get();
+		if (dryRun != null) {
+			dryRun.add(sql);
+			return sql + " fetch first 0 rows only"; // 결과 없음 - 세지 않음
+		}
+		COUNT.get()[0]++;
+		StatementBudget.onStatement(sql);
+		return sql;
+	}
+
+	// query 가 Hibernate 에서 만들어 보내는 SQL. select 하나짜리 쿼리만 (fetch first 를 뒤에 붙임)
+	public static List<String> dryRun(Runnable query) {
+		List<String> sql = new ArrayList<>();
+		DRY_RUN.set(sql);
+		try {
+			query.run();
+		} finally {
+			DRY_RUN.remove();
+		}
+		return sql;
+	}
+
+	// 현재 스레드에서 지금까지 실행된 statement 수 (계속 증가만 함)
+	public static long currentCount() {
+		return COUNT.get()[0];
+	}
+}
@@ -1,6 +1,5 @@
 package study.querydsl.repository.support;
 
-import java.util.List;
 import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,8 +9,8 @@ import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
 import org.springframework.data.jpa.repository.support.Querydsl;
 import org.springframework.data.querydsl.SimpleEntityPathResolver;
-import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
 
 import com.mysema.commons.lang.Assert;
 import com.querydsl.core.types.EntityPath;
@@ -34,7 +33,9 @@ public abstract class Querydsl4RepositorySupport {
 	private final Class domainClass;
 	private Querydsl querydsl;
 	private EntityManager entityManager;
-	private JPAQueryFactory queryFactory;
+	private MeteredJPAQueryFactory queryFactory;
+	private QueryMetrics queryMetrics;
+	private PaginationCountExecutor paginationCountExecutor;
 
 	public Querydsl4RepositorySupport(Class<?> domainClass) {
 		Assert.notNull(domainClass, "Domain class must not be null!");
@@ -46,12 +47,18 @@ public abstract class Querydsl4RepositorySupport {
 		Assert.notNull(entityManager, "EntityManager must not be null!");
 		Assert.notNull(querydsl, "Querydsl must not be null!");
 		Assert.notNull(queryFactory, "QueryFactory must not be null!");
+		Assert.notNull(paginationCountExecutor, "PaginationCountExecutor must not be null!");
 	}
 
-	protected JPAQueryFactory getQueryFactory() {
+	protected MeteredJPAQueryFactory getQueryFactory() {
 		return queryFactory;
 	}
 
+	// 조회한 엔티티를 읽기 전용으로 로딩 - 스냅샷, dirty checking 없음
+	protected MeteredJPAQueryFactory getReadOnlyQueryFactory() {
+		return queryFactory.readOnly();
+	}
+
 	protected Querydsl getQuerydsl() {
 		return querydsl;
 	}
@@ -70,7 +77,27 @@ public abstract class Querydsl4RepositorySupport {
 		this.entityManager = entityManager;
 		this.querydsl = new Querydsl(entityManager, new
 			PathBuilder<>(path.getType(), path.getMetadata()));
-		this.queryFactory = new JPAQueryFactory(entityManager);
+		initQueryFactory();
+	}
+
+	@Autowired
+	public void setQueryMetrics(QueryMetrics queryMetrics) {
+		this.queryMetrics = queryMetrics;
+		initQueryFactory();
+	}
+
+	// 주입 순서와 상관없이 EntityManager, QueryMetrics 가 모두 주입되면 생성
+	// 쿼리 이름 기본값은 도메인 이름 (Member -> member)
+	private void initQueryFactory() {
+		if (entityManager != null && queryMetrics != null) {
+			this.queryFactory = queryMetrics.factory(entityManager)
+				.named(StringUtils.uncapitalize(domainClass.getSimpleName()));
+		}
+	}
+
+	@Autowired
+	public void setPaginationCountExecutor(PaginationCountExecutor paginationCountExecutor) {
+		this.paginationCountExecutor = paginationCountExecutor;
 	}
 
 	protected <T> JPAQuery<T> select(Expression<T> expr) {
@@ -81,24 +108,37 @@ public abstract class Querydsl4RepositorySupport {
 		return getQueryFactory().selectFrom(from);
 	}
 
+	protected <T> JPAQuery<T> readOnlySelect(Expression<T> expr) {
+		return getReadOnlyQueryFactory().select(expr);
+	}
+
+	protected <T> JPAQuery<T> readOnlySelectFrom(EntityPath<T> from) {
+		return getReadOnlyQueryFactory().selectFrom(from);
+	}
+
 	protected <T> Page<T> applyPagination(Pageable pageable,
 		Function<JPAQueryFactory, JPAQuery> contentQuery) {
-		JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
-		List<T> content = getQuerydsl().applyPagination(pageable,
-			jpaQuery).fetch();
-		return PageableExecutionUtils.getPage(content, pageable,
-			jpaQuery::fetchCount);
+		return applyPagination(pageable, contentQuery, contentQuery);
 	}
 
+	// count 쿼리는 CountQueryBuilder 로 select/order by/불필요한 join 을 걷어내고 실행
+	// factory 를 받아 새로 만들기 때문에 병렬 모드에서는 별도 EntityManager 로 동시에 실행됨
 	protected <T> Page<T> applyPagination(Pageable pageable,
 		Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory,
 		JPAQuery> countQuery) {
-		JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
-		List<T> content = getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch();
-		JPAQuery countResult = countQuery.apply(getQueryFactory());
-		return PageableExecutionUtils.getPage(content, pageable,
-			countResult::fetchCount);
+		return paginationCountExecutor.getPage(pageable,
+			() -> getQuerydsl().applyPagination(pageable, contentQuery.apply(getQueryFactory())).fetch(),
+			queryFactory -> CountQueryBuilder.count(queryFactory, countQuery.apply(queryFactory)),
+			getQueryFactory());
 	}
-}
-
 
+	// countCacheKey 가 같으면 TTL 동안 count 쿼리 결과를 재사용 (캐시는 PaginationCountExecutor 가 호출 스레드에서 봄)
+	protected <T> Page<T> applyPagination(Pageable pageable,
+		Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory,
+		JPAQuery> countQuery, CountCache.Key countCacheKey) {
+		return paginationCountExecutor.getPage(pageable,
+			() -> getQuerydsl().applyPagination(pageable, contentQuery.apply(getQueryFactory())).fetch(),
+			queryFactory -> CountQueryBuilder.count(queryFactory, countQuery.apply(queryFactory)),
+			getQueryFactory(), countCacheKey);
+	}
+}
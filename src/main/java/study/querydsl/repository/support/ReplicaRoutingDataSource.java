@@ -0,0 +1,142 @@
+package study.querydsl.repository.support;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 읽기 전용 트랜잭션(@Transactional(readOnly = true))의 커넥션은 replica 에서, 나머지는 primary 에서 가져온다.
+ * <p>
+ * 트랜잭션 시작 시점에는 아직 readOnly 여부가 동기화되지 않으므로 반드시 LazyConnectionDataSourceProxy 로 감싸서
+ * 첫 statement 를 실행할 때 커넥션을 고르게 해야 한다.
+ * <ul>
+ *     <li>ROUND_ROBIN - replica 를 돌아가며 사용</li>
+ *     <li>LEAST_BUSY - 사용 중인 커넥션(Hikari active connections)이 가장 적은 replica</li>
+ * </ul>
+ * replica 커넥션을 얻지 못하면 retry-after 동안 그 replica 를 빼고 다음 replica, 모두 실패하면 primary 로 보낸다.
+ * replica 는 복제 지연이 있으므로 방금 쓴 데이터를 바로 읽어야 하는 곳은 readOnly 트랜잭션으로 묶지 말 것.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+	public enum Strategy {
+		ROUND_ROBIN, LEAST_BUSY
+	}
+
+	@FunctionalInterface
+	private interface ConnectionOpener {
+		Connection open(DataSource dataSource) throws SQLException;
+	}
+
+	private final DataSource primary;
+	private final List<Replica> replicas;
+	private final Strategy strategy;
+	private final long retryAfterNanos;
+	private final AtomicInteger next = new AtomicInteger();
+
+	public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Strategy strategy,
+		Duration retryAfter) {
+		this.primary = primary;
+		this.replicas = new ArrayList<>();
+		for (int i = 0; i < replicas.size(); i++) {
+			this.replicas.add(new Replica("replica-" + i, replicas.get(i)));
+		}
+		this.strategy = strategy;
+		this.retryAfterNanos = retryAfter.toNanos();
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return route(DataSource::getConnection);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return route(dataSource -> dataSource.getConnection(username, password));
+	}
+
+	private Connection route(ConnectionOpener opener) throws SQLException {
+		if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return opener.open(primary);
+		}
+		long now = System.nanoTime();
+		for (Replica replica : candidates()) {
+			if (!replica.isAvailable(now)) {
+				continue;
+			}
+			try {
+				return opener.open(replica.dataSource);
+			} catch (SQLException e) {
+				replica.downUntil = now + retryAfterNanos;
+				log.warn("replica connection failed, skip for {}ms name={}", retryAfterNanos / 1_000_000,
+					replica.name, e);
+			}
+		}
+		log.warn("no replica available, read-only connection from primary");
+		return opener.open(primary);
+	}
+
+	// replica 커넥션 풀 정리. primary 는 스프링 빈이므로 여기서 닫지 않음
+	@Override
+	public void close() throws Exception {
+		for (Replica replica : replicas) {
+			if (replica.dataSource instanceof AutoCloseable closeable) {
+				closeable.close();
+			}
+		}
+	}
+
+	// 이번 커넥션을 시도할 replica 순서
+	private List<Replica> candidates() {
+		List<Replica> ordered = new ArrayList<>(replicas.size());
+		if (strategy == Strategy.LEAST_BUSY) {
+			ordered.addAll(replicas);
+			ordered.sort(Comparator.comparingInt(Replica::activeConnections));
+			return ordered;
+		}
+		int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+		for (int i = 0; i < replicas.size(); i++) {
+			ordered.add(replicas.get((start + i) % replicas.size()));
+		}
+		return ordered;
+	}
+
+	private static final class Replica {
+
+		private final String name;
+		private final DataSource dataSource;
+		private volatile long downUntil; // 이 시각(nanoTime)까지 사용하지 않음
+
+		private Replica(String name, DataSource dataSource) {
+			this.name = name;
+			this.dataSource = dataSource;
+		}
+
+		private boolean isAvailable(long now) {
+			return downUntil == 0 || now - downUntil >= 0;
+		}
+
+		// Hikari 가 아니거나 풀이 아직 시작 전이면 0
+		private int activeConnections() {
+			if (dataSource instanceof HikariDataSource hikari) {
+				HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+				return pool != null ? pool.getActiveConnections() : 0;
+			}
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package study.querydsl.repository.support;
+
+import java.util.function.ToLongFunction;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import study.querydsl.repository.TeamIdResolver;
+
+/**
+ * 2차 캐시 region 별 hit/miss/put 지표. (querydsl.team-cache.enabled, querydsl.team-cache.statistics 가 모두 켜진 경우만)
+ * MeterBinder 라 actuator 의 MeterRegistry 에 시작할 때 등록된다.
+ * <ul>
+ *     <li>querydsl.l2-cache{region=team} - Team 엔티티</li>
+ *     <li>querydsl.l2-cache{region=team.idByName} - 팀 이름 -> id 조회 결과</li>
+ * </ul>
+ */
+@Component
+public class SecondLevelCacheMetrics implements MeterBinder {
+
+	private static final String TEAM_REGION = "team";
+
+	private final EntityManagerFactory emf;
+
+	public SecondLevelCacheMetrics(EntityManagerFactory emf) {
+		this.emf = emf;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		SessionFactory sessionFactory = emf.unwrap(SessionFactory.class);
+		Statistics statistics = sessionFactory.getStatistics();
+		if (!sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()
+			|| !statistics.isStatisticsEnabled()) {
+			return;
+		}
+		bind(registry, statistics, TEAM_REGION, "entity", false);
+		bind(registry, statistics, TeamIdResolver.CACHE_REGION, "query", true);
+	}
+
+	private void bind(MeterRegistry registry, Statistics statistics, String region, String type, boolean queryRegion) {
+		counter(registry, statistics, region, type, "hit", queryRegion, CacheRegionStatistics::getHitCount);
+		counter(registry, statistics, region, type, "miss", queryRegion, CacheRegionStatistics::getMissCount);
+		counter(registry, statistics, region, type, "put", queryRegion, CacheRegionStatistics::getPutCount);
+	}
+
+	private void counter(MeterRegistry registry, Statistics statistics, String region, String type, String result,
+		boolean queryRegion, ToLongFunction<CacheRegionStatistics> count) {
+		FunctionCounter.builder("querydsl.l2-cache", statistics, stats -> {
+				// query cache region 은 처음 사용될 때 만들어지므로 그 전에는 null
+				CacheRegionStatistics regionStatistics = queryRegion
+					? stats.getQueryRegionStatistics(region)
+					: stats.getDomainDataRegionStatistics(region);
+				return regionStatistics != null ? count.applyAsLong(regionStatistics) : 0;
+			})
+			.tag("region", region)
+			.tag("type", type)
+			.tag("result", result)
+			.register(registry);
+	}
+}
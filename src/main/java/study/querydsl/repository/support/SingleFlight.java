@@ -0,0 +1,104 @@
+package study.querydsl.repository.support;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 같은 key 로 동시에 들어온 조회를 한 번만 실행하고 결과를 나눠 갖는다. (single-flight)
+ * <p>
+ * 먼저 온 호출(leader)이 실제로 실행하고, 실행 중에 같은 key 로 들어온 호출은 그 결과를 기다린다.
+ * 실행이 끝나면 key 를 바로 지우므로 캐시가 아님 - 끝난 뒤에 온 호출은 다시 실행한다.
+ * <ul>
+ *     <li>기다리는 시간은 max-wait 까지. 넘으면 기다리던 호출이 직접 실행 (timeout)</li>
+ *     <li>leader 가 실패하면 기다리던 호출도 같은 예외</li>
+ *     <li>leader 스레드가 같은 key 로 다시 들어오면(재진입) 기다리지 않고 바로 실행</li>
+ * </ul>
+ * 결과 객체를 여러 호출이 공유하므로 받은 쪽에서 수정하면 안 됨.
+ * metric: querydsl.single-flight{name, result=leader|coalesced|timeout}
+ */
+@Component
+public class SingleFlight {
+
+	@FunctionalInterface
+	public interface Loader<T> {
+		T load() throws Throwable;
+	}
+
+	private record Call(Thread leader, CompletableFuture<Object> result, AtomicInteger waiters) {
+	}
+
+	private final ConcurrentMap<Object, Call> calls = new ConcurrentHashMap<>();
+	private final MeterRegistry meterRegistry;
+	private final long maxWaitNanos;
+
+	public SingleFlight(MeterRegistry meterRegistry,
+		@Value("${querydsl.single-flight.max-wait:2s}") Duration maxWait) {
+		this.meterRegistry = meterRegistry;
+		this.maxWaitNanos = maxWait.toNanos();
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> T execute(String name, Object key, Loader<T> loader) throws Throwable {
+		Call call = new Call(Thread.currentThread(), new CompletableFuture<>(), new AtomicInteger());
+		Call running = calls.putIfAbsent(key, call);
+		if (running == null) {
+			count(name, "leader");
+			try {
+				T result = loader.load();
+				call.result().complete(result);
+				return result;
+			} catch (Throwable e) {
+				call.result().completeExceptionally(e);
+				throw e;
+			} finally {
+				calls.remove(key, call);
+			}
+		}
+		if (running.leader() == Thread.currentThread()) {
+			return loader.load();
+		}
+
+		running.waiters().incrementAndGet();
+		try {
+			T result = (T)running.result().get(maxWaitNanos, TimeUnit.NANOSECONDS);
+			count(name, "coalesced");
+			return result;
+		} catch (TimeoutException e) {
+			count(name, "timeout");
+			return loader.load();
+		} catch (ExecutionException e) {
+			throw e.getCause();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("single-flight 결과를 기다리다 중단되었습니다. name=" + name, e);
+		} finally {
+			running.waiters().decrementAndGet();
+		}
+	}
+
+	// 실행 중인 key 수 (테스트, 모니터링)
+	public int inFlight() {
+		return calls.size();
+	}
+
+	// key 로 실행 중인 호출의 결과를 기다리는 호출 수 (테스트, 모니터링)
+	public int waiters(Object key) {
+		Call call = calls.get(key);
+		return call != null ? call.waiters().get() : 0;
+	}
+
+	private void count(String name, String result) {
+		meterRegistry.counter("querydsl.single-flight", "name", name, "result", result).increment();
+	}
+}
@@ -0,0 +1,133 @@
+package study.querydsl.repository.support;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 스레드별 JDBC statement 예산. HTTP 요청, 리포지토리 메서드 같은 구간(scope)을 열어두면
+ * {@link QueryStatementInspector} 가 statement 마다 열린 scope 전부에 1씩 더한다.
+ * <p>
+ * statement 를 셀 때는 예산을 넘긴 statement 의 호출 위치(study.querydsl 의 첫 stack frame)와 SQL 만 기억하고,
+ * 판정과 경고 로그는 scope 를 닫을 때 (리포지토리 메서드가 반환된 뒤, 요청이 끝난 뒤) 한 번만 한다.
+ * StatementInspector 안에서 예외를 던지면 Hibernate 가 JDBC 실행 도중의 오류로 감싸서 호출한 쪽 트랜잭션까지 깨지므로 던지지 않음.
+ * 테스트에서 statement 수를 강제할 때는 @ExpectedStatements (테스트 본문이 끝난 뒤 검증).
+ * 가장 많이 반복된 SQL 을 같이 남기므로 지연 로딩 N+1 (같은 select 가 회원 수만큼 반복) 을 바로 찾을 수 있다.
+ * <pre>
+ * try (StatementBudget.Scope scope = StatementBudget.open("member.search", 10)) {
+ *     ...
+ * }
+ * </pre>
+ */
+@Slf4j
+public final class StatementBudget {
+
+	public static final int UNLIMITED = -1;
+
+	private static final int MAX_TRACKED_SQL = 50; // scope 마다 기억하는 서로 다른 SQL 수
+
+	private static final Set<String> INFRASTRUCTURE = Set.of(
+		StatementBudget.class.getName(),
+		Scope.class.getName(),
+		QueryStatementInspector.class.getName(),
+		QueryMetrics.class.getName(),
+		MeteredJPAQuery.class.getName(),
+		StatementBudgetAspect.class.getName());
+
+	private static final ThreadLocal<Deque<Scope>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+	private StatementBudget() {
+	}
+
+	public static Scope open(String name, int budget) {
+		Scope scope = new Scope(name, budget);
+		SCOPES.get().push(scope);
+		return scope;
+	}
+
+	static void onStatement(String sql) {
+		Deque<Scope> scopes = SCOPES.get();
+		if (scopes.isEmpty()) {
+			return;
+		}
+		for (Scope scope : scopes) {
+			scope.record(sql);
+		}
+	}
+
+	public static final class Scope implements AutoCloseable {
+
+		private final String name;
+		private final int budget;
+		private final Map<String, Integer> sqlCounts = new LinkedHashMap<>();
+		private long count;
+		private String exceededAt; // 예산을 넘긴 statement 의 호출 위치와 SQL
+
+		private Scope(String name, int budget) {
+			this.name = name;
+			this.budget = budget;
+		}
+
+		// QueryStatementInspector 에서 호출 - 세기만 하고 로그, 예외 없음
+		private void record(String sql) {
+			count++;
+			if (sqlCounts.size() < MAX_TRACKED_SQL || sqlCounts.containsKey(sql)) {
+				sqlCounts.merge(sql, 1, Integer::sum);
+			}
+			if (budget != UNLIMITED && count > budget && exceededAt == null) {
+				exceededAt = "callSite=" + callSite() + " sql=" + sql;
+			}
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public boolean isExceeded() {
+			return exceededAt != null;
+		}
+
+		// 예산을 넘기지 않았으면 null
+		public String getExceededAt() {
+			return exceededAt;
+		}
+
+		// 같은 SQL 이 여러 번 나갔다면 N+1 의심
+		public String mostRepeated() {
+			return sqlCounts.entrySet().stream()
+				.max(Map.Entry.comparingByValue())
+				.map(entry -> entry.getValue() + "x " + entry.getKey())
+				.orElse("");
+		}
+
+		@Override
+		public void close() {
+			SCOPES.get().remove(this);
+			if (exceededAt != null) {
+				log.warn("statement budget exceeded scope={} budget={} count={} {} mostRepeated={}", name, budget, count,
+					exceededAt, mostRepeated());
+			}
+		}
+	}
+
+	// Hibernate, Spring, 측정용 클래스를 제외한 첫 애플리케이션 stack frame
+	private static String callSite() {
+		return StackWalker.getInstance().walk(frames -> frames
+			.filter(frame -> frame.getClassName().startsWith("study.querydsl.")
+				&& !INFRASTRUCTURE.contains(frame.getClassName())
+				&& !frame.getClassName().contains("$$") // CGLIB 프록시
+				&& !frame.getClassName().contains("$HibernateProxy$")) // 지연 로딩 프록시 (Team$HibernateProxy$... .getName)
+			.findFirst()
+			.map(StackWalker.StackFrame::toStackTraceElement)
+			.map(StackTraceElement::toString)
+			.orElse("unknown"));
+	}
+}
@@ -0,0 +1,32 @@
+package study.querydsl.repository.support;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 리포지토리 메서드 한 번 호출 동안 나간 statement 수를 {@link StatementBudget} 으로 세고, 메서드가 반환된 뒤 예산을 넘겼으면 경고 로그.
+ * 대상: @Repository 빈, Spring Data 리포지토리 (MemberJpaRepository, MemberQueryRepository, MemberRepository ...)
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "querydsl.statement-budget.enabled", havingValue = "true", matchIfMissing = true)
+public class StatementBudgetAspect {
+
+	private final int perMethod;
+
+	public StatementBudgetAspect(@Value("${querydsl.statement-budget.per-method:10}") int perMethod) {
+		this.perMethod = perMethod;
+	}
+
+	@Around("@within(org.springframework.stereotype.Repository) "
+		+ "|| this(org.springframework.data.repository.Repository)")
+	public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+		try (StatementBudget.Scope scope = StatementBudget.open(joinPoint.getSignature().toShortString(), perMethod)) {
+			return joinPoint.proceed();
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package study.querydsl.service;
+
+import static study.querydsl.entity.QMember.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import study.querydsl.dto.BulkOperationResult;
+import study.querydsl.repository.readmodel.MemberReadModel;
+import study.querydsl.repository.readmodel.TeamStatistics;
+import study.querydsl.repository.readmodel.UsernameBloomFilter;
+import study.querydsl.repository.readmodel.UsernameNgramIndex;
+import study.querydsl.repository.support.CountCache;
+import study.querydsl.repository.support.MeteredJPAQueryFactory;
+import study.querydsl.repository.support.QueryMetrics;
+
+/**
+ * 회원 벌크 update/delete 를 id 범위 chunk 로 나눠 실행한다.
+ * <p>
+ * update 한 번으로 수백만 행을 바꾸면 한 트랜잭션이 그 행들의 lock 을 끝날 때까지 잡고 있는다.
+ * 여기서는 조건에 맞는 id 의 min ~ max 를 chunk-size 단위 범위로 나누고, chunk 마다 별도 트랜잭션으로
+ * pool-size 개 스레드에서 동시에 실행한다. chunk 끼리는 id 범위가 겹치지 않아 서로 lock 을 기다리지 않는다.
+ * <pre>
+ * memberBulkOperationService.update("member.ageIncrease", member.age.lt(100),
+ *     update -> update.set(member.age, member.age.add(1)));
+ * </pre>
+ * where 조건은 member 컬럼 기준이어야 함 (벌크 update/delete 는 join 불가, 팀은 member.team.id).
+ * 실패하면 남은 chunk 는 실행하지 않지만 이미 커밋된 chunk 는 그대로 남으므로 다시 실행해도 되는 조건으로 작성할 것.
+ * <p>
+ * 벌크 연산은 영속성 컨텍스트, 엔티티 리스너를 거치지 않으므로 끝나면 count 캐시를 비우고,
+ * 호출한 쪽에 트랜잭션이 있으면 그 영속성 컨텍스트도 비운다.
+ * 호출 트랜잭션이 같은 행을 수정해 lock 을 잡고 있으면 chunk 가 그 커밋을 기다리므로 트랜잭션 밖에서 호출하는 것이 원칙.
+ */
+@Slf4j
+@Service
+public class MemberBulkOperationService {
+
+	private static final int PROGRESS_LOG_INTERVAL = 10; // chunk 10개마다 진행 로그
+
+	private final EntityManager em;
+	private final MeteredJPAQueryFactory queryFactory;
+	private final TransactionTemplate chunkTransaction;
+	private final CountCache countCache;
+	private final MemberReadModel memberReadModel;
+	private final TeamStatistics teamStatistics;
+	private final UsernameNgramIndex usernameNgramIndex;
+	private final UsernameBloomFilter usernameBloomFilter;
+	private final long chunkSize;
+	private final ThreadPoolExecutor executor;
+	private final Semaphore inFlight; // 제출해 두는 chunk 수 제한
+
+	public MemberBulkOperationService(EntityManager em, QueryMetrics queryMetrics,
+		PlatformTransactionManager transactionManager, CountCache countCache, MemberReadModel memberReadModel,
+		TeamStatistics teamStatistics, UsernameNgramIndex usernameNgramIndex, UsernameBloomFilter usernameBloomFilter,
+		@Value("${querydsl.bulk.chunk-size:10000}") long chunkSize,
+		@Value("${querydsl.bulk.pool-size:4}") int poolSize) {
+		this.em = em;
+		this.queryFactory = queryMetrics.factory(em).named("member.bulkRange");
+		this.chunkTransaction = new TransactionTemplate(transactionManager);
+		// 호출 쪽 트랜잭션과 상관없이 chunk 마다 커밋
+		this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.countCache = countCache;
+		this.memberReadModel = memberReadModel;
+		this.teamStatistics = teamStatistics;
+		this.usernameNgramIndex = usernameNgramIndex;
+		this.usernameBloomFilter = usernameBloomFilter;
+		this.chunkSize = chunkSize;
+		this.executor = newExecutor(poolSize);
+		this.inFlight = new Semaphore(poolSize * 2);
+	}
+
+	private static ThreadPoolExecutor newExecutor(int poolSize) {
+		AtomicInteger sequence = new AtomicInteger();
+		return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+			new LinkedBlockingQueue<>(),
+			runnable -> {
+				Thread thread = new Thread(runnable, "member-bulk-" + sequence.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+	}
+
+	// update member set ... where {where}. set 절은 update 에서 지정
+	public BulkOperationResult update(String jobName, Predicate where, Consumer<JPAUpdateClause> update) {
+		return run(jobName, where, range -> {
+			JPAUpdateClause clause = queryFactory.update(member).where(where, range);
+			update.accept(clause);
+			return clause.execute();
+		});
+	}
+
+	public BulkOperationResult delete(String jobName, Predicate where) {
+		return run(jobName, where, range -> queryFactory.delete(member).where(where, range).execute());
+	}
+
+	private BulkOperationResult run(String jobName, Predicate where, ToLongFunction<Predicate> chunkOperation) {
+		long start = System.nanoTime();
+		Tuple bounds = queryFactory
+			.select(member.id.min(), member.id.max())
+			.from(member)
+			.where(where)
+			.fetchOne();
+		Long minId = bounds != null ? bounds.get(member.id.min()) : null;
+		Long maxId = bounds != null ? bounds.get(member.id.max()) : null;
+		if (minId == null || maxId == null) {
+			return new BulkOperationResult(jobName, 0, 0, System.nanoTime() - start);
+		}
+
+		int chunkCount = Math.toIntExact((maxId - minId) / chunkSize + 1);
+		AtomicLong rows = new AtomicLong();
+		AtomicInteger completed = new AtomicInteger();
+		AtomicReference<RuntimeException> failure = new AtomicReference<>();
+		List<CompletableFuture<Void>> chunks = new ArrayList<>(chunkCount);
+
+		for (long from = minId; from <= maxId && failure.get() == null; from += chunkSize) {
+			long to = Math.min(from + chunkSize - 1, maxId);
+			Predicate range = member.id.between(from, to);
+			acquire();
+			chunks.add(CompletableFuture.runAsync(() -> {
+				try {
+					if (failure.get() != null) {
+						return; // 앞 chunk 가 실패하면 나머지는 실행하지 않음
+					}
+					Long affected = chunkTransaction.execute(status -> chunkOperation.applyAsLong(range));
+					long total = rows.addAndGet(affected != null ? affected : 0);
+					int done = completed.incrementAndGet();
+					if (done % PROGRESS_LOG_INTERVAL == 0 || done == chunkCount) {
+						log.info("member bulk progress job={} chunks={}/{} rows={} rowsPerSecond={}", jobName, done,
+							chunkCount, total, (long)new BulkOperationResult(jobName, done, total,
+								System.nanoTime() - start).getRowsPerSecond());
+					}
+				} catch (RuntimeException e) {
+					failure.compareAndSet(null, e);
+				} finally {
+					inFlight.release();
+				}
+			}, executor));
+		}
+		CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+
+		countCache.invalidateAll();
+		memberReadModel.invalidate(); // chunk 는 이미 각자 커밋됨
+		teamStatistics.invalidate();
+		usernameNgramIndex.invalidate();
+		usernameBloomFilter.invalidate();
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			em.clear(); // 호출한 트랜잭션의 엔티티는 DB 와 달라졌으므로 다시 조회하게 함
+		}
+
+		BulkOperationResult result = new BulkOperationResult(jobName, completed.get(), rows.get(),
+			System.nanoTime() - start);
+		if (failure.get() != null) {
+			throw new IllegalStateException("벌크 작업이 중간에 실패했습니다. 커밋된 결과=" + result, failure.get());
+		}
+		log.info("member bulk done {}", result);
+		return result;
+	}
+
+	private void acquire() {
+		try {
+			inFlight.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("벌크 작업 제출 중 인터럽트", e);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+}
@@ -0,0 +1,226 @@
+package study.querydsl.service;
+
+import static org.springframework.util.StringUtils.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.DataException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import study.querydsl.dto.IngestResult;
+import study.querydsl.dto.MemberIngestRow;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.TeamIdResolver;
+
+/**
+ * 회원 대량 등록.
+ * <p>
+ * chunk-size 행마다 트랜잭션을 나눠 커밋하고, 트랜잭션 안에서는 batch-size 마다 flush/clear 한다.
+ * hibernate.jdbc.batch_size 와 pooled-lo 시퀀스(allocationSize) 덕분에 insert 가 JDBC batch 로 묶이고
+ * id 를 얻기 위해 매번 시퀀스를 조회하지 않는다. clear 로 영속성 컨텍스트가 커지지 않아 메모리도 일정.
+ * <p>
+ * 한 chunk 가 행 때문에(제약 조건, 컬럼 길이 등) 실패하면 반으로 나눠 다시 저장해서 실패한 행만 빼고 커밋한다.
+ * 실패한 행의 위치는 결과의 failedRanges 에. 커넥션 실패처럼 행과 상관없는 실패면 그 chunk 에서 멈춘다 (stopped).
+ * 새 팀은 chunk 트랜잭션 전에 팀마다 따로 커밋해서 chunk 가 롤백돼도 남는다. 다른 요청이 같은 이름의 팀을 먼저 만들면
+ * uk_team_name 위반 -> 그 팀 id 를 다시 읽는다.
+ * count 캐시는 행마다가 아니라 chunk 가 커밋될 때 한 번 비워짐 ({@link study.querydsl.repository.support.CountCache#invalidateAfterCommit()})
+ */
+@Slf4j
+@Service
+public class MemberIngestService {
+
+	private static final int MAX_TEAM_ATTEMPTS = 3;
+
+	private final EntityManager em;
+	private final TeamIdResolver teamIdResolver;
+	private final TransactionTemplate transactionTemplate;
+	private final int batchSize;
+	private final int chunkSize;
+
+	public MemberIngestService(EntityManager em, TransactionTemplate transactionTemplate, TeamIdResolver teamIdResolver,
+		@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:1000}") int batchSize,
+		@Value("${querydsl.ingest.chunk-size:50000}") int chunkSize) {
+		this.em = em;
+		this.teamIdResolver = teamIdResolver;
+		this.transactionTemplate = transactionTemplate;
+		this.batchSize = batchSize;
+		this.chunkSize = chunkSize;
+	}
+
+	public IngestResult ingest(Iterator<MemberIngestRow> rows) {
+		long start = System.nanoTime();
+		Map<String, Long> teamIds = new HashMap<>(); // 커밋된 팀 이름 -> id, 요청 동안 재사용
+		Progress progress = new Progress();
+		long offset = 0;
+
+		while (rows.hasNext() && !progress.stopped) {
+			List<MemberIngestRow> chunk = nextChunk(rows);
+			try {
+				resolveTeams(chunk, teamIds);
+			} catch (RuntimeException e) {
+				log.warn("member ingest stopped, teams not resolved from={} rows={}", offset, chunk.size(), e);
+				progress.fail(offset, chunk.size());
+				progress.stopped = true;
+				break;
+			}
+			persist(chunk, offset, teamIds, progress, true);
+			offset += chunk.size();
+			log.info("member ingest progress rows={} failedRows={} rowsPerSecond={}",
+				progress.rows, offset - progress.rows, (long)progress.result(start).getRowsPerSecond());
+		}
+
+		IngestResult result = progress.result(start);
+		log.info("member ingest done {}", result);
+		return result;
+	}
+
+	// 행 때문에 실패하면 반으로 나눠 다시 - 한 행까지 줄여서 실패한 행만 뺌
+	private void persist(List<MemberIngestRow> rows, long offset, Map<String, Long> teamIds, Progress progress,
+		boolean wholeChunk) {
+		try {
+			transactionTemplate.executeWithoutResult(status -> persistChunk(rows, teamIds));
+			progress.rows += rows.size();
+		} catch (RuntimeException e) {
+			boolean rowFailure = isRowFailure(e);
+			if (!rowFailure || rows.size() == 1) {
+				log.warn("member ingest rows rolled back from={} rows={}", offset, rows.size(), e);
+				progress.fail(offset, rows.size());
+				// 행과 상관없는 실패면 멈춤. 나눠 저장하는 도중이면 그 부분만 실패로 두고 나머지는 계속
+				if (!rowFailure && wholeChunk) {
+					progress.stopped = true;
+				}
+				return;
+			}
+			log.info("member ingest rows rolled back from={} rows={}, retrying in halves: {}", offset, rows.size(), e.toString());
+			int half = rows.size() / 2;
+			persist(rows.subList(0, half), offset, teamIds, progress, false);
+			persist(rows.subList(half, rows.size()), offset + half, teamIds, progress, false);
+		}
+	}
+
+	// 다시 시도해도 같은 행이면 또 실패하는 경우. 트랜잭션/커넥션 실패는 행을 나눠도 소용없음
+	private static boolean isRowFailure(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof DataIntegrityViolationException || cause instanceof ConstraintViolationException
+				|| cause instanceof DataException || cause instanceof IllegalArgumentException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private List<MemberIngestRow> nextChunk(Iterator<MemberIngestRow> rows) {
+		List<MemberIngestRow> chunk = new ArrayList<>(chunkSize);
+		while (rows.hasNext() && chunk.size() < chunkSize) {
+			chunk.add(rows.next());
+		}
+		return chunk;
+	}
+
+	private void persistChunk(List<MemberIngestRow> chunk, Map<String, Long> teamIds) {
+		for (int i = 0; i < chunk.size(); i++) {
+			MemberIngestRow row = chunk.get(i);
+			Member member = new Member(row.getUsername(), row.getAge());
+			if (hasText(row.getTeamName())) {
+				Long teamId = teamIds.get(row.getTeamName());
+				if (teamId == null) {
+					throw new IllegalArgumentException("team could not be created: " + row.getTeamName());
+				}
+				// changeTeam 은 team.getMember() 컬렉션을 초기화하므로 연관관계 주인 쪽만 세팅
+				member.setTeam(em.getReference(Team.class, teamId));
+			}
+			em.persist(member);
+
+			if ((i + 1) % batchSize == 0) {
+				em.flush();
+				em.clear();
+			}
+		}
+		em.flush();
+		em.clear();
+	}
+
+	// chunk 트랜잭션 밖에서 팀마다 커밋 - 만들지 못한 팀은 빠지고 그 팀의 행만 실패
+	private void resolveTeams(List<MemberIngestRow> chunk, Map<String, Long> teamIds) {
+		for (MemberIngestRow row : chunk) {
+			String teamName = row.getTeamName();
+			if (!hasText(teamName) || teamIds.containsKey(teamName)) {
+				continue;
+			}
+			try {
+				teamIds.put(teamName, findOrCreateTeam(teamName));
+			} catch (RuntimeException e) {
+				if (!isRowFailure(e)) {
+					throw e;
+				}
+				log.warn("member ingest team not created name={}", teamName, e); // 이 팀의 행은 persistChunk 에서 실패
+			}
+		}
+	}
+
+	private Long findOrCreateTeam(String teamName) {
+		for (int attempt = 1; ; attempt++) {
+			List<Long> ids = teamIdResolver.findIdsByName(teamName);
+			if (!ids.isEmpty()) {
+				return ids.get(0);
+			}
+			try {
+				return transactionTemplate.execute(status -> {
+					Team newTeam = new Team(teamName);
+					em.persist(newTeam);
+					em.flush(); // uk_team_name 위반을 여기서
+					return newTeam.getId();
+				});
+			} catch (RuntimeException e) {
+				if (attempt >= MAX_TEAM_ATTEMPTS || !isTeamNameViolation(e)) {
+					throw e;
+				}
+				log.info("team created concurrently name={}, reading it again", teamName);
+			}
+		}
+	}
+
+	private static boolean isTeamNameViolation(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			// 제약 조건 이름을 못 얻는 DB 면 이름 없이도 (team 의 다른 제약 조건은 id 뿐)
+			if (cause instanceof ConstraintViolationException violation && (violation.getConstraintName() == null
+				|| violation.getConstraintName().toLowerCase(Locale.ROOT).contains("uk_team_name"))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static class Progress {
+
+		private long rows;
+		private final List<IngestResult.RowRange> failedRanges = new ArrayList<>();
+		private boolean stopped;
+
+		// 이어지는 범위는 합침
+		void fail(long from, int size) {
+			int last = failedRanges.size() - 1;
+			if (last >= 0 && failedRanges.get(last).to() == from) {
+				failedRanges.set(last, new IngestResult.RowRange(failedRanges.get(last).from(), from + size));
+			} else {
+				failedRanges.add(new IngestResult.RowRange(from, from + size));
+			}
+		}
+
+		IngestResult result(long start) {
+			return new IngestResult(rows, failedRanges, stopped, System.nanoTime() - start);
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package study.querydsl.service;
+
+import static study.querydsl.entity.QMember.*;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.dto.TeamTransferResult;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.readmodel.MemberReadModel;
+import study.querydsl.repository.readmodel.TeamStatistics;
+import study.querydsl.repository.support.CountCache;
+import study.querydsl.repository.support.MeteredJPAQueryFactory;
+import study.querydsl.repository.support.QueryMetrics;
+
+/**
+ * 회원 팀 이동. 팀 회원 수와 상관없이 Team.member 컬렉션을 로딩하지 않는다.
+ * <p>
+ * 단건: 연관관계 주인(Member.team)만 바꾸고, 컬렉션은 이미 로딩된 경우에만 {@link Member#changeTeam(Team)} 이 맞춘다.
+ * 벌크: update member set team_id 를 IN 목록 단위로 실행하고 영속성 컨텍스트를 비운다.
+ */
+@Service
+public class TeamTransferService {
+
+	// IN 절 파라미터 수 제한 (DB 마다 다름, Oracle 1000)
+	static final int IN_CHUNK_SIZE = 1000;
+
+	private final EntityManager em;
+	private final MeteredJPAQueryFactory queryFactory;
+	private final CountCache countCache;
+	private final MemberReadModel memberReadModel;
+	private final TeamStatistics teamStatistics;
+
+	public TeamTransferService(EntityManager em, QueryMetrics queryMetrics, CountCache countCache,
+		MemberReadModel memberReadModel, TeamStatistics teamStatistics) {
+		this.em = em;
+		this.queryFactory = queryMetrics.factory(em);
+		this.countCache = countCache;
+		this.memberReadModel = memberReadModel;
+		this.teamStatistics = teamStatistics;
+	}
+
+	@Transactional
+	public void transfer(Long memberId, Long toTeamId) {
+		Member findMember = em.find(Member.class, memberId);
+		if (findMember == null) {
+			throw new IllegalArgumentException("존재하지 않는 회원입니다. memberId=" + memberId);
+		}
+		findMember.changeTeam(findTeam(toTeamId)); // Team 한 행만 조회 (2차 캐시), 회원 컬렉션은 로딩 안 함
+	}
+
+	@Transactional
+	public TeamTransferResult transfer(Long fromTeamId, Long toTeamId, List<Long> memberIds) {
+		Team toTeam = findTeam(toTeamId);
+		List<Long> ids = List.copyOf(new LinkedHashSet<>(memberIds)); // 중복 제거
+
+		em.flush(); // 벌크 연산 전에 변경 내용 반영
+		long transferred = 0;
+		for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+			List<Long> chunk = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
+			transferred += queryFactory
+				.update(member)
+				.set(member.team, toTeam)
+				.where(member.id.in(chunk),
+					member.team.id.eq(fromTeamId)) // 지금 fromTeam 소속인 회원만
+				.execute();
+		}
+		// 벌크 연산은 영속성 컨텍스트, 엔티티 리스너를 거치지 않음
+		em.clear();
+		countCache.invalidateAfterCommit();
+		memberReadModel.invalidate();
+		teamStatistics.invalidate();
+		return new TeamTransferResult(ids.size(), transferred);
+	}
+
+	private Team findTeam(Long teamId) {
+		Team findTeam = em.find(Team.class, teamId);
+		if (findTeam == null) {
+			throw new IllegalArgumentException("존재하지 않는 팀입니다. teamId=" + teamId);
+		}
+		return findTeam;
+	}
+}
@@ -0,0 +1,137 @@
+package study.querydsl.controller;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.dto.MemberTeamColumns;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.ExpectedStatements;
+import study.querydsl.repository.support.StatementBudget;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	EntityManager em;
+
+	@BeforeEach
+	public void before() {
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+		for (int i = 0; i < 10; i++) {
+			em.persist(new Member("member" + i, i * 10, i % 2 == 0 ? teamA : teamB));
+		}
+		em.flush(); // insert 는 statement 수에 넣지 않음
+		em.clear();
+	}
+
+	@Test
+	@ExpectedStatements(1)
+	public void searchV1() throws Exception {
+		mockMvc.perform(get("/v1/members").param("teamName", "teamA"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.length()").value(5));
+	}
+
+	@Test
+	@ExpectedStatements(2) // content + count
+	public void searchV2() throws Exception {
+		mockMvc.perform(get("/v2/members").param("ageGoe", "30").param("page", "1").param("size", "2"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.totalElements").value(7));
+	}
+
+	@Test
+	@ExpectedStatements(1) // 마지막 페이지를 content 만으로 알 수 있어 count 생략
+	public void searchV3() throws Exception {
+		mockMvc.perform(get("/v3/members").param("size", "100"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.totalElements").value(10));
+	}
+
+	@Test
+	@ExpectedStatements(1)
+	public void searchV1Columns() throws Exception {
+		MemberTeamColumns columns = columns(mockMvc.perform(get("/v1/members").param("teamName", "teamA")
+				.accept(MemberColumnsHttpMessageConverter.MEDIA_TYPE))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(MemberColumnsHttpMessageConverter.MEDIA_TYPE))
+			.andReturn());
+
+		assertThat(columns.isPage()).isFalse();
+		assertThat(columns.getTeamNames()).containsExactly("teamA"); // 팀 이름은 사전에 한 번만
+		assertThat(columns.toDtoList()).hasSize(5)
+			.allSatisfy(row -> assertThat(row.getTeamName()).isEqualTo("teamA"))
+			.extracting(MemberTeamDto::getUsername)
+			.containsExactly("member0", "member2", "member4", "member6", "member8");
+	}
+
+	@Test
+	@ExpectedStatements(2) // content + count
+	public void searchV2Columns() throws Exception {
+		MemberTeamColumns columns = columns(mockMvc.perform(get("/v2/members").param("ageGoe", "30")
+				.param("page", "1").param("size", "2")
+				.accept(MemberColumnsHttpMessageConverter.MEDIA_TYPE))
+			.andExpect(status().isOk())
+			.andReturn());
+
+		assertThat(columns.getTotalElements()).isEqualTo(7);
+		assertThat(columns.getPageNumber()).isEqualTo(1);
+		assertThat(columns.getPageSize()).isEqualTo(2);
+		assertThat(columns.toDtoList()).extracting(MemberTeamDto::getAge).containsExactly(50, 60);
+	}
+
+	@Test
+	public void jsonStillDefault() throws Exception {
+		mockMvc.perform(get("/v1/members").param("teamName", "teamA"))
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+	}
+
+	// 예외 없이 끝까지 실행되고, 닫은 뒤 예산을 넘긴 호출 위치와 반복된 SQL 이 남음
+	@Test
+	public void lazyTeamNPlusOneExceedsBudget() {
+		StatementBudget.Scope scope;
+		try (StatementBudget.Scope opened = StatementBudget.open("team n+1", 2)) {
+			scope = opened;
+			List<Member> members = em.createQuery("select m from Member m", Member.class).getResultList();
+			for (Member member : members) {
+				member.getTeam().getName(); // 팀마다 select
+			}
+		}
+
+		assertThat(scope.isExceeded()).isTrue();
+		assertThat(scope.getExceededAt()).contains("MemberControllerTest");
+		assertThat(scope.mostRepeated()).contains("team");
+	}
+
+	private static MemberTeamColumns columns(MvcResult result) throws IOException {
+		return new MemberColumnsHttpMessageConverter().read(MemberTeamColumns.class,
+			new MockHttpInputMessage(result.getResponse().getContentAsByteArray()));
+	}
+}
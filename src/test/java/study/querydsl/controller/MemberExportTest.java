@@ -0,0 +1,209 @@
+package study.querydsl.controller;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+// StreamingResponseBody 는 요청 스레드가 아닌 async 스레드에서 조회하므로 @Transactional 롤백 대신 직접 커밋하고 지움
+// 나이 9000 ~ 9009 로 다른 테스트 데이터와 구분
+@SpringBootTest(properties = "querydsl.export.fetch-size=7")
+@AutoConfigureMockMvc
+class MemberExportTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	Long teamId;
+	List<Long> memberIds = new ArrayList<>(); // 저장 순서 = id 순서
+
+	@BeforeEach
+	public void before() {
+		transactionTemplate.executeWithoutResult(status -> {
+			Team team = new Team("export, \"team\"");
+			em.persist(team);
+			teamId = team.getId();
+			List<Member> members = List.of(
+				new Member("exportPlain", 9000, team),
+				new Member("export,comma", 9001, team),
+				new Member("export \"quote\"", 9002, team),
+				new Member("export\r\nline", 9003, team),
+				new Member("", 9004), // 빈 문자열, 팀 없음
+				new Member(null, 9005));
+			for (Member member : members) {
+				em.persist(member);
+				memberIds.add(member.getId());
+			}
+		});
+		StatementRecorder.fetchSizes.clear();
+	}
+
+	@AfterEach
+	public void after() {
+		transactionTemplate.executeWithoutResult(status -> {
+			em.createQuery("delete from Member m where m.age between 9000 and 9009").executeUpdate();
+			em.createQuery("delete from Team t where t.id = :id").setParameter("id", teamId).executeUpdate();
+		});
+	}
+
+	@Test
+	public void ndjsonWritesOneMemberPerLine() throws Exception {
+		String body = export("NDJSON", "application/x-ndjson");
+
+		assertThat(body).endsWith("\n");
+		List<String> lines = List.of(body.split("\n"));
+		assertThat(lines).hasSize(6);
+		JsonNode first = objectMapper.readTree(lines.get(0));
+		assertThat(first.get("memberId").asLong()).isEqualTo(memberIds.get(0));
+		assertThat(first.get("username").asText()).isEqualTo("exportPlain");
+		assertThat(first.get("age").asInt()).isEqualTo(9000);
+		assertThat(first.get("teamId").asLong()).isEqualTo(teamId);
+		assertThat(first.get("teamName").asText()).isEqualTo("export, \"team\"");
+		assertThat(objectMapper.readTree(lines.get(3)).get("username").asText()).isEqualTo("export\r\nline"); // 줄바꿈은 JSON 안에서 이스케이프
+		assertThat(objectMapper.readTree(lines.get(5)).get("username").isNull()).isTrue();
+	}
+
+	@Test
+	public void csvQuotesOnlyWhenNeeded() throws Exception {
+		String body = export("CSV", "text/csv");
+
+		String team = "\"export, \"\"team\"\"\"";
+		assertThat(body).isEqualTo("memberId,username,age,teamId,teamName\n"
+			+ row(memberIds.get(0), "exportPlain", 9000, teamId, team)
+			+ row(memberIds.get(1), "\"export,comma\"", 9001, teamId, team)
+			+ row(memberIds.get(2), "\"export \"\"quote\"\"\"", 9002, teamId, team)
+			+ row(memberIds.get(3), "\"export\r\nline\"", 9003, teamId, team)
+			+ row(memberIds.get(4), "\"\"", 9004, null, "") // 빈 문자열은 "", 팀 없음은 빈 필드
+			+ row(memberIds.get(5), "", 9005, null, "")); // null 은 빈 필드
+	}
+
+	// 커서를 여는 select 가 읽기 전용 커넥션에서 querydsl.export.fetch-size 로 실행됨
+	@Test
+	public void streamsInReadOnlyTransactionWithFetchSize() throws Exception {
+		export("NDJSON", "application/x-ndjson");
+
+		assertThat(StatementRecorder.fetchSizes)
+			.filteredOn(fetchSize -> fetchSize.sql().contains("order by"))
+			.singleElement()
+			.satisfies(fetchSize -> {
+				assertThat(fetchSize.fetchSize()).isEqualTo(7);
+				assertThat(fetchSize.readOnly()).isTrue();
+			});
+	}
+
+	private String export(String format, String contentType) throws Exception {
+		MvcResult started = mockMvc.perform(get("/members/export")
+				.param("format", format).param("ageGoe", "9000").param("ageLoe", "9009"))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		return mockMvc.perform(asyncDispatch(started))
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith(contentType))
+			.andReturn().getResponse().getContentAsString();
+	}
+
+	private static String row(Long memberId, String username, int age, Long teamId, String teamName) {
+		return memberId + "," + username + "," + age + "," + (teamId != null ? teamId : "") + "," + teamName + "\n";
+	}
+
+	// statement 에 setFetchSize 가 호출될 때 SQL, fetch size, 커넥션의 readOnly 를 기록
+	@TestConfiguration
+	static class StatementRecorder {
+
+		record FetchSize(String sql, int fetchSize, boolean readOnly) {
+		}
+
+		static final List<FetchSize> fetchSizes = new CopyOnWriteArrayList<>();
+
+		@Bean
+		static BeanPostProcessor recordingDataSource() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if (!beanName.equals("dataSource") || !(bean instanceof DataSource dataSource)) {
+						return bean;
+					}
+					return proxy(DataSource.class, (proxy, method, args) -> {
+						Object result = invoke(dataSource, method, args);
+						return result instanceof Connection connection ? connection(connection) : result;
+					});
+				}
+			};
+		}
+
+		// H2 는 setReadOnly 를 무시하고 isReadOnly 도 false 라 setReadOnly 호출을 직접 기록
+		private static Connection connection(Connection connection) {
+			AtomicBoolean readOnly = new AtomicBoolean();
+			return proxy(Connection.class, (proxy, method, args) -> {
+				if (method.getName().equals("setReadOnly")) {
+					readOnly.set((boolean)args[0]);
+				}
+				Object result = invoke(connection, method, args);
+				if (!method.getName().equals("prepareStatement")) {
+					return result;
+				}
+				String sql = (String)args[0];
+				PreparedStatement statement = (PreparedStatement)result;
+				return proxy(PreparedStatement.class, (statementProxy, statementMethod, statementArgs) -> {
+					if (statementMethod.getName().equals("setFetchSize")) {
+						fetchSizes.add(new FetchSize(sql, (int)statementArgs[0], readOnly.get()));
+					}
+					return invoke(statement, statementMethod, statementArgs);
+				});
+			});
+		}
+
+		private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+			return type.cast(Proxy.newProxyInstance(MemberExportTest.class.getClassLoader(), new Class<?>[] {type}, handler));
+		}
+
+		private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.dto.IndexAdvice;
+import study.querydsl.dto.IndexAdvisorReport;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSearchCondition.UsernameMatch;
+import study.querydsl.repository.MemberSearchPredicates.UsernameFilter;
+
+@SpringBootTest
+@Transactional
+class IndexAdvisorTest {
+
+	@Autowired
+	IndexAdvisor indexAdvisor;
+
+	@Autowired
+	MemberRepository memberRepository;
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	ObjectProvider<MemberSearchPredicates> memberSearchPredicates;
+
+	@BeforeEach
+	public void before() {
+		indexAdvisor.reset();
+	}
+
+	@Test
+	public void recordsShapesFromSearch() {
+		MemberSearchCondition byUsername = new MemberSearchCondition();
+		byUsername.setUsername("member1");
+		memberRepository.search(byUsername);
+		memberRepository.search(byUsername);
+		memberRepository.search(new MemberSearchCondition());
+
+		IndexAdvisorReport report = indexAdvisor.advise();
+
+		assertThat(report.getShapes()).extracting(IndexAdvice::getConditions, IndexAdvice::getCount)
+			.containsExactly(tuple(List.of("username"), 2L), tuple(List.of(), 1L));
+	}
+
+	@Test
+	public void usernameUsesIndex() {
+		indexAdvisor.record(MemberSearchPredicates.USERNAME, UsernameMatch.EXACT, UsernameFilter.EQ,
+			IndexAdvisor.Order.NONE);
+
+		IndexAdvice advice = indexAdvisor.advise().getShapes().get(0);
+
+		assertThat(advice.getUsedIndexes()).contains("IDX_MEMBER_USERNAME");
+		assertThat(advice.getPlan()).contains("\"M1_0\".\"USERNAME\" = ?1"); // 검색 JPQL 로 Hibernate 가 만든 SQL
+		assertThat(advice.isMemberFullScan()).isFalse();
+		assertThat(advice.getSuggestion()).isNull();
+	}
+
+	@Test
+	public void ageOnlyScansAndSuggestsIndex() {
+		indexAdvisor.record(MemberSearchPredicates.AGE_GOE, UsernameMatch.EXACT, UsernameFilter.EQ,
+			IndexAdvisor.Order.AGE_ID);
+
+		IndexAdvisorReport report = indexAdvisor.advise();
+		IndexAdvice advice = report.getShapes().get(0);
+
+		assertThat(advice.isMemberFullScan()).isTrue();
+		assertThat(advice.getSuggestion()).isEqualTo("create index on member(age, member_id)");
+		// username 조건이 기록되지 않았으므로 username 인덱스는 안 쓰임
+		assertThat(report.getUnusedIndexes()).contains("IDX_MEMBER_USERNAME");
+	}
+
+	// 쓰기 트랜잭션 안이라 색인 없이 like '%x%' - username 인덱스 대신 n-gram 색인 제안
+	@Test
+	public void usernameContainsScansAndSuggestsNgramIndex() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setUsername("ber1");
+		condition.setUsernameMatch(UsernameMatch.CONTAINS);
+		memberRepository.search(condition);
+
+		IndexAdvice advice = indexAdvisor.advise().getShapes().get(0);
+
+		assertThat(advice.getConditions()).containsExactly("username contains");
+		assertThat(advice.getPlan()).contains("\"M1_0\".\"USERNAME\" LIKE ?1");
+		assertThat(advice.isMemberFullScan()).isTrue();
+		assertThat(advice.getSuggestion()).isEqualTo("querydsl.username-index.enabled=true");
+	}
+
+	// H2 가 아니면 실행 계획을 해석하지 않음 - plan 원문만, 인덱스 판단은 비워 둠
+	@Test
+	public void planOnlyWhenPlanIsNotParsed() {
+		IndexAdvisor planOnly = new IndexAdvisor(em, memberSearchPredicates, false);
+		planOnly.record(MemberSearchPredicates.AGE_GOE, UsernameMatch.EXACT, UsernameFilter.EQ,
+			IndexAdvisor.Order.NONE);
+
+		IndexAdvisorReport report = planOnly.advise();
+
+		assertThat(report.isPlanOnly()).isTrue();
+		assertThat(report.getUnusedIndexes()).isEmpty();
+		assertThat(report.getShapes()).singleElement().satisfies(advice -> {
+			assertThat(advice.getPlan()).contains("\"M1_0\".\"AGE\" >= ?1");
+			assertThat(advice.getUsedIndexes()).isEmpty();
+			assertThat(advice.isMemberFullScan()).isFalse();
+			assertThat(advice.getSuggestion()).isNull();
+		});
+		assertThat(indexAdvisor.advise().isPlanOnly()).isFalse(); // 테스트 DB 는 H2
+	}
+}
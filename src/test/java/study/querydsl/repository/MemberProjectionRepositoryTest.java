@@ -0,0 +1,134 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.*;
+import static study.querydsl.entity.QTeam.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.dto.UserDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.DtoRowMapper;
+
+@SpringBootTest
+@Transactional
+class MemberProjectionRepositoryTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	MemberProjectionRepository memberProjectionRepository;
+
+	@Autowired
+	MemberSearchPredicates memberSearchPredicates;
+
+	JPAQueryFactory queryFactory;
+
+	@BeforeEach
+	public void before() {
+		queryFactory = new JPAQueryFactory(em);
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamB));
+		em.persist(new Member("member4", 40, teamB));
+		em.persist(new Member("member5", 50)); // 팀 없음 -> teamId, teamName null
+		em.flush(); // JDBC 로 바로 조회하므로
+	}
+
+	@Test
+	public void memberDtoMatchesProjectionsBean() {
+		List<MemberDto> expected = queryFactory
+			.select(Projections.bean(MemberDto.class, member.username, member.age))
+			.from(member)
+			.fetch();
+
+		assertThat(memberProjectionRepository.findMemberDtos()).containsExactlyInAnyOrderElementsOf(expected);
+	}
+
+	@Test
+	public void userDtoMatchesProjectionsConstructor() {
+		List<UserDto> expected = queryFactory
+			.select(Projections.constructor(UserDto.class, member.username, member.age))
+			.from(member)
+			.fetch();
+
+		assertThat(memberProjectionRepository.findUserDtos()).containsExactlyInAnyOrderElementsOf(expected);
+	}
+
+	@Test
+	public void memberTeamDtoMatchesQueryProjection() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setAgeGoe(20);
+
+		List<MemberTeamDto> expected = queryFactory
+			.select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+			.from(member)
+			.leftJoin(member.team, team)
+			.where(member.age.goe(20))
+			.fetch();
+
+		List<MemberTeamDto> result = memberProjectionRepository.search(condition);
+		assertThat(result).containsExactlyInAnyOrderElementsOf(expected);
+		assertThat(result).filteredOn(dto -> dto.getUsername().equals("member5")).singleElement()
+			.satisfies(dto -> {
+				assertThat(dto.getTeamId()).isNull();
+				assertThat(dto.getTeamName()).isNull();
+			});
+	}
+
+	// MemberSearchPredicates.fetch 로 조회하므로 같은 결과
+	@Test
+	public void searchMatchesSharedPredicates() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamB");
+		condition.setAgeLoe(35);
+		assertThat(memberProjectionRepository.search(condition)).extracting("username").containsExactly("member3");
+
+		condition = new MemberSearchCondition();
+		condition.setUsername("member1");
+		assertThat(memberProjectionRepository.search(condition))
+			.containsExactlyInAnyOrderElementsOf(memberSearchPredicates.fetch("test", condition));
+
+		condition.setTeamName("noSuchTeam");
+		assertThat(memberProjectionRepository.search(condition)).isEmpty();
+	}
+
+	// 아직 flush 되지 않은 변경도 보임 - search 는 JPQL auto flush, JDBC 조회는 직접 flush
+	@Test
+	public void searchSeesUnflushedChangesInReadWriteTransaction() {
+		em.persist(new Member("member6", 60));
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setAgeGoe(60);
+		assertThat(memberProjectionRepository.search(condition)).extracting("username").containsExactly("member6");
+		assertThat(memberProjectionRepository.findMemberDtos()).extracting("username").contains("member6");
+	}
+
+	@Test
+	public void unsupportedConstructor() {
+		assertThatThrownBy(() -> DtoRowMapper.constructor(MemberDto.class, String.class, long.class))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("MemberDto");
+	}
+}
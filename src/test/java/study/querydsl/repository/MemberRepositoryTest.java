@@ -12,6 +12,8 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.EntityManager;
+import study.querydsl.dto.KeysetCursor;
+import study.querydsl.dto.KeysetSlice;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
@@ -99,6 +101,41 @@ class MemberRepositoryTest {
 		assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
 	}
 
+	@Test
+	public void searchSliceTest() {
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		Member member1 = new Member("member1", 40, teamA);
+		Member member2 = new Member("member2", 30, teamA);
+
+		Member member3 = new Member("member3", 20, teamB);
+		Member member4 = new Member("member4", 10, teamB);
+
+		em.persist(member1);
+		em.persist(member2);
+		em.persist(member3);
+		em.persist(member4);
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+
+		KeysetSlice<MemberTeamDto> first = memberRepository.searchSlice(condition,
+			KeysetCursor.first(KeysetCursor.SortKey.AGE), 3);
+
+		assertThat(first.getContent()).extracting("username").containsExactly("member4", "member3", "member2");
+		assertThat(first.isHasNext()).isTrue();
+
+		// 토큰을 다시 decode 해서 다음 페이지 조회
+		KeysetSlice<MemberTeamDto> second = memberRepository.searchSlice(condition,
+			KeysetCursor.decode(first.getNextCursor()), 3);
+
+		assertThat(second.getContent()).extracting("username").containsExactly("member1");
+		assertThat(second.isHasNext()).isFalse();
+		assertThat(second.getNextCursor()).isNull();
+	}
+
 	@Test
 	public void querydslPredicateExecutorTest() {
 
@@ -0,0 +1,135 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.SingleFlight;
+
+// 트랜잭션 밖에서 호출해야 합쳐지므로 @Transactional 롤백 대신 직접 커밋하고 지움
+@SpringBootTest(properties = "querydsl.single-flight.enabled=true")
+class MemberSearchCoalescingAspectTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	@Autowired
+	MemberRepository memberRepository;
+
+	@SpyBean
+	SingleFlight singleFlight;
+
+	@BeforeEach
+	public void before() {
+		transactionTemplate.executeWithoutResult(status -> {
+			Team team = new Team("coalesceTeam");
+			em.persist(team);
+			em.persist(new Member("coalesce1", 10, team));
+			em.persist(new Member("coalesce2", 20, team));
+		});
+	}
+
+	@AfterEach
+	public void after() {
+		transactionTemplate.executeWithoutResult(status -> {
+			em.createQuery("delete from Member m where m.username like 'coalesce%'").executeUpdate();
+			em.createQuery("delete from Team t where t.name = 'coalesceTeam'").executeUpdate();
+		});
+	}
+
+	// 빈 문자열 조건은 조건 없음과 같은 key, pageable 이 다르면 다른 key
+	@Test
+	public void keyFromNormalizedConditionAndPageable() throws Throwable {
+		MemberSearchCondition blank = condition("");
+		MemberSearchCondition none = condition(null);
+
+		memberRepository.searchPageSimple(blank, PageRequest.of(0, 10));
+		memberRepository.searchPageSimple(none, PageRequest.of(0, 10));
+		memberRepository.searchPageSimple(none, PageRequest.of(1, 10));
+		memberRepository.searchPageComplex(none, PageRequest.of(0, 10));
+
+		ArgumentCaptor<Object> keys = ArgumentCaptor.forClass(Object.class);
+		verify(singleFlight, times(3)).execute(eq("member.searchPageSimple"), keys.capture(), any());
+		verify(singleFlight).execute(eq("member.searchPageComplex"), keys.capture(), any());
+		List<Object> captured = keys.getAllValues();
+		assertThat(captured.get(0)).isEqualTo(captured.get(1));
+		assertThat(captured.get(2)).isNotEqualTo(captured.get(1));
+		assertThat(captured.get(3)).isNotEqualTo(captured.get(1)); // 메서드가 다르면 다른 key
+	}
+
+	// 아직 커밋 안 된 변경이 보여야 하므로 합치지 않음
+	@Test
+	public void readWriteTransactionIsNotCoalesced() throws Throwable {
+		List<MemberTeamDto> result = transactionTemplate.execute(status -> {
+			Team team = em.createQuery("select t from Team t where t.name = 'coalesceTeam'", Team.class).getSingleResult();
+			em.persist(new Member("coalesce3", 30, team));
+			return memberRepository.search(condition(null));
+		});
+
+		assertThat(result).extracting(MemberTeamDto::getUsername).contains("coalesce3");
+		verify(singleFlight, never()).execute(any(), any(), any());
+	}
+
+	@Test
+	public void readOnlyTransactionIsCoalesced() throws Throwable {
+		TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+		readOnly.setReadOnly(true);
+
+		readOnly.executeWithoutResult(status -> memberRepository.search(condition(null)));
+
+		verify(singleFlight).execute(eq("member.search"), any(), any());
+	}
+
+	// 공유된 결과를 그대로 주지 않고 DTO 까지 복사, 목록은 수정 불가
+	@Test
+	@SuppressWarnings("unchecked")
+	public void callersGetCopies() throws Throwable {
+		AtomicReference<Object> shared = new AtomicReference<>();
+		doAnswer(invocation -> {
+			Object result = invocation.callRealMethod();
+			shared.set(result);
+			return result;
+		}).when(singleFlight).execute(any(), any(), any());
+
+		Page<MemberTeamDto> page = memberRepository.searchPageSimple(condition(null), PageRequest.of(0, 10));
+
+		Page<MemberTeamDto> sharedPage = (Page<MemberTeamDto>)shared.get();
+		assertThat(page).isNotSameAs(sharedPage);
+		assertThat(page.getTotalElements()).isEqualTo(sharedPage.getTotalElements());
+		assertThat(page.getContent()).hasSize(2).isEqualTo(sharedPage.getContent());
+		assertThat(page.getContent().get(0)).isNotSameAs(sharedPage.getContent().get(0));
+		assertThatThrownBy(() -> page.getContent().clear()).isInstanceOf(UnsupportedOperationException.class);
+
+		page.getContent().get(0).setUsername("changed");
+		assertThat(sharedPage.getContent().get(0).getUsername()).startsWith("coalesce");
+	}
+
+	private static MemberSearchCondition condition(String username) {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setUsername(username);
+		condition.setTeamName("coalesceTeam");
+		return condition;
+	}
+}
@@ -0,0 +1,231 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.*;
+import static study.querydsl.entity.QTeam.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.readmodel.UsernameNgramIndex;
+import study.querydsl.repository.support.QueryStatementInspector;
+
+@SpringBootTest(properties = {"querydsl.username-index.enabled=true", "querydsl.username-index.max-candidates=3"})
+@Transactional
+class MemberSearchPredicatesTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	MemberSearchPredicates memberSearchPredicates;
+
+	@Autowired
+	UsernameNgramIndex usernameNgramIndex;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	JPAQueryFactory queryFactory;
+
+	@BeforeEach
+	public void before() {
+		queryFactory = new JPAQueryFactory(em);
+		if (!TestTransaction.isActive()) {
+			return; // 커밋하는 테스트는 직접 넣고 지움
+		}
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamB));
+		em.persist(new Member("member4", 40, teamB));
+		em.persist(new Member("member5", 50));
+	}
+
+	// 16가지 조건 조합 모두 공용 조건을 거치지 않고 직접 쓴 Querydsl 조건의 결과와 같아야 함
+	@Test
+	public void sharedPredicatesMatchQuerydsl() {
+		for (int shape = 0; shape < MemberSearchPredicates.SHAPE_COUNT; shape++) {
+			MemberSearchCondition condition = new MemberSearchCondition();
+			if ((shape & MemberSearchPredicates.USERNAME) != 0) {
+				condition.setUsername("member3");
+			}
+			if ((shape & MemberSearchPredicates.TEAM_NAME) != 0) {
+				condition.setTeamName("teamB");
+			}
+			if ((shape & MemberSearchPredicates.AGE_GOE) != 0) {
+				condition.setAgeGoe(20);
+			}
+			if ((shape & MemberSearchPredicates.AGE_LOE) != 0) {
+				condition.setAgeLoe(40);
+			}
+			assertThat(MemberSearchPredicates.shape(condition)).isEqualTo(shape);
+
+			List<MemberTeamDto> expected = queryFactory
+				.select(new QMemberTeamDto(
+					member.id.as("memberId"),
+					member.username,
+					member.age,
+					team.id.as("teamId"),
+					team.name.as("teamName")))
+				.from(member)
+				.leftJoin(member.team, team)
+				.where(
+					(shape & MemberSearchPredicates.USERNAME) != 0 ? member.username.eq("member3") : null,
+					(shape & MemberSearchPredicates.TEAM_NAME) != 0 ? team.name.eq("teamB") : null,
+					(shape & MemberSearchPredicates.AGE_GOE) != 0 ? member.age.goe(20) : null,
+					(shape & MemberSearchPredicates.AGE_LOE) != 0 ? member.age.loe(40) : null)
+				.fetch();
+
+			List<MemberTeamDto> result = memberSearchPredicates.fetch("test", condition);
+			assertThat(result).extracting("username")
+				.containsExactlyInAnyOrderElementsOf(expected.stream().map(MemberTeamDto::getUsername).toList());
+			assertThat(memberSearchPredicates.fetchCount("test.count", condition)).isEqualTo(expected.size());
+			assertThat(queryFactory.select(member.username).from(member).leftJoin(member.team, team)
+				.where(memberSearchPredicates.where(condition)).fetch())
+				.containsExactlyInAnyOrderElementsOf(expected.stream().map(MemberTeamDto::getUsername).toList());
+		}
+	}
+
+	// 쓰기 트랜잭션 안이라 n-gram 색인 대신 like - 전체 username 을 직접 비교한 결과와 같아야 함
+	@Test
+	public void usernamePrefixAndContains() {
+		em.persist(new Member("member_10", 60));
+
+		assertThat(usernames("mem", MemberSearchCondition.UsernameMatch.PREFIX)).hasSize(6);
+		assertThat(usernames("ber3", MemberSearchCondition.UsernameMatch.CONTAINS)).containsExactly("member3");
+		assertThat(usernames("ber3", MemberSearchCondition.UsernameMatch.PREFIX)).isEmpty();
+		assertThat(usernames("member", MemberSearchCondition.UsernameMatch.EXACT)).isEmpty();
+		// like 특수 문자는 문자 그대로
+		assertThat(usernames("r_", MemberSearchCondition.UsernameMatch.CONTAINS)).containsExactly("member_10");
+		assertThat(usernames("%", MemberSearchCondition.UsernameMatch.CONTAINS)).isEmpty();
+	}
+
+	private List<String> usernames(String username, MemberSearchCondition.UsernameMatch match) {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setUsername(username);
+		condition.setUsernameMatch(match);
+
+		List<String> result = memberSearchPredicates.fetch("test", condition).stream()
+			.map(MemberTeamDto::getUsername).toList();
+		// like 를 거치지 않고 전체 username 을 직접 비교
+		List<String> expected = queryFactory.select(member.username).from(member).fetch().stream()
+			.filter(name -> switch (match) {
+				case EXACT -> name.equals(username);
+				case PREFIX -> name.startsWith(username);
+				case CONTAINS -> name.contains(username);
+			})
+			.toList();
+		assertThat(result).containsExactlyInAnyOrderElementsOf(expected);
+		assertThat(memberSearchPredicates.fetchCount("test.count", condition)).isEqualTo(result.size());
+		return result;
+	}
+
+	@Test
+	public void blankConditionIsIgnored() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setUsername(" ");
+		condition.setTeamName("");
+
+		assertThat(memberSearchPredicates.fetch("test", condition)).hasSize(5);
+		assertThat(memberSearchPredicates.fetchCount("test.count", condition)).isEqualTo(5);
+	}
+
+	// 커밋된 회원, 준비된 색인, 읽기 전용 트랜잭션 - 색인 후보 id 로 좁힌 member_id in (...) 쿼리
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void usernameSearchUsesIndexInReadOnlyTransaction() throws InterruptedException {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.executeWithoutResult(status -> {
+			em.persist(new Member("ngramIdx1", 10));
+			em.persist(new Member("ngramIdx2", 20));
+			em.persist(new Member("ngramIdx3", 30));
+			em.persist(new Member("ngramOther", 40));
+		});
+		try {
+			awaitReady(usernameNgramIndex);
+			transactionTemplate.setReadOnly(true);
+			transactionTemplate.executeWithoutResult(status -> {
+				// 후보 3개 - member_id in (...) + like 확인
+				MemberSearchCondition prefix = condition("ngramIdx", MemberSearchCondition.UsernameMatch.PREFIX);
+				assertThat(narrowedByIds(prefix)).isTrue();
+				assertThat(memberSearchPredicates.fetch("test", prefix)).extracting("username")
+					.containsExactlyInAnyOrder("ngramIdx1", "ngramIdx2", "ngramIdx3");
+				prefix.setAgeGoe(20);
+				assertThat(memberSearchPredicates.fetch("test", prefix)).extracting("username")
+					.containsExactlyInAnyOrder("ngramIdx2", "ngramIdx3");
+				assertThat(memberSearchPredicates.fetchCount("test.count", prefix)).isEqualTo(2);
+
+				// 후보 4개 > max-candidates - like 만, too_broad 로 셈
+				MemberSearchCondition tooBroad = condition("ngram", MemberSearchCondition.UsernameMatch.PREFIX);
+				double tooBroadBefore = tooBroadCount();
+				assertThat(narrowedByIds(tooBroad)).isFalse();
+				assertThat(tooBroadCount()).isEqualTo(tooBroadBefore + 1);
+				assertThat(memberSearchPredicates.fetch("test", tooBroad)).extracting("username")
+					.containsExactlyInAnyOrder("ngramIdx1", "ngramIdx2", "ngramIdx3", "ngramOther");
+
+				// 후보 없음 - DB 조회 없이 빈 결과
+				MemberSearchCondition none = condition("mIdx9", MemberSearchCondition.UsernameMatch.CONTAINS);
+				long before = QueryStatementInspector.currentCount();
+				assertThat(memberSearchPredicates.fetch("test", none)).isEmpty();
+				assertThat(memberSearchPredicates.fetchCount("test.count", none)).isZero();
+				assertThat(QueryStatementInspector.currentCount()).isEqualTo(before);
+			});
+		} finally {
+			transactionTemplate.setReadOnly(false);
+			transactionTemplate.executeWithoutResult(status ->
+				em.createQuery("delete from Member m where m.username like 'ngram%'").executeUpdate());
+			usernameNgramIndex.invalidate(); // 벌크 delete 는 리스너를 거치지 않음
+		}
+	}
+
+	private double tooBroadCount() {
+		return meterRegistry.counter("querydsl.username-index.find", "result", "too_broad").count();
+	}
+
+	// where 조건에 색인 후보 id 의 member.id in (...) 이 있는지
+	private boolean narrowedByIds(MemberSearchCondition condition) {
+		return List.of(memberSearchPredicates.where(condition)).toString().contains(member.id + " in ");
+	}
+
+	private static MemberSearchCondition condition(String username, MemberSearchCondition.UsernameMatch match) {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setUsername(username);
+		condition.setUsernameMatch(match);
+		return condition;
+	}
+
+	private static void awaitReady(UsernameNgramIndex index) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!index.isReady() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(index.isReady()).isTrue();
+	}
+}
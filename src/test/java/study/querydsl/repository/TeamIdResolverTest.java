@@ -0,0 +1,109 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.QueryStatementInspector;
+import study.querydsl.repository.support.StatementBudget;
+
+// query cache 는 커밋된 데이터만 캐시하므로 @Transactional 롤백 대신 직접 커밋하고 지움
+@SpringBootTest(properties = "querydsl.team-cache.enabled=true")
+class TeamIdResolverTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	@Autowired
+	TeamIdResolver teamIdResolver;
+
+	@Autowired
+	MemberSearchPredicates memberSearchPredicates;
+
+	Long teamId;
+
+	@BeforeEach
+	public void before() {
+		teamId = transactionTemplate.execute(status -> {
+			Team team = new Team("cacheTeam");
+			em.persist(team);
+			em.persist(new Member("cacheMember1", 10, team));
+			em.persist(new Member("cacheMember2", 20, team));
+			return team.getId();
+		});
+	}
+
+	@AfterEach
+	public void after() {
+		transactionTemplate.executeWithoutResult(status -> {
+			em.createQuery("delete from Member m where m.team.id = :teamId").setParameter("teamId", teamId).executeUpdate();
+			em.createQuery("delete from Team t where t.id = :teamId").setParameter("teamId", teamId).executeUpdate();
+		});
+	}
+
+	@Test
+	public void cachedTeamIdLookup() {
+		assertThat(teamIdResolver.findIdsByName("cacheTeam")).containsExactly(teamId);
+
+		long before = QueryStatementInspector.currentCount();
+		List<Long> cached = teamIdResolver.findIdsByName("cacheTeam");
+		assertThat(cached).containsExactly(teamId);
+		assertThat(QueryStatementInspector.currentCount() - before).isEqualTo(0);
+	}
+
+	@Test
+	public void invalidatedOnTeamUpdate() {
+		assertThat(teamIdResolver.findIdsByName("cacheTeam")).containsExactly(teamId);
+
+		transactionTemplate.executeWithoutResult(status -> em.find(Team.class, teamId).setName("renamedTeam"));
+
+		assertThat(teamIdResolver.findIdsByName("cacheTeam")).isEmpty();
+		assertThat(teamIdResolver.findIdsByName("renamedTeam")).containsExactly(teamId);
+	}
+
+	@Test
+	public void searchByTeamNameWithoutJoin() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("cacheTeam");
+
+		assertThat(memberSearchPredicates.fetch("test", condition))
+			.extracting("username")
+			.containsExactlyInAnyOrder("cacheMember1", "cacheMember2");
+		assertThat(memberSearchPredicates.fetchCount("test.count", condition)).isEqualTo(2);
+
+		condition.setTeamName("noSuchTeam");
+		long before = QueryStatementInspector.currentCount();
+		assertThat(memberSearchPredicates.fetch("test", condition)).isEmpty();
+		assertThat(memberSearchPredicates.fetchCount("test.count", condition)).isEqualTo(0);
+		// 없는 팀 이름 조회 한 번(이후 캐시)만 나가고 member 쿼리는 실행하지 않음
+		assertThat(QueryStatementInspector.currentCount() - before).isEqualTo(1);
+	}
+
+	@Test
+	public void teamIdLookupOnlyInWhere() {
+		long before = QueryStatementInspector.currentCount();
+		assertThat(memberSearchPredicates.teamNameEq("lookupTeam")).isNotNull();
+		assertThat(QueryStatementInspector.currentCount() - before).isEqualTo(0); // 조건만 만듦
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("lookupTeam");
+		try (StatementBudget.Scope scope = StatementBudget.open("test", StatementBudget.UNLIMITED)) {
+			memberSearchPredicates.where(condition);
+			assertThat(scope.getCount()).isEqualTo(1); // team id 조회도 예산에 포함
+		}
+	}
+}
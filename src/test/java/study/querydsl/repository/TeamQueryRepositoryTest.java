@@ -0,0 +1,100 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.dto.KeysetSlice;
+import study.querydsl.dto.TeamMemberDto;
+import study.querydsl.dto.TeamWithMembersDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.ExpectedStatements;
+
+@SpringBootTest
+@Transactional
+class TeamQueryRepositoryTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	TeamQueryRepository teamQueryRepository;
+
+	Team teamA;
+	Team teamB;
+	Team teamC;
+
+	@BeforeEach
+	public void before() {
+		teamA = new Team("teamA");
+		teamB = new Team("teamB");
+		teamC = new Team("teamC");
+		em.persist(teamA);
+		em.persist(teamB);
+		em.persist(teamC);
+		for (int i = 0; i < 5; i++) {
+			em.persist(new Member("memberA" + i, i, teamA));
+		}
+		em.persist(new Member("memberB0", 10, teamB));
+		em.flush();
+		em.clear();
+	}
+
+	@Test
+	@ExpectedStatements(3) // 팀 페이지 + 회원 수 + 회원 (팀 크기와 무관)
+	public void teamsWithLimitedMembers() {
+		KeysetSlice<TeamWithMembersDto> first = teamQueryRepository.findTeamsWithMembers(beforeTeamA(), 2, 2);
+
+		assertThat(first.isHasNext()).isTrue();
+		assertThat(first.getContent()).extracting(TeamWithMembersDto::getTeamName).containsExactly("teamA", "teamB");
+
+		TeamWithMembersDto a = first.getContent().get(0);
+		assertThat(a.getMemberCount()).isEqualTo(5);
+		assertThat(a.getMembers()).extracting(TeamMemberDto::getUsername).containsExactly("memberA0", "memberA1");
+		assertThat(a.getMembersCursor()).isEqualTo(String.valueOf(a.getMembers().get(1).getMemberId()));
+
+		TeamWithMembersDto b = first.getContent().get(1);
+		assertThat(b.getMemberCount()).isEqualTo(1);
+		assertThat(b.getMembers()).extracting(TeamMemberDto::getUsername).containsExactly("memberB0");
+		assertThat(b.getMembersCursor()).isNull();
+	}
+
+	@Test
+	public void nextTeamPage() {
+		KeysetSlice<TeamWithMembersDto> first = teamQueryRepository.findTeamsWithMembers(beforeTeamA(), 2, 2);
+		KeysetSlice<TeamWithMembersDto> second = teamQueryRepository.findTeamsWithMembers(
+			Long.valueOf(first.getNextCursor()), 2, 2);
+
+		assertThat(second.isHasNext()).isFalse();
+		assertThat(second.getContent()).singleElement().satisfies(c -> {
+			assertThat(c.getTeamName()).isEqualTo("teamC");
+			assertThat(c.getMemberCount()).isZero();
+			assertThat(c.getMembers()).isEmpty();
+		});
+	}
+
+	@Test
+	public void remainingMembersByCursor() {
+		TeamWithMembersDto a = teamQueryRepository.findTeamsWithMembers(beforeTeamA(), 1, 2).getContent().get(0);
+
+		KeysetSlice<TeamMemberDto> rest = teamQueryRepository.findMembers(a.getTeamId(),
+			Long.valueOf(a.getMembersCursor()), 2);
+		KeysetSlice<TeamMemberDto> last = teamQueryRepository.findMembers(a.getTeamId(),
+			Long.valueOf(rest.getNextCursor()), 2);
+
+		assertThat(rest.getContent()).extracting(TeamMemberDto::getUsername).containsExactly("memberA2", "memberA3");
+		assertThat(last.getContent()).extracting(TeamMemberDto::getUsername).containsExactly("memberA4");
+		assertThat(last.isHasNext()).isFalse();
+	}
+
+	// 다른 테스트가 남긴 팀이 있어도 이 테스트의 팀부터 보도록
+	private Long beforeTeamA() {
+		return teamA.getId() - 1;
+	}
+}
@@ -0,0 +1,122 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.readmodel.UsernameBloomFilter;
+import study.querydsl.repository.support.QueryStatementInspector;
+
+// filter 는 커밋된 회원으로 채워지므로 @Transactional 롤백 대신 직접 커밋하고 지움
+@SpringBootTest(properties = "querydsl.username-filter.enabled=true")
+class UsernameLookupAspectTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	@Autowired
+	MemberRepository memberRepository;
+
+	@Autowired
+	UsernameBloomFilter usernameBloomFilter;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	Long memberId;
+
+	@BeforeEach
+	public void before() throws InterruptedException {
+		awaitReady(usernameBloomFilter);
+		transactionTemplate.executeWithoutResult(status -> {
+			Member member = new Member("lookupMember", 10);
+			em.persist(member);
+			memberId = member.getId();
+		});
+	}
+
+	// 삭제된 username 의 비트는 false positive 로 남을 뿐이라 filter 는 다시 채우지 않음
+	@AfterEach
+	public void after() {
+		transactionTemplate.executeWithoutResult(status ->
+			em.createQuery("delete from Member m where m.username like 'lookup%'").executeUpdate());
+	}
+
+	@Test
+	public void absentUsernameSkipsDatabase() {
+		double absent = count("absent");
+		long statements = QueryStatementInspector.currentCount();
+
+		assertThat(memberRepository.findByUsername("lookupNobody")).isEmpty();
+
+		assertThat(QueryStatementInspector.currentCount()).isEqualTo(statements);
+		assertThat(count("absent")).isEqualTo(absent + 1);
+	}
+
+	@Test
+	public void presentUsernameQueriesDatabase() {
+		double present = count("present");
+		long statements = QueryStatementInspector.currentCount();
+
+		assertThat(memberRepository.findByUsername("lookupMember")).extracting("id").containsExactly(memberId);
+
+		assertThat(QueryStatementInspector.currentCount()).isGreaterThan(statements);
+		assertThat(count("present")).isEqualTo(present + 1);
+	}
+
+	// persist 때 바로 filter 에 들어가고 롤백돼도 빠지지 않음 - DB 에서 없음을 확인
+	@Test
+	public void rolledBackUsernameIsFalsePositive() {
+		transactionTemplate.executeWithoutResult(status -> {
+			em.persist(new Member("lookupRolledBack", 20));
+			status.setRollbackOnly();
+		});
+		double falsePositive = count("false_positive");
+
+		assertThat(memberRepository.findByUsername("lookupRolledBack")).isEmpty();
+
+		assertThat(count("false_positive")).isEqualTo(falsePositive + 1);
+	}
+
+	// 읽기/쓰기 트랜잭션 안에서는 filter 를 보지 않음 - flush 전 변경도 auto flush 후 보여야 함
+	@Test
+	public void readWriteTransactionBypassesFilter() {
+		double bypass = count("bypass");
+
+		List<Member> renamed = transactionTemplate.execute(status -> {
+			em.find(Member.class, memberId).setUsername("lookupRenamed"); // @PreUpdate 는 flush 때
+			List<Member> result = memberRepository.findByUsername("lookupRenamed");
+			status.setRollbackOnly();
+			return result;
+		});
+
+		assertThat(renamed).extracting("id").containsExactly(memberId);
+		assertThat(count("bypass")).isEqualTo(bypass + 1);
+	}
+
+	private double count(String result) {
+		return meterRegistry.counter("querydsl.username-filter.lookup", "result", result).count();
+	}
+
+	private static void awaitReady(UsernameBloomFilter filter) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!filter.isReady() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(filter.isReady()).isTrue();
+	}
+}
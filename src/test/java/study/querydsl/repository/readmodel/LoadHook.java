@@ -0,0 +1,31 @@
+package study.querydsl.repository.readmodel;
+
+import java.lang.reflect.Proxy;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+// 적재용 EntityManager 를 닫을 때(= DB 를 다 읽은 뒤, 결과를 교체하기 전) hook 실행 - 적재 도중 커밋 재현용
+final class LoadHook {
+
+	private LoadHook() {
+	}
+
+	static EntityManagerFactory onClose(EntityManagerFactory emf, Runnable hook) {
+		return (EntityManagerFactory)Proxy.newProxyInstance(LoadHook.class.getClassLoader(),
+			new Class<?>[] {EntityManagerFactory.class}, (factoryProxy, factoryMethod, factoryArgs) -> {
+				Object result = factoryMethod.invoke(emf, factoryArgs);
+				if (!factoryMethod.getName().equals("createEntityManager")) {
+					return result;
+				}
+				EntityManager em = (EntityManager)result;
+				return Proxy.newProxyInstance(LoadHook.class.getClassLoader(), new Class<?>[] {EntityManager.class},
+					(emProxy, method, args) -> {
+						if (method.getName().equals("close")) {
+							hook.run();
+						}
+						return method.invoke(em, args);
+					});
+			});
+	}
+}
@@ -0,0 +1,79 @@
+package study.querydsl.repository.readmodel;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import study.querydsl.dto.MemberTeamDto;
+
+class MemberColumnsTest {
+
+	MemberColumns columns;
+
+	@BeforeEach
+	public void before() {
+		columns = new MemberColumns(4); // 배열 확장도 같이 확인
+		columns.upsertTeam(1L, "teamA");
+		columns.upsertTeam(2L, "teamB");
+		for (int i = 0; i < 10; i++) {
+			columns.upsertMember(100L + i, "member" + i, i * 10, i % 2 == 0 ? 1L : 2L);
+		}
+		columns.upsertMember(200L, "member1", 15, null);
+	}
+
+	@Test
+	public void selectAll() {
+		assertThat(select(null, null, null, null)).hasSize(11);
+		assertThat(columns.liveCount()).isEqualTo(11);
+	}
+
+	@Test
+	public void selectByConditions() {
+		assertThat(select(null, "teamB", 35, 80))
+			.extracting("memberId")
+			.containsExactly(105L, 107L);
+		assertThat(select("member1", null, null, null))
+			.extracting("memberId", "teamName")
+			.containsExactly(tuple(101L, "teamB"), tuple(200L, null));
+		assertThat(select("nobody", null, null, null)).isEmpty();
+		assertThat(select(null, "teamC", null, null)).isEmpty();
+	}
+
+	@Test
+	public void parallelScanKeepsOrder() {
+		int[] sequential = columns.select(null, null, 20, 70, Integer.MAX_VALUE);
+		int[] parallel = columns.select(null, null, 20, 70, 0);
+		assertThat(parallel).containsExactly(sequential);
+	}
+
+	@Test
+	public void changeTeamAndRemove() {
+		columns.upsertMember(100L, "member0", 0, 2L); // teamA -> teamB
+		columns.removeMember(107L);
+		columns.removeMember(107L); // 두 번 지워도 한 번만 반영
+
+		assertThat(select(null, "teamA", null, null)).extracting("memberId")
+			.containsExactly(102L, 104L, 106L, 108L);
+		assertThat(select(null, "teamB", null, null)).extracting("memberId")
+			.containsExactly(100L, 101L, 103L, 105L, 109L);
+		assertThat(columns.liveCount()).isEqualTo(10);
+
+		columns.upsertMember(107L, "member7", 70, 1L); // 삭제된 행 재사용
+		assertThat(columns.liveCount()).isEqualTo(11);
+	}
+
+	@Test
+	public void renameTeam() {
+		columns.upsertTeam(1L, "teamZ");
+
+		assertThat(select(null, "teamA", null, null)).isEmpty();
+		assertThat(select(null, "teamZ", null, null)).hasSize(5);
+	}
+
+	private List<MemberTeamDto> select(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+		return columns.toDto(columns.select(username, teamName, ageGoe, ageLoe, Integer.MAX_VALUE));
+	}
+}
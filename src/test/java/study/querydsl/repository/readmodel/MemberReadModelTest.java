@@ -0,0 +1,125 @@
+package study.querydsl.repository.readmodel;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+// 커밋 후 반영을 보므로 @Transactional 롤백 대신 직접 커밋하고 지움
+@SpringBootTest(properties = "querydsl.read-model.enabled=true")
+class MemberReadModelTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	EntityManagerFactory emf;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	@Autowired
+	MemberReadModel memberReadModel;
+
+	Long teamId;
+	Long memberId;
+
+	@BeforeEach
+	public void before() throws InterruptedException {
+		awaitReady(memberReadModel);
+		transactionTemplate.executeWithoutResult(status -> {
+			Team team = new Team("readModelTeam");
+			Member member = new Member("readModelMember1", 10, team);
+			em.persist(team);
+			em.persist(member);
+			teamId = team.getId();
+			memberId = member.getId();
+		});
+	}
+
+	@AfterEach
+	public void after() {
+		transactionTemplate.executeWithoutResult(status -> {
+			em.createQuery("delete from Member m where m.username like 'readModel%'").executeUpdate();
+			em.createQuery("delete from Team t where t.name like 'readModel%'").executeUpdate();
+		});
+		memberReadModel.invalidate(); // 벌크 delete 는 리스너를 거치지 않음
+	}
+
+	@Test
+	public void changesAppliedAfterCommit() {
+		int size = memberReadModel.size();
+		transactionTemplate.executeWithoutResult(status -> {
+			em.persist(new Member("readModelMember2", 20, em.find(Team.class, teamId)));
+			em.flush();
+			assertThat(memberReadModel.size()).isEqualTo(size); // 커밋 전에는 반영 안 됨
+		});
+
+		assertThat(memberReadModel.size()).isEqualTo(size + 1);
+		assertThat(search(memberReadModel, "readModelMember2"))
+			.extracting("teamName").containsExactly("readModelTeam");
+	}
+
+	@Test
+	public void rolledBackChangesAreNotApplied() {
+		int size = memberReadModel.size();
+		transactionTemplate.executeWithoutResult(status -> {
+			em.persist(new Member("readModelRolledBack", 20));
+			em.flush();
+			status.setRollbackOnly();
+		});
+
+		assertThat(memberReadModel.size()).isEqualTo(size);
+		assertThat(search(memberReadModel, "readModelRolledBack")).isEmpty();
+	}
+
+	// 적재가 DB 를 다 읽은 뒤, 교체하기 전에 커밋된 변경 - 적재 결과에 다시 반영돼야 함
+	@Test
+	public void commitDuringReloadIsReplayed() {
+		MemberReadModel[] model = new MemberReadModel[1];
+		Runnable commitDuringLoad = () -> transactionTemplate.executeWithoutResult(status -> {
+			model[0].apply(columns -> columns.upsertMember(memberId, "readModelMember1", 11, teamId));
+			model[0].apply(columns -> columns.upsertMember(Long.MAX_VALUE, "readModelLate", 30, null));
+		});
+		model[0] = new MemberReadModel(LoadHook.onClose(emf, commitDuringLoad), new SimpleMeterRegistry(), true,
+			262144, 1000);
+		try {
+			model[0].reload();
+
+			assertThat(model[0].isReady()).isTrue();
+			assertThat(search(model[0], "readModelMember1")).extracting("age").containsExactly(11); // 적재 시점 값은 10
+			assertThat(search(model[0], "readModelLate")).hasSize(1);
+		} finally {
+			model[0].shutdown();
+		}
+	}
+
+	private static List<MemberTeamDto> search(MemberReadModel model, String username) {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setUsername(username);
+		return model.search(condition).orElseThrow();
+	}
+
+	private static void awaitReady(MemberReadModel model) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!model.isReady() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(model.isReady()).isTrue();
+	}
+}
@@ -0,0 +1,64 @@
+package study.querydsl.repository.readmodel;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NgramPostingsTest {
+
+	NgramPostings postings;
+
+	@BeforeEach
+	public void before() {
+		postings = new NgramPostings(2); // 배열 확장도 같이 확인
+		postings.upsert(1L, "alice");
+		postings.upsert(2L, "malice");
+		postings.upsert(3L, "bob");
+		postings.upsert(4L, "alicia");
+		postings.upsert(5L, "lica"); // "lic" gram 은 있지만 "alic" 은 없음
+	}
+
+	@Test
+	public void contains() {
+		assertThat(postings.find("lic", false, 100)).containsExactly(1L, 2L, 4L, 5L);
+		assertThat(postings.find("alic", false, 100)).containsExactly(1L, 2L, 4L);
+		assertThat(postings.find("lice", false, 100)).containsExactly(1L, 2L);
+		assertThat(postings.find("xyz", false, 100)).isEmpty();
+	}
+
+	@Test
+	public void prefix() {
+		assertThat(postings.find("al", true, 100)).containsExactly(1L, 4L);
+		assertThat(postings.find("alici", true, 100)).containsExactly(4L);
+		assertThat(postings.find("li", true, 100)).containsExactly(5L); // malice, alice 는 중간에만 있음
+	}
+
+	// gram 교집합만 보면 "ababa" 의 gram(aba, bab) 을 모두 가진 "abab" 도 후보 - 실제 포함 여부로 걸러야 함
+	@Test
+	public void gramsAreVerified() {
+		postings.upsert(6L, "babab");
+		assertThat(postings.find("ababa", false, 100)).isEmpty();
+	}
+
+	@Test
+	public void tooShortToNarrow() {
+		assertThat(postings.find("li", false, 100)).isNull();
+		assertThat(postings.find("a", true, 100)).isNull();
+	}
+
+	@Test
+	public void stopsAfterLimit() {
+		assertThat(postings.find("lic", false, 2)).hasSize(3); // limit + 1 - 호출한 쪽에서 너무 넓다고 판단
+	}
+
+	@Test
+	public void updateAndRemove() {
+		postings.upsert(3L, "bobalice"); // 이름 변경 -> 이전 gram 에서 빠지고 새 gram 에 들어감
+		postings.remove(1L);
+
+		assertThat(postings.find("bob", true, 100)).containsExactly(3L);
+		assertThat(postings.find("alice", false, 100)).containsExactly(2L, 3L);
+		assertThat(postings.find("ali", true, 100)).containsExactly(4L);
+	}
+}
@@ -0,0 +1,164 @@
+package study.querydsl.repository.readmodel;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+// post-commit 이벤트로 갱신되므로 @Transactional 롤백 대신 직접 커밋하고 지움
+@SpringBootTest(properties = "querydsl.team-stats.enabled=true")
+class TeamStatisticsTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	EntityManagerFactory emf;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	@Autowired
+	TeamStatistics teamStatistics;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	Long teamAId;
+	Long teamBId;
+	Long movingMemberId;
+
+	@BeforeEach
+	public void before() {
+		teamStatistics.reconcile();
+		transactionTemplate.executeWithoutResult(status -> {
+			Team teamA = new Team("statsTeamA");
+			Team teamB = new Team("statsTeamB");
+			em.persist(teamA);
+			em.persist(teamB);
+			Member moving = new Member("statsMember2", 20, teamA);
+			em.persist(new Member("statsMember1", 10, teamA));
+			em.persist(moving);
+			em.persist(new Member("statsMember3", 30, teamB));
+			teamAId = teamA.getId();
+			teamBId = teamB.getId();
+			movingMemberId = moving.getId();
+		});
+	}
+
+	@AfterEach
+	public void after() {
+		transactionTemplate.executeWithoutResult(status -> {
+			em.createQuery("delete from Member m where m.username like 'statsMember%'").executeUpdate();
+			em.createQuery("delete from Team t where t.name like 'statsTeam%'").executeUpdate();
+		});
+		teamStatistics.reconcile();
+	}
+
+	@Test
+	public void insertedMembersAreAggregated() {
+		assertStats(teamAId, 2, 30, 10, 20);
+		assertStats(teamBId, 1, 30, 30, 30);
+		assertThat(stats(teamAId).getAvg()).isEqualTo(15.0);
+	}
+
+	@Test
+	public void ageAndTeamChange() {
+		transactionTemplate.executeWithoutResult(status -> {
+			Member member = em.find(Member.class, movingMemberId);
+			member.setAge(50);
+			member.changeTeam(em.find(Team.class, teamBId));
+		});
+
+		assertStats(teamAId, 1, 10, 10, 10);
+		assertStats(teamBId, 2, 80, 30, 50);
+	}
+
+	@Test
+	public void removedMember() {
+		transactionTemplate.executeWithoutResult(status -> em.remove(em.find(Member.class, movingMemberId)));
+
+		assertStats(teamAId, 1, 10, 10, 10);
+	}
+
+	@Test
+	public void rolledBackChangeIsIgnored() {
+		transactionTemplate.executeWithoutResult(status -> {
+			em.find(Member.class, movingMemberId).setAge(99);
+			em.flush();
+			status.setRollbackOnly();
+		});
+
+		assertStats(teamAId, 2, 30, 10, 20);
+	}
+
+	@Test
+	public void reconcileFindsNoDriftAfterIncrementalUpdates() {
+		transactionTemplate.executeWithoutResult(status -> em.find(Member.class, movingMemberId).setAge(25));
+		double drift = meterRegistry.counter("querydsl.team-stats.drift").count();
+
+		teamStatistics.reconcile();
+
+		assertThat(meterRegistry.counter("querydsl.team-stats.drift").count()).isEqualTo(drift);
+		assertStats(teamAId, 2, 35, 10, 25);
+	}
+
+	// 재계산이 DB 를 다 읽은 뒤, 교체하기 전에 커밋된 변경 - 재계산 결과에도 반영돼야 함
+	@Test
+	public void eventDuringReconcileIsReplayed() {
+		TeamStatistics[] statistics = new TeamStatistics[1];
+		AtomicBoolean committed = new AtomicBoolean();
+		Runnable commitDuringLoad = () -> {
+			if (committed.compareAndSet(false, true)) {
+				transactionTemplate.executeWithoutResult(
+					status -> em.persist(new Member("statsMember4", 40, em.find(Team.class, teamAId))));
+				statistics[0].memberAdded(teamAId, 40); // TeamStatisticsEventListener 가 커밋 후 호출하는 것과 같음
+			}
+		};
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		statistics[0] = new TeamStatistics(LoadHook.onClose(emf, commitDuringLoad), registry, true);
+		try {
+			statistics[0].reconcile();
+			assertThat(stats(statistics[0], teamAId).getCount()).isEqualTo(3); // 재계산 쿼리 결과는 2
+
+			statistics[0].reconcile();
+			assertThat(registry.counter("querydsl.team-stats.drift").count()).isZero();
+			assertThat(stats(statistics[0], teamAId).getSum()).isEqualTo(70);
+		} finally {
+			statistics[0].shutdown();
+		}
+	}
+
+	private void assertStats(Long teamId, long count, long sum, int min, int max) {
+		TeamStatsDto stats = stats(teamId);
+		assertThat(stats.getCount()).isEqualTo(count);
+		assertThat(stats.getSum()).isEqualTo(sum);
+		assertThat(stats.getMin()).isEqualTo(min);
+		assertThat(stats.getMax()).isEqualTo(max);
+	}
+
+	private TeamStatsDto stats(Long teamId) {
+		return stats(teamStatistics, teamId);
+	}
+
+	private static TeamStatsDto stats(TeamStatistics teamStatistics, Long teamId) {
+		return teamStatistics.stats().stream()
+			.filter(stats -> stats.getTeamId().equals(teamId))
+			.findFirst()
+			.orElseThrow();
+	}
+}
@@ -0,0 +1,99 @@
+package study.querydsl.repository.readmodel;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "querydsl.username-filter.enabled=true")
+class UsernameBloomFilterTest {
+
+	@Autowired
+	EntityManagerFactory emf;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	@Test
+	public void noFalseNegatives() {
+		UsernameBloomFilter.Bits bits = new UsernameBloomFilter.Bits(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			bits.add("member" + i);
+		}
+		for (int i = 0; i < 10_000; i++) {
+			assertThat(bits.mightContain("member" + i)).isTrue();
+		}
+		assertThat(bits.isFull()).isFalse();
+	}
+
+	// 예상 개수만큼 넣었을 때 오탐률이 설정값 근처 (여유 두 배)
+	@Test
+	public void falsePositiveRate() {
+		UsernameBloomFilter.Bits bits = new UsernameBloomFilter.Bits(100_000, 0.01);
+		for (int i = 0; i < 100_000; i++) {
+			bits.add("member" + i);
+		}
+		int falsePositives = 0;
+		for (int i = 0; i < 100_000; i++) {
+			if (bits.mightContain("free" + i)) {
+				falsePositives++;
+			}
+		}
+		assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+		assertThat(bits.fillRatio()).isBetween(0.4, 0.6); // 최적 k 면 약 절반
+	}
+
+	@Test
+	public void fullAfterExpectedInsertions() {
+		UsernameBloomFilter.Bits bits = new UsernameBloomFilter.Bits(10, 0.01);
+		for (int i = 0; i <= 10; i++) {
+			bits.add("member" + i);
+		}
+		assertThat(bits.isFull()).isTrue();
+	}
+
+	// 재적재 시작 전에 추가(커밋 전)되고 DB 를 다 읽은 뒤에 커밋된 username - 커밋 후 재추가로 새 filter 에도 있어야 함
+	@Test
+	public void commitDuringReloadIsReplayed() throws Exception {
+		CountDownLatch loaded = new CountDownLatch(1);
+		CountDownLatch committed = new CountDownLatch(1);
+		Runnable waitForCommit = () -> {
+			loaded.countDown();
+			try {
+				committed.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+		UsernameBloomFilter filter = new UsernameBloomFilter(LoadHook.onClose(emf, waitForCommit),
+			new SimpleMeterRegistry(), true, 0.01, 1000, 1000);
+		try {
+			CompletableFuture<?>[] reload = new CompletableFuture<?>[1];
+			transactionTemplate.executeWithoutResult(status -> {
+				filter.add("bloomLate");
+				reload[0] = CompletableFuture.runAsync(filter::reload);
+				try {
+					assertThat(loaded.await(10, TimeUnit.SECONDS)).isTrue();
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			committed.countDown();
+			reload[0].get(10, TimeUnit.SECONDS);
+
+			assertThat(filter.isReady()).isTrue();
+			assertThat(filter.mightContain("bloomLate")).isTrue();
+		} finally {
+			filter.shutdown();
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import study.querydsl.dto.MemberSearchCondition;
+
+class CountCacheTest {
+
+	SimpleMeterRegistry meterRegistry;
+	AtomicLong now;
+	CountCache countCache;
+	AtomicInteger loads;
+
+	@BeforeEach
+	public void before() {
+		meterRegistry = new SimpleMeterRegistry();
+		now = new AtomicLong();
+		countCache = new CountCache(meterRegistry, true, Duration.ofSeconds(30), 2, now::get);
+		loads = new AtomicInteger();
+	}
+
+	@AfterEach
+	public void after() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		TransactionSynchronizationManager.setActualTransactionActive(false);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		TransactionSynchronizationManager.unbindResourceIfPossible(countCache);
+	}
+
+	@Test
+	public void reuseUntilTtlExpires() {
+		CountCache.Key key = CountCache.key("test", "condition");
+
+		assertThat(countCache.get(key, this::load)).isEqualTo(1);
+		now.addAndGet(Duration.ofSeconds(29).toNanos());
+		assertThat(countCache.get(key, this::load)).isEqualTo(1);
+		now.addAndGet(Duration.ofSeconds(1).toNanos());
+		assertThat(countCache.get(key, this::load)).isEqualTo(2); // 만료 -> 다시 조회
+
+		assertThat(count("hit")).isEqualTo(1);
+		assertThat(count("miss")).isEqualTo(2);
+	}
+
+	@Test
+	public void normalizedConditionsShareKey() {
+		MemberSearchCondition blank = new MemberSearchCondition();
+		blank.setUsername(" ");
+		blank.setUsernameMatch(MemberSearchCondition.UsernameMatch.PREFIX); // username 이 없으면 의미 없음
+		blank.setTeamName("");
+		blank.setAgeGoe(20);
+		MemberSearchCondition empty = new MemberSearchCondition();
+		empty.setAgeGoe(20);
+
+		assertThat(countCache.get(CountCache.key("test", blank.normalized()), this::load)).isEqualTo(1);
+		assertThat(countCache.get(CountCache.key("test", empty.normalized()), this::load)).isEqualTo(1);
+
+		empty.setAgeLoe(40);
+		assertThat(countCache.get(CountCache.key("test", empty.normalized()), this::load)).isEqualTo(2);
+	}
+
+	@Test
+	public void evictLeastRecentlyUsed() {
+		countCache.get(CountCache.key("test", 1), this::load);
+		countCache.get(CountCache.key("test", 2), this::load);
+		countCache.get(CountCache.key("test", 1), this::load); // 1 을 최근 사용으로
+		countCache.get(CountCache.key("test", 3), this::load); // max-size 2 -> 2 제거
+
+		assertThat(countCache.size()).isEqualTo(2);
+		assertThat(countCache.get(CountCache.key("test", 1), this::load)).isEqualTo(1);
+		assertThat(countCache.get(CountCache.key("test", 2), this::load)).isEqualTo(4);
+	}
+
+	@Test
+	public void invalidateDuringLoadIsNotCached() {
+		CountCache.Key key = CountCache.key("test", "condition");
+
+		assertThat(countCache.get(key, () -> {
+			countCache.invalidateAll(); // 조회 도중 다른 트랜잭션이 커밋
+			return load();
+		})).isEqualTo(1);
+		assertThat(countCache.size()).isZero();
+		assertThat(countCache.get(key, this::load)).isEqualTo(2);
+	}
+
+	@Test
+	public void invalidateAfterCommitOncePerTransaction() {
+		CountCache.Key key = CountCache.key("test", "condition");
+		countCache.get(key, this::load);
+		TransactionSynchronizationManager.initSynchronization();
+
+		countCache.invalidateAfterCommit();
+		countCache.invalidateAfterCommit(); // 행마다 호출돼도 한 번만 등록
+		assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(1);
+		assertThat(countCache.size()).isEqualTo(1); // 커밋 전에는 그대로
+
+		TransactionSynchronization synchronization = TransactionSynchronizationManager.getSynchronizations().get(0);
+		synchronization.afterCommit();
+		synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+		assertThat(countCache.size()).isZero();
+		assertThat(TransactionSynchronizationManager.hasResource(countCache)).isFalse();
+	}
+
+	@Test
+	public void rollbackKeepsEntries() {
+		countCache.get(CountCache.key("test", "condition"), this::load);
+		TransactionSynchronizationManager.initSynchronization();
+
+		countCache.invalidateAfterCommit();
+		TransactionSynchronizationManager.getSynchronizations().get(0)
+			.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		assertThat(countCache.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void bypassInReadWriteTransaction() {
+		CountCache.Key key = CountCache.key("test", "condition");
+		countCache.get(key, this::load);
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+
+		assertThat(countCache.get(key, this::load)).isEqualTo(2); // 캐시된 1 을 쓰지 않음
+		assertThat(countCache.get(key, this::load)).isEqualTo(3); // 채우지도 않음
+		assertThat(count("bypass")).isEqualTo(2);
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertThat(countCache.get(key, this::load)).isEqualTo(1); // 읽기 전용 트랜잭션은 사용
+	}
+
+	private long load() {
+		return loads.incrementAndGet();
+	}
+
+	private double count(String result) {
+		return meterRegistry.counter("querydsl.count-cache", "result", result).count();
+	}
+}
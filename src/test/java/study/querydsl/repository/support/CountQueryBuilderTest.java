@@ -0,0 +1,82 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.*;
+import static study.querydsl.entity.QTeam.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+@SpringBootTest
+@Transactional
+class CountQueryBuilderTest {
+
+	@Autowired
+	EntityManager em;
+
+	JPAQueryFactory queryFactory;
+
+	@BeforeEach
+	public void before() {
+		queryFactory = new JPAQueryFactory(em);
+
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamB));
+		em.persist(new Member("member4", 40, teamB));
+		em.persist(new Member("member5", 50)); // 팀 없음
+	}
+
+	@Test
+	public void dropUnusedLeftJoin() {
+		JPAQuery<MemberTeamDto> contentQuery = contentQuery()
+			.where(member.age.goe(20))
+			.orderBy(member.age.desc());
+
+		JPAQuery<Long> countQuery = CountQueryBuilder.build(queryFactory, contentQuery);
+
+		// 조건에 team 이 없으므로 join, projection, order by 모두 제거
+		assertThat(countQuery.toString()).doesNotContain("team").doesNotContain("order by");
+		assertThat(countQuery.fetchOne()).isEqualTo(4L);
+	}
+
+	@Test
+	public void keepLeftJoinUsedInWhere() {
+		JPAQuery<MemberTeamDto> contentQuery = contentQuery()
+			.where(team.name.eq("teamB"));
+
+		JPAQuery<Long> countQuery = CountQueryBuilder.build(queryFactory, contentQuery);
+
+		assertThat(countQuery.toString()).contains("left join member1.team as team");
+		assertThat(countQuery.fetchOne()).isEqualTo(2L);
+	}
+
+	private JPAQuery<MemberTeamDto> contentQuery() {
+		return queryFactory
+			.select(new QMemberTeamDto(
+				member.id.as("memberId"),
+				member.username,
+				member.age,
+				team.id.as("teamId"),
+				team.name.as("teamName")))
+			.from(member)
+			.leftJoin(member.team, team);
+	}
+}
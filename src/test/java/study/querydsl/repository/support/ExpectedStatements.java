@@ -0,0 +1,26 @@
+package study.querydsl.repository.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * 테스트 메서드 본문(@BeforeEach 제외)에서 나간 JDBC statement 수가 정확히 value 인지 검증.
+ * <pre>
+ * &#64;Test
+ * &#64;ExpectedStatements(2) // content + count
+ * void searchPage() { mockMvc.perform(get("/v2/members?page=1&amp;size=2")); }
+ * </pre>
+ * 본문이 끝난 뒤 검증하므로 예산 초과로 테스트 본문이 중간에 끊기지 않음. (운영의 StatementBudget 은 경고 로그만)
+ * 데이터 준비 후 em.flush() 를 해두지 않으면 auto flush 되는 insert 도 같이 센다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(StatementCountExtension.class)
+public @interface ExpectedStatements {
+
+	int value();
+}
@@ -0,0 +1,194 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JdbcConcurrencyLimiterTest {
+
+	SimpleMeterRegistry meterRegistry;
+	ExecutorService executor;
+
+	@BeforeEach
+	public void before() {
+		meterRegistry = new SimpleMeterRegistry();
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@AfterEach
+	public void after() {
+		executor.shutdownNow();
+	}
+
+	// permit 이 풀리면 먼저 기다린 호출부터
+	@Test
+	public void waitersEnterInArrivalOrder() throws Exception {
+		JdbcConcurrencyLimiter limiter = new JdbcConcurrencyLimiter(meterRegistry, 1, Duration.ofSeconds(5));
+		CountDownLatch holding = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> entered = new CopyOnWriteArrayList<>();
+
+		Future<Object> holder = executor.submit(() -> limit(limiter, () -> {
+			holding.countDown();
+			release.await();
+			return null;
+		}));
+		holding.await();
+		Future<Object> first = submitWaiting(limiter, entered, "first");
+		Future<Object> second = submitWaiting(limiter, entered, "second");
+		release.countDown();
+
+		holder.get(5, TimeUnit.SECONDS);
+		first.get(5, TimeUnit.SECONDS);
+		second.get(5, TimeUnit.SECONDS);
+		assertThat(entered).containsExactly("first", "second");
+		assertThat(available()).isEqualTo(1);
+	}
+
+	// 서비스 -> 리포지토리처럼 같은 스레드에서 다시 들어오면 permit 을 또 기다리지 않음
+	@Test
+	public void nestedCallUsesOnePermit() throws Throwable {
+		JdbcConcurrencyLimiter limiter = new JdbcConcurrencyLimiter(meterRegistry, 1, Duration.ofMillis(100));
+		double[] inner = new double[1];
+
+		limiter.limit(joinPoint(() -> limiter.limit(joinPoint(() -> {
+			inner[0] = available();
+			return null;
+		}))));
+
+		assertThat(inner[0]).isZero();
+		assertThat(available()).isEqualTo(1);
+		assertThat(meterRegistry.counter("querydsl.jdbc-limiter.rejected").count()).isZero();
+	}
+
+	@Test
+	public void acquireTimeoutIsRejected() throws Exception {
+		JdbcConcurrencyLimiter limiter = new JdbcConcurrencyLimiter(meterRegistry, 1, Duration.ofMillis(50));
+		CountDownLatch holding = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<Object> holder = executor.submit(() -> limit(limiter, () -> {
+			holding.countDown();
+			release.await();
+			return null;
+		}));
+		holding.await();
+
+		try {
+			assertThatThrownBy(() -> limiter.limit(joinPoint(() -> "never")))
+				.isInstanceOf(JdbcConcurrencyLimitExceededException.class)
+				.hasMessageContaining("Repository.method()");
+			assertThat(meterRegistry.counter("querydsl.jdbc-limiter.rejected").count()).isEqualTo(1);
+		} finally {
+			release.countDown();
+		}
+		holder.get(5, TimeUnit.SECONDS);
+		assertThat(available()).isEqualTo(1);
+	}
+
+	// 예외가 나도 permit 과 재진입 깊이가 돌아와야 다음 호출이 permit 을 다시 얻음
+	@Test
+	public void permitReleasedOnException() throws Throwable {
+		JdbcConcurrencyLimiter limiter = new JdbcConcurrencyLimiter(meterRegistry, 1, Duration.ofMillis(100));
+
+		assertThatThrownBy(() -> limiter.limit(joinPoint(() -> {
+			throw new IllegalStateException("query failed");
+		}))).isInstanceOf(IllegalStateException.class);
+
+		assertThat(available()).isEqualTo(1);
+		double[] during = new double[1];
+		limiter.limit(joinPoint(() -> {
+			during[0] = available();
+			return null;
+		}));
+		assertThat(during[0]).isZero(); // 깊이가 남아 있으면 permit 없이 들어감
+	}
+
+	@Test
+	public void defaultPermitsLeaveBackgroundConnections() {
+		MockEnvironment environment = new MockEnvironment()
+			.withProperty("spring.datasource.hikari.maximum-pool-size", "20");
+		assertThat(JdbcConcurrencyLimiter.defaultPermits(environment)).isEqualTo(16); // 벌크 풀 4
+
+		environment.withProperty("querydsl.pagination.parallel-count.enabled", "true")
+			.withProperty("querydsl.pagination.parallel-count.pool-size", "8")
+			.withProperty("querydsl.read-model.enabled", "true")
+			.withProperty("querydsl.username-filter.enabled", "true");
+		assertThat(JdbcConcurrencyLimiter.defaultPermits(environment)).isEqualTo(6);
+
+		environment.withProperty("spring.datasource.hikari.maximum-pool-size", "5");
+		assertThat(JdbcConcurrencyLimiter.defaultPermits(environment)).isEqualTo(1);
+	}
+
+	// permit 을 기다리는 상태가 된 뒤에 돌려줌 - 도착 순서를 정하기 위해
+	private Future<Object> submitWaiting(JdbcConcurrencyLimiter limiter, List<String> entered, String name)
+		throws InterruptedException {
+		Thread[] thread = new Thread[1];
+		CountDownLatch started = new CountDownLatch(1);
+		ProceedingJoinPoint joinPoint = joinPoint(() -> entered.add(name));
+		Future<Object> future = executor.submit(() -> {
+			thread[0] = Thread.currentThread();
+			started.countDown();
+			return limit(limiter, joinPoint);
+		});
+		started.await();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (thread[0].getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		return future;
+	}
+
+	private double available() {
+		return meterRegistry.get("querydsl.jdbc-limiter.available").gauge().value();
+	}
+
+	// 다른 스레드에서 실행할 때 (Callable 은 Throwable 을 던질 수 없음)
+	private static Object limit(JdbcConcurrencyLimiter limiter, Body body) throws Exception {
+		return limit(limiter, joinPoint(body));
+	}
+
+	private static Object limit(JdbcConcurrencyLimiter limiter, ProceedingJoinPoint joinPoint) throws Exception {
+		try {
+			return limiter.limit(joinPoint);
+		} catch (Exception | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static ProceedingJoinPoint joinPoint(Body body) {
+		ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+		Signature signature = mock(Signature.class);
+		when(signature.toShortString()).thenReturn("Repository.method()");
+		when(joinPoint.getSignature()).thenReturn(signature);
+		try {
+			when(joinPoint.proceed()).thenAnswer(invocation -> body.run());
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+		return joinPoint;
+	}
+
+	@FunctionalInterface
+	private interface Body {
+		Object run() throws Throwable;
+	}
+}
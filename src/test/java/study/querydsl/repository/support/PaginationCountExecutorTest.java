@@ -0,0 +1,190 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToLongFunction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+// count 함수는 DB 를 읽지 않고 실행된 스레드만 기록. 병렬일 때 별도 EntityManager 를 열기 위해 실제 EntityManagerFactory 사용
+@SpringBootTest
+class PaginationCountExecutorTest {
+
+	private static final PageRequest SECOND_PAGE = PageRequest.of(1, 2); // content 가 꽉 차면 count 필요
+
+	@Autowired
+	EntityManagerFactory emf;
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	SimpleMeterRegistry meterRegistry;
+	CountCache countCache;
+	ThreadPoolExecutor pool;
+	PaginationCountExecutor executor;
+
+	AtomicInteger counts = new AtomicInteger();
+	AtomicReference<String> countThread = new AtomicReference<>();
+	ToLongFunction<JPAQueryFactory> count = queryFactory -> {
+		counts.incrementAndGet();
+		countThread.set(Thread.currentThread().getName());
+		return 10;
+	};
+
+	@BeforeEach
+	public void before() {
+		meterRegistry = new SimpleMeterRegistry();
+		countCache = new CountCache(meterRegistry, true, Duration.ofMinutes(1), 100);
+		pool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(4),
+			runnable -> new Thread(runnable, "page-count-test"));
+		executor = new PaginationCountExecutor(emf, meterRegistry, countCache, pool);
+	}
+
+	@AfterEach
+	public void after() throws InterruptedException {
+		pool.shutdownNow();
+		pool.awaitTermination(10, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void countRunsOnPoolThread() {
+		Page<Integer> page = executor.getPage(SECOND_PAGE, () -> List.of(3, 4), count, queryFactory());
+
+		assertThat(page.getTotalElements()).isEqualTo(10);
+		assertThat(countThread.get()).isEqualTo("page-count-test");
+		assertThat(modeCount("parallel")).isEqualTo(1);
+	}
+
+	// 첫 페이지가 pageSize 보다 작으면 total 은 content 크기 - count 결과는 버림
+	@Test
+	public void countNotNeededIsSkipped() {
+		Page<Integer> page = executor.getPage(PageRequest.of(0, 5), () -> List.of(1, 2), count, queryFactory());
+
+		assertThat(page.getTotalElements()).isEqualTo(2);
+		assertThat(modeCount("skipped")).isEqualTo(1);
+		assertThat(modeCount("parallel")).isZero();
+	}
+
+	@Test
+	public void rejectedCountRunsSerially() throws InterruptedException {
+		ThreadPoolExecutor full = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+		CountDownLatch release = new CountDownLatch(1);
+		full.execute(() -> await(release)); // 스레드 하나를 점유, 큐 없음 -> 다음 제출은 거절
+		try {
+			PaginationCountExecutor rejecting = new PaginationCountExecutor(emf, meterRegistry, countCache, full);
+
+			Page<Integer> page = rejecting.getPage(SECOND_PAGE, () -> List.of(3, 4), count, queryFactory());
+
+			assertThat(page.getTotalElements()).isEqualTo(10);
+			assertThat(countThread.get()).isEqualTo(Thread.currentThread().getName());
+			assertThat(modeCount("serial")).isEqualTo(1);
+		} finally {
+			release.countDown();
+			full.shutdown();
+			full.awaitTermination(10, TimeUnit.SECONDS);
+		}
+	}
+
+	// content 가 실패하면 아직 시작하지 않은 count 는 취소되어 실행되지 않음
+	@Test
+	public void contentFailureCancelsCount() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		pool.execute(() -> await(release)); // count 는 큐에서 대기
+
+		assertThatThrownBy(() -> executor.getPage(SECOND_PAGE, () -> {
+			throw new IllegalStateException("content failed");
+		}, count, queryFactory())).isInstanceOf(IllegalStateException.class).hasMessage("content failed");
+
+		release.countDown();
+		pool.shutdown();
+		assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(counts.get()).isZero();
+		assertThat(modeCount("parallel") + modeCount("serial") + modeCount("skipped")).isZero();
+	}
+
+	// miss 는 병렬 count 결과를 호출 스레드에서 저장, 다음 호출은 풀에 제출하지 않고 캐시 값
+	@Test
+	public void cachedTotalSkipsPool() {
+		CountCache.Key key = CountCache.key("test", "condition");
+		executor.getPage(SECOND_PAGE, () -> List.of(3, 4), count, queryFactory(), key);
+		long submitted = pool.getTaskCount();
+
+		Page<Integer> page = executor.getPage(SECOND_PAGE, () -> List.of(3, 4), count, queryFactory(), key);
+
+		assertThat(page.getTotalElements()).isEqualTo(10);
+		assertThat(counts.get()).isEqualTo(1);
+		assertThat(pool.getTaskCount()).isEqualTo(submitted);
+		assertThat(modeCount("parallel")).isEqualTo(1);
+		assertThat(modeCount("cached")).isEqualTo(1);
+	}
+
+	// 읽기/쓰기 트랜잭션 안이면 호출 스레드에서 직렬로 - 캐시도 쓰지 않음
+	@Test
+	public void readWriteTransactionCountsSerially() {
+		CountCache.Key key = CountCache.key("test", "condition");
+		Page<Integer> page = transactionTemplate.execute(status ->
+			executor.getPage(SECOND_PAGE, () -> List.of(3, 4), count, queryFactory(), key));
+
+		assertThat(page.getTotalElements()).isEqualTo(10);
+		assertThat(countThread.get()).isEqualTo(Thread.currentThread().getName());
+		assertThat(modeCount("serial")).isEqualTo(1);
+		assertThat(countCache.size()).isZero();
+		assertThat(meterRegistry.counter("querydsl.count-cache", "result", "bypass").count()).isEqualTo(1);
+	}
+
+	// 읽기 전용 트랜잭션은 병렬 - 캐시도 사용
+	@Test
+	public void readOnlyTransactionCountsInParallel() {
+		TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+		readOnly.setReadOnly(true);
+		CountCache.Key key = CountCache.key("test", "condition");
+
+		readOnly.executeWithoutResult(status ->
+			executor.getPage(SECOND_PAGE, () -> List.of(3, 4), count, queryFactory(), key));
+
+		assertThat(countThread.get()).isEqualTo("page-count-test");
+		assertThat(modeCount("parallel")).isEqualTo(1);
+		assertThat(countCache.size()).isEqualTo(1);
+	}
+
+	private JPAQueryFactory queryFactory() {
+		return new JPAQueryFactory(em);
+	}
+
+	private double modeCount(String mode) {
+		return meterRegistry.counter("querydsl.pagination.count", "mode", mode).count();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
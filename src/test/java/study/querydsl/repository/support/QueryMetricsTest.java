@@ -0,0 +1,142 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mysema.commons.lang.CloseableIterator;
+import com.mysema.commons.lang.IteratorAdapter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class QueryMetricsTest {
+
+	SimpleMeterRegistry meterRegistry;
+	QueryMetrics queryMetrics;
+
+	@BeforeEach
+	public void before() {
+		meterRegistry = new SimpleMeterRegistry();
+		queryMetrics = new QueryMetrics(meterRegistry);
+	}
+
+	@Test
+	public void recordFetch() {
+		queryMetrics.record("test", () -> List.of(1, 2, 3), List::size);
+		queryMetrics.record("test", () -> List.of(1), List::size);
+		assertThatThrownBy(() -> queryMetrics.record("test", () -> {
+			throw new IllegalStateException("db down");
+		}, result -> 0)).isInstanceOf(IllegalStateException.class);
+
+		assertThat(timer("success").count()).isEqualTo(2);
+		assertThat(timer("error").count()).isEqualTo(1);
+		assertThat(rows().count()).isEqualTo(2);
+		assertThat(rows().totalAmount()).isEqualTo(4);
+	}
+
+	@Test
+	public void recordStreamOnClose() {
+		Stream<Integer> stream = queryMetrics.recordStream("test", () -> Stream.of(1, 2, 3));
+		assertThat(timer("success").count()).isZero(); // 아직 소비 중
+
+		try (stream) {
+			assertThat(stream.limit(2).toList()).containsExactly(1, 2);
+		}
+
+		assertThat(timer("success").count()).isEqualTo(1);
+		assertThat(rows().totalAmount()).isEqualTo(2); // 소비한 행만
+	}
+
+	@Test
+	public void recordStreamFailedWhileConsuming() {
+		Stream<Integer> stream = queryMetrics.recordStream("test", () -> Stream.of(1, 2, 3));
+
+		try (stream) {
+			assertThatThrownBy(() -> stream.forEach(row -> {
+				if (row == 2) {
+					throw new IllegalStateException("client disconnected");
+				}
+			})).isInstanceOf(IllegalStateException.class);
+		}
+
+		assertThat(timer("success").count()).isZero();
+		assertThat(timer("error").count()).isEqualTo(1);
+		assertThat(rows().totalAmount()).isEqualTo(2);
+	}
+
+	@Test
+	public void recordIteratorFailedWhileFetching() {
+		Iterator<Integer> failing = new Iterator<>() {
+			private int next = 1;
+
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public Integer next() {
+				if (next > 2) {
+					throw new IllegalStateException("db down");
+				}
+				return next++;
+			}
+		};
+		CloseableIterator<Integer> iterator = queryMetrics.recordIterator("test", () -> new IteratorAdapter<>(failing));
+
+		try {
+			assertThatThrownBy(() -> {
+				while (iterator.hasNext()) {
+					iterator.next();
+				}
+			}).isInstanceOf(IllegalStateException.class);
+		} finally {
+			iterator.close();
+		}
+
+		assertThat(timer("success").count()).isZero();
+		assertThat(timer("error").count()).isEqualTo(1);
+		assertThat(rows().totalAmount()).isEqualTo(2);
+	}
+
+	@Test
+	public void recordIteratorOnClose() {
+		CloseableIterator<Integer> iterator = queryMetrics.recordIterator("test",
+			() -> new IteratorAdapter<>(List.of(1, 2, 3).iterator()));
+		while (iterator.hasNext()) {
+			iterator.next();
+		}
+		iterator.close();
+		iterator.close(); // 두 번 닫아도 한 번만 기록
+
+		assertThat(timer("success").count()).isEqualTo(1);
+		assertThat(rows().count()).isEqualTo(1);
+		assertThat(rows().totalAmount()).isEqualTo(3);
+	}
+
+	@Test
+	public void metersRegisteredOncePerQueryName() {
+		queryMetrics.record("test", () -> List.of(1), List::size);
+		Timer timer = timer("success");
+		queryMetrics.record("test", () -> List.of(1), List::size);
+		queryMetrics.record("other", () -> List.of(1), List::size);
+
+		assertThat(timer("success")).isSameAs(timer);
+		assertThat(meterRegistry.find("querydsl.query").timers()).hasSize(4); // (test, other) x (success, error)
+	}
+
+	private Timer timer(String outcome) {
+		return meterRegistry.get("querydsl.query").tag("query", "test").tag("outcome", outcome).timer();
+	}
+
+	private DistributionSummary rows() {
+		return meterRegistry.get("querydsl.query.rows").tag("query", "test").summary();
+	}
+}
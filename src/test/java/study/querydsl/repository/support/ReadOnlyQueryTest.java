@@ -0,0 +1,71 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+@SpringBootTest
+@Transactional
+class ReadOnlyQueryTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	MemberTestRepository memberTestRepository;
+
+	@Autowired
+	MemberJpaRepository memberJpaRepository;
+
+	@BeforeEach
+	public void before() {
+		Team teamA = new Team("teamA");
+		em.persist(teamA);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.flush();
+		em.clear();
+	}
+
+	// 테스트의 읽기/쓰기 트랜잭션에 참여해도 쿼리 힌트로 읽기 전용 로딩
+	@Test
+	public void readOnlyEntitiesInReadWriteTransaction() {
+		Session session = em.unwrap(Session.class);
+
+		List<Member> result = memberTestRepository.basicSelectFrom();
+
+		assertThat(result).hasSize(2).allMatch(session::isReadOnly);
+		result.get(0).setUsername("changed"); // 스냅샷이 없으므로 flush 대상이 아님
+		em.flush();
+		em.clear();
+
+		Long changed = em.createQuery("select count(m) from Member m where m.username = 'changed'", Long.class)
+			.getSingleResult();
+		assertThat(changed).isZero();
+	}
+
+	@Test
+	public void searchMemberIsReadOnly() {
+		Session session = em.unwrap(Session.class);
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamA");
+
+		assertThat(memberJpaRepository.searchMember(condition)).hasSize(2).allMatch(session::isReadOnly);
+		em.clear();
+		// 일반 조회는 그대로 관리 대상
+		assertThat(memberJpaRepository.findAll()).noneMatch(session::isReadOnly);
+	}
+}
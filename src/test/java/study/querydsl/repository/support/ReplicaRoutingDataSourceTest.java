@@ -0,0 +1,95 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// in-memory H2 여러 개를 primary/replica 로 두고 어느 DB 에서 읽었는지 확인
+class ReplicaRoutingDataSourceTest {
+
+	@Test
+	public void readOnlyTransactionGoesToReplicas() {
+		DataSource primary = node("primary");
+		List<DataSource> replicas = List.of(node("replica1"), node("replica2"));
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas,
+			ReplicaRoutingDataSource.Strategy.ROUND_ROBIN, Duration.ofSeconds(30));
+
+		assertThat(read(routing, false)).isEqualTo("primary");
+		List<String> reads = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			reads.add(read(routing, true));
+		}
+		assertThat(reads).containsExactly("replica1", "replica2", "replica1", "replica2");
+		assertThat(read(routing, false)).isEqualTo("primary");
+	}
+
+	@Test
+	public void fallbackWhenReplicaIsDown() {
+		DataSource primary = node("primary");
+		DownDataSource down = new DownDataSource();
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(down, node("replica1")),
+			ReplicaRoutingDataSource.Strategy.ROUND_ROBIN, Duration.ofSeconds(30));
+
+		// 내려간 replica 는 건너뛰고 다음 replica
+		for (int i = 0; i < 3; i++) {
+			assertThat(read(routing, true)).isEqualTo("replica1");
+		}
+		assertThat(down.attempts.get()).isEqualTo(1); // 다시 차례가 와도 retry-after 동안은 시도하지 않음
+
+		// replica 가 모두 내려가면 primary
+		ReplicaRoutingDataSource allDown = new ReplicaRoutingDataSource(primary, List.of(down),
+			ReplicaRoutingDataSource.Strategy.LEAST_BUSY, Duration.ofSeconds(30));
+		assertThat(read(allDown, true)).isEqualTo("primary");
+	}
+
+	// DataSourceTransactionManager 는 트랜잭션 시작 시 커넥션을 얻으므로 LazyConnectionDataSourceProxy 필수
+	private static String read(ReplicaRoutingDataSource routing, boolean readOnly) {
+		DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		transactionTemplate.setReadOnly(readOnly);
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+	}
+
+	// 커넥션을 얻을 때마다 SQLException - 내려간 replica
+	private static class DownDataSource extends AbstractDataSource {
+
+		private final AtomicInteger attempts = new AtomicInteger();
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			attempts.incrementAndGet();
+			throw new SQLException("replica down");
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			return getConnection();
+		}
+	}
+
+	private static DataSource node(String name) {
+		DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa",
+			"");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("create table if not exists node (name varchar(20))");
+		jdbcTemplate.update("delete from node");
+		jdbcTemplate.update("insert into node values (?)", name);
+		return dataSource;
+	}
+}
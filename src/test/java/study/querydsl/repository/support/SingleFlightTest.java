@@ -0,0 +1,126 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+	SimpleMeterRegistry meterRegistry;
+	ExecutorService executor;
+
+	@BeforeEach
+	public void before() {
+		meterRegistry = new SimpleMeterRegistry();
+		executor = Executors.newFixedThreadPool(8);
+	}
+
+	@AfterEach
+	public void after() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void concurrentCallsShareOneExecution() throws Exception {
+		SingleFlight singleFlight = new SingleFlight(meterRegistry, Duration.ofSeconds(5));
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger executions = new AtomicInteger();
+
+		List<Future<String>> results = new ArrayList<>();
+		results.add(executor.submit(() -> call(singleFlight, () -> {
+			started.countDown();
+			release.await();
+			return "result" + executions.incrementAndGet();
+		})));
+		started.await();
+		for (int i = 0; i < 5; i++) {
+			results.add(executor.submit(() -> call(singleFlight, () -> "result" + executions.incrementAndGet())));
+		}
+		awaitWaiters(singleFlight, 5); // 나머지가 leader 결과를 기다리는 상태가 되도록
+		release.countDown();
+
+		for (Future<String> result : results) {
+			assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("result1");
+		}
+		assertThat(executions).hasValue(1);
+		assertThat(count("coalesced")).isEqualTo(5);
+		assertThat(singleFlight.inFlight()).isZero();
+	}
+
+	@Test
+	public void waiterRunsItselfAfterMaxWait() throws Exception {
+		SingleFlight singleFlight = new SingleFlight(meterRegistry, Duration.ofMillis(50));
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Future<String> leader = executor.submit(() -> call(singleFlight, () -> {
+			started.countDown();
+			release.await();
+			return "leader";
+		}));
+		started.await();
+
+		assertThat(call(singleFlight, () -> "own")).isEqualTo("own");
+		assertThat(count("timeout")).isEqualTo(1);
+		release.countDown();
+		assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("leader");
+	}
+
+	@Test
+	public void leaderFailureIsSharedAndKeyIsReleased() throws Exception {
+		SingleFlight singleFlight = new SingleFlight(meterRegistry, Duration.ofSeconds(5));
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Future<String> leader = executor.submit(() -> call(singleFlight, () -> {
+			started.countDown();
+			release.await();
+			throw new IllegalStateException("db down");
+		}));
+		started.await();
+		Future<String> waiter = executor.submit(() -> call(singleFlight, () -> "never"));
+		awaitWaiters(singleFlight, 1);
+		release.countDown();
+
+		assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("db down");
+		assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("db down");
+		assertThat(call(singleFlight, () -> "retry")).isEqualTo("retry"); // 실패한 key 가 남아있지 않음
+	}
+
+	private static void awaitWaiters(SingleFlight singleFlight, int waiters) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (singleFlight.waiters("key") < waiters) {
+			assertThat(System.nanoTime()).isLessThan(deadline);
+			Thread.sleep(1);
+		}
+	}
+
+	private static String call(SingleFlight singleFlight, SingleFlight.Loader<String> loader) throws Exception {
+		try {
+			return singleFlight.execute("test", "key", loader);
+		} catch (Exception | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private double count(String result) {
+		return meterRegistry.counter("querydsl.single-flight", "name", "test", "result", result).count();
+	}
+}
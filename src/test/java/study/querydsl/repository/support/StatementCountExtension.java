@@ -0,0 +1,32 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+// @ExpectedStatements 가 붙은 테스트 본문을 StatementBudget scope 로 감싸서 statement 수를 센다
+public class StatementCountExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+	private static final ExtensionContext.Namespace NAMESPACE =
+		ExtensionContext.Namespace.create(StatementCountExtension.class);
+
+	@Override
+	public void beforeTestExecution(ExtensionContext context) {
+		StatementBudget.Scope scope = StatementBudget.open(context.getDisplayName(), StatementBudget.UNLIMITED);
+		context.getStore(NAMESPACE).put(context.getUniqueId(), scope);
+	}
+
+	@Override
+	public void afterTestExecution(ExtensionContext context) {
+		StatementBudget.Scope scope = context.getStore(NAMESPACE)
+			.remove(context.getUniqueId(), StatementBudget.Scope.class);
+		scope.close();
+		context.getTestMethod()
+			.map(method -> method.getAnnotation(ExpectedStatements.class))
+			.ifPresent(expected -> assertThat(scope.getCount())
+				.as("statement 수, 가장 많이 반복된 SQL: %s", scope.mostRepeated())
+				.isEqualTo(expected.value()));
+	}
+}
@@ -0,0 +1,93 @@
+package study.querydsl.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.dto.BulkOperationResult;
+import study.querydsl.entity.Member;
+
+// chunk 는 별도 트랜잭션으로 커밋되므로 @Transactional 롤백 대신 직접 지움
+@SpringBootTest(properties = {"querydsl.bulk.chunk-size=7", "querydsl.bulk.pool-size=3"})
+class MemberBulkOperationServiceTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	@Autowired
+	MemberBulkOperationService memberBulkOperationService;
+
+	JPAQueryFactory queryFactory;
+
+	@BeforeEach
+	public void before() {
+		queryFactory = new JPAQueryFactory(em);
+		transactionTemplate.executeWithoutResult(status -> {
+			for (int i = 0; i < 50; i++) {
+				em.persist(new Member("bulk" + i, i));
+			}
+		});
+	}
+
+	@AfterEach
+	public void after() {
+		transactionTemplate.executeWithoutResult(status -> queryFactory
+			.delete(member)
+			.where(member.username.startsWith("bulk"))
+			.execute());
+	}
+
+	@Test
+	public void chunkedUpdate() {
+		BulkOperationResult result = memberBulkOperationService.update("test.ageDouble",
+			member.username.startsWith("bulk").and(member.age.lt(28)),
+			update -> update.set(member.age, member.age.multiply(2)));
+
+		assertThat(result.getRows()).isEqualTo(28);
+		assertThat(result.getChunks()).isGreaterThan(1);
+
+		List<Integer> ages = queryFactory
+			.select(member.age)
+			.from(member)
+			.where(member.username.startsWith("bulk"))
+			.orderBy(member.age.asc())
+			.fetch();
+		assertThat(ages).hasSize(50).contains(54).doesNotContain(1, 27);
+	}
+
+	@Test
+	public void chunkedDelete() {
+		BulkOperationResult result = memberBulkOperationService.delete("test.delete",
+			member.username.startsWith("bulk").and(member.age.gt(18)));
+
+		assertThat(result.getRows()).isEqualTo(31);
+		Long remaining = queryFactory
+			.select(member.count())
+			.from(member)
+			.where(member.username.startsWith("bulk"))
+			.fetchOne();
+		assertThat(remaining).isEqualTo(19);
+	}
+
+	@Test
+	public void noMatch() {
+		BulkOperationResult result = memberBulkOperationService.delete("test.none", member.username.eq("nobody"));
+
+		assertThat(result.getRows()).isZero();
+		assertThat(result.getChunks()).isZero();
+	}
+}
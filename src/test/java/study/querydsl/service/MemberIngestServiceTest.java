@@ -0,0 +1,149 @@
+package study.querydsl.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static study.querydsl.entity.QMember.*;
+import static study.querydsl.entity.QTeam.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.dto.IngestResult;
+import study.querydsl.dto.MemberIngestRow;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.TeamIdResolver;
+import study.querydsl.repository.support.CountCache;
+
+// chunk 마다 커밋되므로 @Transactional 롤백 대신 직접 지움
+@SpringBootTest(properties = {"querydsl.ingest.chunk-size=2", "spring.jpa.properties.hibernate.jdbc.batch_size=2"})
+class MemberIngestServiceTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	@Autowired
+	MemberIngestService memberIngestService;
+
+	@Autowired
+	CountCache countCache;
+
+	@SpyBean
+	TeamIdResolver teamIdResolver;
+
+	JPAQueryFactory queryFactory;
+
+	@BeforeEach
+	public void before() {
+		queryFactory = new JPAQueryFactory(em);
+	}
+
+	@AfterEach
+	public void after() {
+		transactionTemplate.executeWithoutResult(status -> {
+			queryFactory.delete(member).where(member.username.startsWith("ingest")).execute();
+			queryFactory.delete(team).where(team.name.startsWith("ingestTeam")).execute();
+		});
+	}
+
+	@Test
+	public void ingestInChunksAndReuseTeams() {
+		countCache.get(CountCache.key("test", "ingest"), () -> 0L);
+
+		IngestResult result = memberIngestService.ingest(List.of(
+			row("ingest1", 10, "ingestTeamA"),
+			row("ingest2", 20, "ingestTeamA"),
+			row("ingest3", 30, "ingestTeamA"), // 다음 chunk 에서는 커밋된 팀 id 재사용
+			row("ingest4", 40, null),
+			row("ingest5", 50, "ingestTeamB")).iterator());
+
+		assertThat(result.getRows()).isEqualTo(5);
+		assertThat(queryFactory.selectFrom(team).where(team.name.eq("ingestTeamA")).fetch()).hasSize(1);
+		assertThat(queryFactory.select(member.username).from(member)
+			.where(member.team.name.eq("ingestTeamA"))
+			.orderBy(member.username.asc())
+			.fetch()).containsExactly("ingest1", "ingest2", "ingest3");
+		assertThat(queryFactory.selectFrom(member).where(member.username.eq("ingest4")).fetchOne().getTeam())
+			.isNull();
+		assertThat(countCache.size()).isZero(); // 커밋된 chunk 마다 비워짐
+	}
+
+	// 실패한 chunk 는 반으로 나눠 다시 저장 - 실패한 행만 빠짐
+	@Test
+	public void failedRowIsIsolated() {
+		IngestResult result = memberIngestService.ingest(List.of(
+			row("ingest1", 10, "ingestTeamA"),
+			row("ingest2", 20, "ingestTeamA"),
+			row("ingest3", 30, "ingestTeamB"), // 두 번째 chunk - 같은 chunk 의 다른 행이 실패해도 저장됨
+			row("ingest4" + "x".repeat(300), 40, "ingestTeamA"), // varchar(255) 초과
+			row("ingest5", 50, "ingestTeamB"),
+			row("ingest6", 60, "ingestTeamA")).iterator());
+
+		assertThat(result.getRows()).isEqualTo(5);
+		assertThat(result.getFailedRows()).isEqualTo(1);
+		assertThat(result.getFailedRanges()).containsExactly(new IngestResult.RowRange(3, 4));
+		assertThat(result.isStopped()).isFalse();
+		assertThat(queryFactory.select(member.username).from(member)
+			.where(member.username.startsWith("ingest"))
+			.orderBy(member.username.asc())
+			.fetch()).containsExactly("ingest1", "ingest2", "ingest3", "ingest5", "ingest6");
+		assertThat(queryFactory.selectFrom(team).where(team.name.eq("ingestTeamB")).fetch()).hasSize(1);
+		assertThat(queryFactory.select(member.team.name).from(member)
+			.where(member.username.eq("ingest5"))
+			.fetchOne()).isEqualTo("ingestTeamB");
+	}
+
+	// 이어진 실패 행은 한 범위로
+	@Test
+	public void adjacentFailedRowsAreMerged() {
+		String tooLong = "x".repeat(300);
+		IngestResult result = memberIngestService.ingest(List.of(
+			row("ingest1", 10, null),
+			row("ingest2" + tooLong, 20, null),
+			row("ingest3" + tooLong, 30, null),
+			row("ingest4", 40, null),
+			row("ingest5" + tooLong, 50, null)).iterator());
+
+		assertThat(result.getRows()).isEqualTo(2);
+		assertThat(result.getFailedRanges())
+			.containsExactly(new IngestResult.RowRange(1, 3), new IngestResult.RowRange(4, 5));
+	}
+
+	// 팀이 없다고 읽은 뒤 다른 요청이 같은 이름으로 먼저 커밋 -> uk_team_name 위반, 다시 읽어서 그 팀 사용
+	@Test
+	public void concurrentlyCreatedTeamIsReused() {
+		doAnswer(invocation -> {
+			transactionTemplate.executeWithoutResult(status -> em.persist(new Team("ingestTeamRace")));
+			return List.of();
+		}).doCallRealMethod().when(teamIdResolver).findIdsByName("ingestTeamRace");
+
+		IngestResult result = memberIngestService.ingest(List.of(row("ingest1", 10, "ingestTeamRace")).iterator());
+
+		assertThat(result.getRows()).isEqualTo(1);
+		assertThat(result.getFailedRanges()).isEmpty();
+		assertThat(queryFactory.selectFrom(team).where(team.name.eq("ingestTeamRace")).fetch()).hasSize(1);
+		assertThat(queryFactory.select(member.team.name).from(member)
+			.where(member.username.eq("ingest1"))
+			.fetchOne()).isEqualTo("ingestTeamRace");
+	}
+
+	private static MemberIngestRow row(String username, int age, String teamName) {
+		MemberIngestRow row = new MemberIngestRow();
+		row.setUsername(username);
+		row.setAge(age);
+		row.setTeamName(teamName);
+		return row;
+	}
+}
@@ -0,0 +1,98 @@
+package study.querydsl.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.dto.TeamTransferResult;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+@SpringBootTest
+@Transactional
+class TeamTransferServiceTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	TeamTransferService teamTransferService;
+
+	Team teamA;
+	Team teamB;
+	List<Long> teamAMemberIds = new ArrayList<>();
+
+	@BeforeEach
+	public void before() {
+		teamA = new Team("teamA");
+		teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+		for (int i = 0; i < 10; i++) {
+			Member member = new Member("member" + i, i, teamA);
+			em.persist(member);
+			teamAMemberIds.add(member.getId());
+		}
+		em.persist(new Member("memberB", 20, teamB));
+		em.flush();
+		em.clear();
+	}
+
+	@Test
+	public void transferDoesNotLoadTeamMembers() {
+		Long memberId = teamAMemberIds.get(0);
+
+		teamTransferService.transfer(memberId, teamB.getId());
+		em.flush();
+
+		Member findMember = em.find(Member.class, memberId);
+		assertThat(findMember.getTeam().getId()).isEqualTo(teamB.getId());
+		assertThat(Hibernate.isInitialized(findMember.getTeam().getMember())).isFalse();
+		assertThat(Hibernate.isInitialized(em.find(Team.class, teamA.getId()).getMember())).isFalse();
+	}
+
+	@Test
+	public void transferKeepsLoadedCollectionInSync() {
+		Team findTeamA = em.find(Team.class, teamA.getId());
+		Team findTeamB = em.find(Team.class, teamB.getId());
+		assertThat(findTeamA.getMember()).hasSize(10); // 이미 로딩된 컬렉션
+		assertThat(findTeamB.getMember()).hasSize(1);
+
+		Member findMember = em.find(Member.class, teamAMemberIds.get(0));
+		findMember.changeTeam(findTeamB);
+
+		assertThat(findTeamA.getMember()).hasSize(9).doesNotContain(findMember);
+		assertThat(findTeamB.getMember()).hasSize(2).contains(findMember);
+	}
+
+	@Test
+	public void bulkTransfer() {
+		List<Long> ids = new ArrayList<>(teamAMemberIds.subList(0, 5));
+		ids.add(ids.get(0)); // 중복
+		ids.add(-1L); // 없는 회원
+
+		TeamTransferResult result = teamTransferService.transfer(teamA.getId(), teamB.getId(), ids);
+
+		assertThat(result.getRequested()).isEqualTo(6);
+		assertThat(result.getTransferred()).isEqualTo(5);
+		Long teamBCount = em.createQuery("select count(m) from Member m where m.team.id = :teamId", Long.class)
+			.setParameter("teamId", teamB.getId())
+			.getSingleResult();
+		assertThat(teamBCount).isEqualTo(6);
+	}
+
+	@Test
+	public void unknownTeam() {
+		assertThatThrownBy(() -> teamTransferService.transfer(teamAMemberIds.get(0), -1L))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+}